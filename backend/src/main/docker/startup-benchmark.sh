@@ -0,0 +1,20 @@
+#!/bin/sh
+# Starts a throwaway PostgreSQL and runs StartupBenchmark against the JVM and
+# native builds in /work, writing the results to the directory given.
+set -e
+results=${1:-/results}
+runs=${RUNS:-10}
+
+mkdir -p /tmp/pgdata "$results"
+chown postgres /tmp/pgdata
+su postgres -c "initdb -D /tmp/pgdata -U postgres --auth=trust" > /dev/null
+su postgres -c "pg_ctl -D /tmp/pgdata -l /tmp/postgres.log -w start"
+su postgres -c "createdb -U postgres controle_estoque"
+su postgres -c "psql -U postgres -c \"alter user postgres password 'postgres'\"" > /dev/null
+
+java -cp /work/loadtest.jar com.example.loadtest.StartupBenchmark --name=jvm --runs="$runs" \
+    --output="$results" --command="java -jar /work/jvm/quarkus-run.jar"
+java -cp /work/loadtest.jar com.example.loadtest.StartupBenchmark --name=native --runs="$runs" \
+    --output="$results" --command="/work/native"
+
+su postgres -c "pg_ctl -D /tmp/pgdata -m fast stop" > /dev/null
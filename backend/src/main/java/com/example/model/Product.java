@@ -1,7 +1,10 @@
 package com.example.model;
 
-import javax.persistence.*;
+import jakarta.persistence.*;
+import io.quarkus.runtime.annotations.RegisterForReflection;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 import java.util.Set;
 
@@ -16,10 +19,13 @@ import java.util.Set;
  * @version 1.0
  */
 @Entity
+@Cacheable
 @Table(name = "product")
+@RegisterForReflection
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -35,10 +41,21 @@ public class Product {
     private Integer quantity;
 
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JsonIgnore
     private Set<ProductRawMaterial> rawMaterials;
 
+    @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @JsonIgnore
+    private Set<ProductComponent> components;
+
+    /** Components that use this product, removed with it. */
+    @OneToMany(mappedBy = "component", cascade = CascadeType.REMOVE)
+    @JsonIgnore
+    private Set<ProductComponent> usedIn;
+
     public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
     public String getCode() { return code; }
     public void setCode(String code) { this.code = code; }
     public String getName() { return name; }
@@ -49,4 +66,7 @@ public class Product {
     public void setQuantity(Integer quantity) { this.quantity = quantity; }
     public Set<ProductRawMaterial> getRawMaterials() { return rawMaterials; }
     public void setRawMaterials(Set<ProductRawMaterial> rawMaterials) { this.rawMaterials = rawMaterials; }
+    public Set<ProductComponent> getComponents() { return components; }
+    public void setComponents(Set<ProductComponent> components) { this.components = components; }
+    public Set<ProductComponent> getUsedIn() { return usedIn; }
 }
@@ -0,0 +1,41 @@
+package com.example.model;
+
+import jakarta.persistence.*;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * A product used as a component of another product, with the units of it
+ * one unit of the assembly takes. Components may have components of their
+ * own; the resulting graph never contains a cycle.
+ */
+@Entity
+@Cacheable
+@Table(name = "product_component",
+       indexes = {@Index(name = "idx_product_component_product", columnList = "product_id, component_id"),
+                  @Index(name = "idx_product_component_component", columnList = "component_id")})
+@RegisterForReflection
+public class ProductComponent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_component_seq")
+    @SequenceGenerator(name = "product_component_seq", sequenceName = "product_component_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "component_id", nullable = false)
+    private Product component;
+
+    @Column(name = "required_quantity", nullable = false)
+    private Integer requiredQuantity;
+
+    public Long getId() { return id; }
+    public Product getProduct() { return product; }
+    public void setProduct(Product product) { this.product = product; }
+    public Product getComponent() { return component; }
+    public void setComponent(Product component) { this.component = component; }
+    public Integer getRequiredQuantity() { return requiredQuantity; }
+    public void setRequiredQuantity(Integer requiredQuantity) { this.requiredQuantity = requiredQuantity; }
+}
@@ -1,12 +1,17 @@
 package com.example.model;
 
-import javax.persistence.*;
+import jakarta.persistence.*;
+import io.quarkus.runtime.annotations.RegisterForReflection;
 
 @Entity
-@Table(name = "product_raw_material")
+@Cacheable
+@Table(name = "product_raw_material",
+       indexes = @Index(name = "idx_product_raw_material_product", columnList = "product_id, raw_material_id"))
+@RegisterForReflection
 public class ProductRawMaterial {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_raw_material_seq")
+    @SequenceGenerator(name = "product_raw_material_seq", sequenceName = "product_raw_material_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
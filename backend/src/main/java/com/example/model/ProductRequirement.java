@@ -0,0 +1,59 @@
+package com.example.model;
+
+import jakarta.persistence.*;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import org.hibernate.annotations.Immutable;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Units of a raw material one unit of a product consumes across all its
+ * levels: its own requirement plus those of its components. Written only by
+ * {@link com.example.service.FlattenedRequirements}; the ids are plain
+ * columns so deleting a product or raw material never waits on these rows.
+ */
+@Entity
+@Immutable
+@Table(name = "product_requirement")
+@IdClass(ProductRequirement.Key.class)
+@RegisterForReflection
+public class ProductRequirement {
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Id
+    @Column(name = "raw_material_id")
+    private Long rawMaterialId;
+
+    @Column(name = "required_quantity", nullable = false)
+    private Integer requiredQuantity;
+
+    public Long getProductId() { return productId; }
+    public Long getRawMaterialId() { return rawMaterialId; }
+    public Integer getRequiredQuantity() { return requiredQuantity; }
+
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long productId;
+        private Long rawMaterialId;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(productId, other.productId) && Objects.equals(rawMaterialId, other.rawMaterialId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(productId, rawMaterialId);
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.model;
 
-import javax.persistence.*;
+import jakarta.persistence.*;
+import io.quarkus.runtime.annotations.RegisterForReflection;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 import java.util.Set;
 
@@ -16,10 +20,13 @@ import java.util.Set;
  * @version 1.0
  */
 @Entity
+@Cacheable
 @Table(name = "raw_material")
+@RegisterForReflection
 public class RawMaterial {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "raw_material_seq")
+    @SequenceGenerator(name = "raw_material_seq", sequenceName = "raw_material_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -31,7 +38,17 @@ public class RawMaterial {
     @Column(name = "stock_quantity", nullable = false)
     private Integer stockQuantity;
 
+    /** Units held by open reservations; they are no longer part of {@code stockQuantity}. */
+    @Column(name = "reserved_quantity", nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Integer reservedQuantity = 0;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "rawMaterial", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JsonIgnore
     private Set<ProductRawMaterial> products;
 
@@ -42,6 +59,9 @@ public class RawMaterial {
     public void setName(String name) { this.name = name; }
     public Integer getStockQuantity() { return stockQuantity; }
     public void setStockQuantity(Integer stockQuantity) { this.stockQuantity = stockQuantity; }
+    public Integer getReservedQuantity() { return reservedQuantity; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
     public Set<ProductRawMaterial> getProducts() { return products; }
     public void setProducts(Set<ProductRawMaterial> products) { this.products = products; }
 }
@@ -0,0 +1,34 @@
+package com.example.repository;
+
+import com.example.model.ProductComponent;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Components of multi-level products.
+ *
+ * Whether a new component closes a cycle depends on every other component,
+ * not on the two rows it links, so writers take
+ * {@link com.example.service.FlattenedRequirements#lockForChanges} first and
+ * are checked one at a time. Readers are not blocked.
+ */
+@ApplicationScoped
+public class ProductComponentRepository implements PanacheRepository<ProductComponent> {
+
+    /**
+     * Whether {@code productId} is {@code componentId} or one of its
+     * components at any level, i.e. whether using the component in the
+     * product would create a cycle.
+     */
+    public boolean contains(long componentId, long productId) {
+        Object found = getEntityManager()
+            .createNativeQuery("with recursive below(id) as ("
+                + "select cast(?1 as bigint) "
+                + "union select pc.component_id from product_component pc join below on pc.product_id = below.id) "
+                + "select exists (select 1 from below where id = ?2)")
+            .setParameter(1, componentId)
+            .setParameter(2, productId)
+            .getSingleResult();
+        return Boolean.TRUE.equals(found);
+    }
+}
@@ -1,9 +1,33 @@
 package com.example.repository;
 
 import com.example.model.ProductRawMaterial;
+import com.example.service.BillOfMaterials;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
-import javax.enterprise.context.ApplicationScoped;
+import org.hibernate.jpa.HibernateHints;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.List;
 
 @ApplicationScoped
 public class ProductRawMaterialRepository implements PanacheRepository<ProductRawMaterial> {
+
+    /**
+     * Loads the whole bill of materials in a single round trip, whatever its size.
+     *
+     * Reads product_requirement, the bill of materials already exploded
+     * across all levels, joined with product and raw_material so the
+     * product, the raw material stock and the required quantity come back
+     * in the same row, avoiding lazy loads. The result goes to the query
+     * cache and the products to the entity cache, so a reload with no write
+     * in between costs no round trip.
+     */
+    public BillOfMaterials loadBillOfMaterials() {
+        List<Object[]> rows = getEntityManager().createQuery(
+                "select p, rm.id, rm.stockQuantity, pr.requiredQuantity "
+                        + "from ProductRequirement pr join Product p on p.id = pr.productId "
+                        + "join RawMaterial rm on rm.id = pr.rawMaterialId "
+                        + "order by p.id", Object[].class)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .getResultList();
+        return BillOfMaterials.fromRows(rows);
+    }
 }
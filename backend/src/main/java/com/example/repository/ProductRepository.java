@@ -2,7 +2,7 @@ package com.example.repository;
 
 import com.example.model.Product;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
-import javax.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.ApplicationScoped;
 
 @ApplicationScoped
 public class ProductRepository implements PanacheRepository<Product> {
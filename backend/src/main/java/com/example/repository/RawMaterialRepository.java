@@ -1,9 +1,87 @@
 package com.example.repository;
 
 import com.example.model.RawMaterial;
+import com.example.service.StockMovementKind;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
-import javax.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
+/**
+ * Stock movements are single conditional UPDATEs, so concurrent callers can
+ * neither lose an update nor take a quantity below zero, and each one costs
+ * one round trip with no row read beforehand. They also increment the
+ * version, so an entity edit based on an older read fails its optimistic
+ * check instead of overwriting the movement. The same statement appends the
+ * movement to the stock history when the update matches.
+ *
+ * The updated row is mapped back as an entity. Call these before loading the
+ * same raw material in the current transaction, or the stale managed
+ * instance is returned.
+ */
 @ApplicationScoped
 public class RawMaterialRepository implements PanacheRepository<RawMaterial> {
+
+    /**
+     * Moves {@code quantity} units from stock to reserved.
+     *
+     * @return the updated raw material, or empty when it does not exist or has less stock than requested
+     */
+    public Optional<RawMaterial> reserve(long id, int quantity) {
+        return move(id, StockMovementKind.RESERVE, -quantity, quantity);
+    }
+
+    /**
+     * Returns {@code quantity} reserved units to stock.
+     *
+     * @return the updated raw material, or empty when it does not exist or has fewer units reserved
+     */
+    public Optional<RawMaterial> release(long id, int quantity) {
+        return move(id, StockMovementKind.RELEASE, quantity, -quantity);
+    }
+
+    /**
+     * Removes {@code quantity} reserved units for good.
+     *
+     * @return the updated raw material, or empty when it does not exist or has fewer units reserved
+     */
+    public Optional<RawMaterial> consume(long id, int quantity) {
+        return move(id, StockMovementKind.CONSUME, 0, -quantity);
+    }
+
+    /**
+     * Current stock of each raw material that exists, read from the
+     * database rather than the entity cache.
+     */
+    public Map<Long, Integer> stockQuantities(Collection<Long> ids) {
+        Map<Long, Integer> stock = new HashMap<>();
+        if (ids.isEmpty()) {
+            return stock;
+        }
+        getEntityManager()
+            .createQuery("select rm.id, rm.stockQuantity from RawMaterial rm where rm.id in :ids", Object[].class)
+            .setParameter("ids", ids)
+            .getResultStream()
+            .forEach(row -> stock.put((Long) row[0], (Integer) row[1]));
+        return stock;
+    }
+
+    private Optional<RawMaterial> move(long id, StockMovementKind kind, int stockDelta, int reservedDelta) {
+        List<?> moved = getEntityManager()
+            .createNativeQuery("with moved as ("
+                + "update raw_material set stock_quantity = stock_quantity + ?2, reserved_quantity = reserved_quantity + ?3, "
+                + "version = version + 1 where id = ?1 and stock_quantity + ?2 >= 0 and reserved_quantity + ?3 >= 0 returning *), "
+                + "logged as (insert into stock_movement (raw_material_id, kind, stock_delta, reserved_delta) "
+                + "select id, ?4, ?2, ?3 from moved) "
+                + "select * from moved", RawMaterial.class)
+            .setParameter(1, id)
+            .setParameter(2, stockDelta)
+            .setParameter(3, reservedDelta)
+            .setParameter(4, kind.name())
+            .getResultList();
+        return moved.isEmpty() ? Optional.empty() : Optional.of((RawMaterial) moved.get(0));
+    }
 }
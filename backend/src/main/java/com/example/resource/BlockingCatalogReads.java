@@ -0,0 +1,60 @@
+package com.example.resource;
+
+import com.example.repository.ProductRawMaterialRepository;
+import com.example.repository.RawMaterialRepository;
+import com.example.service.ProductionPlanner;
+import com.example.service.SuggestionSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.arc.DefaultBean;
+import io.smallrye.mutiny.Uni;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+
+/**
+ * Reads through Hibernate ORM, so entities come from the second-level cache
+ * when they are there. Every {@link Uni} completes on the calling thread.
+ */
+@DefaultBean
+@ApplicationScoped
+class BlockingCatalogReads implements CatalogReads {
+
+    @Inject
+    RawMaterialRepository rawMaterialRepository;
+
+    @Inject
+    ProductRawMaterialRepository productRawMaterialRepository;
+
+    @Inject
+    ProductionPlanner planner;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Override
+    public Uni<Response> list(KeysetList list, Long after, Integer limit, String fields, UriInfo uriInfo) {
+        return Uni.createFrom().item(() ->
+            list.respond(rawMaterialRepository.getEntityManager(), objectMapper, after, limit, fields, uriInfo));
+    }
+
+    @Override
+    public Uni<Response> rawMaterial(Long id) {
+        return Uni.createFrom().item(() -> entity(rawMaterialRepository.findById(id)));
+    }
+
+    @Override
+    public Uni<Response> association(Long id) {
+        return Uni.createFrom().item(() -> entity(productRawMaterialRepository.findById(id)));
+    }
+
+    @Override
+    public Uni<SuggestionSnapshot> suggestion(String strategy) {
+        return Uni.createFrom().item(() -> planner.suggest(strategy));
+    }
+
+    private static Response entity(Object entity) {
+        return entity == null ? Response.noContent().build() : Response.ok(entity).build();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.resource;
+
+import com.example.service.SuggestionSnapshot;
+import io.smallrye.mutiny.Uni;
+
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+
+/**
+ * Data access behind the read endpoints and the production suggestion.
+ *
+ * The classic build reads through Hibernate ORM on the worker thread that
+ * serves the request ({@link BlockingCatalogReads}). The reactive build
+ * replaces it with an implementation on the reactive PostgreSQL client, so
+ * those endpoints never hold a thread while Postgres answers.
+ */
+interface CatalogReads {
+
+    /**
+     * Fails with {@link IllegalArgumentException} for an unknown field or a
+     * limit out of range.
+     */
+    Uni<Response> list(KeysetList list, Long after, Integer limit, String fields, UriInfo uriInfo);
+
+    /**
+     * The raw material, or 204 when there is none.
+     */
+    Uni<Response> rawMaterial(Long id);
+
+    /**
+     * The association with its product and raw material, or 204 when there
+     * is none.
+     */
+    Uni<Response> association(Long id);
+
+    /**
+     * Fails with {@link IllegalArgumentException} for an unknown strategy.
+     */
+    Uni<SuggestionSnapshot> suggestion(String strategy);
+}
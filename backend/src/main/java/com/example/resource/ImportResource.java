@@ -0,0 +1,71 @@
+package com.example.resource;
+
+import com.example.service.CatalogImporter;
+import com.example.service.ImportKind;
+import com.example.service.ImportReader;
+import com.example.service.ImportReport;
+import com.example.service.ImportRow;
+import com.example.service.StockMovements;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Bulk import of catalog data as NDJSON ({@code application/x-ndjson}) or
+ * CSV with a header line ({@code text/csv}). Always answers with a report
+ * of the rows that were written and the ones that were rejected.
+ */
+@Path("/import")
+@Produces(MediaType.APPLICATION_JSON)
+public class ImportResource {
+    static final String NDJSON = "application/x-ndjson";
+    static final String CSV = "text/csv";
+
+    @Inject
+    CatalogImporter importer;
+
+    @Inject
+    StockMovements stockMovements;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @POST
+    @Path("/{kind}")
+    @Consumes({NDJSON, CSV})
+    public Response importRows(@PathParam("kind") String kind, @Context HttpHeaders headers, InputStream body) {
+        ImportKind importKind;
+        try {
+            importKind = ImportKind.fromPath(kind);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return Response.status(Response.Status.BAD_REQUEST).entity(error).build();
+        }
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        Iterator<ImportRow> rows = headers.getMediaType().isCompatible(MediaType.valueOf(CSV))
+            ? ImportReader.csv(reader)
+            : ImportReader.ndjson(reader, objectMapper);
+        // Raw material rows overwrite stock, so stock movements wait for the whole import
+        ImportReport report = importKind == ImportKind.RAW_MATERIALS
+            ? stockMovements.exclusive(() -> importer.importRows(importKind, rows))
+            : importer.importRows(importKind, rows);
+        return Response.ok(report).build();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.resource;
+
+import com.example.model.Product;
+import com.example.service.ProductionPlan;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+/**
+ * Writes products and production plans straight to a {@link JsonGenerator}.
+ *
+ * Produces the same JSON the entities would serialize to, but one field at a
+ * time, so large lists go out as they are walked instead of being wrapped in
+ * maps and buffered first.
+ */
+public final class JsonStreams {
+
+    private JsonStreams() {
+    }
+
+    public static void writeProduct(JsonGenerator generator, Product product) throws IOException {
+        generator.writeStartObject();
+        writeNumberField(generator, "id", product.getId());
+        generator.writeStringField("code", product.getCode());
+        generator.writeStringField("name", product.getName());
+        if (product.getPrice() == null) {
+            generator.writeNullField("price");
+        } else {
+            generator.writeNumberField("price", product.getPrice());
+        }
+        writeNumberField(generator, "quantity", product.getQuantity());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes the fields of a plan into the object the generator is currently in.
+     */
+    public static void writePlanFields(JsonGenerator generator, ProductionPlan plan) throws IOException {
+        generator.writeStringField("strategy", plan.getStrategy());
+        generator.writeBooleanField("optimal", plan.isOptimal());
+        generator.writeNumberField("totalValue", plan.getTotalValue());
+        generator.writeArrayFieldStart("products");
+        for (ProductionPlan.Line line : plan.getLines()) {
+            generator.writeStartObject();
+            generator.writeFieldName("product");
+            writeProduct(generator, line.getProduct());
+            generator.writeNumberField("quantity", line.getQuantity());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+
+    private static void writeNumberField(JsonGenerator generator, String name, Number value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(name);
+        } else {
+            generator.writeNumberField(name, value.longValue());
+        }
+    }
+}
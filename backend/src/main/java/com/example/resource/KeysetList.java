@@ -0,0 +1,315 @@
+package com.example.resource;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * List endpoint backed by keyset pagination on the entity id.
+ *
+ * Rows are read as JPQL projections of the selected fields, never as managed
+ * entities, and each page is {@code where id > :after order by id}, so a deep
+ * page costs the same as the first one. Without {@code limit} the whole table
+ * is streamed in batches of {@value #BATCH_SIZE}.
+ *
+ * The total goes out in {@value #TOTAL_HEADER}, read from the planner
+ * statistics instead of a {@code count(*)}; it is exact only right after the
+ * table is analyzed.
+ *
+ * The same list can be read with plain SQL through {@link #sql(Selection)},
+ * which the reactive build uses; columns are the snake case of the JPQL
+ * properties.
+ */
+final class KeysetList {
+
+    static final int BATCH_SIZE = 500;
+    static final int MAX_LIMIT = 1000;
+    static final String TOTAL_HEADER = "X-Total-Count-Estimate";
+
+    private final String table;
+    private final String from;
+    private final String idPath;
+    private final Map<String, Field> fields = new LinkedHashMap<>();
+    private String sqlFrom;
+
+    /**
+     * @param table  database table, used for the row estimate
+     * @param from   JPQL {@code from} clause, including joins
+     * @param idPath JPQL path of the id the pages are keyed on
+     */
+    KeysetList(String table, String from, String idPath) {
+        this.table = table;
+        this.from = from;
+        this.idPath = idPath;
+        this.sqlFrom = table + from.substring(from.indexOf(' '));
+    }
+
+    /**
+     * SQL {@code from} clause matching the JPQL one, for lists with joins;
+     * by default the table under the JPQL alias.
+     */
+    KeysetList sqlFrom(String sqlFrom) {
+        this.sqlFrom = sqlFrom;
+        return this;
+    }
+
+    KeysetList field(String name, String path) {
+        fields.put(name, new Field(name, null, new String[]{path}));
+        return this;
+    }
+
+    /**
+     * Field written as a nested object, or {@code null} when its first
+     * property is null.
+     */
+    KeysetList object(String name, String... namesAndPaths) {
+        String[] names = new String[namesAndPaths.length / 2];
+        String[] paths = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = namesAndPaths[2 * i];
+            paths[i] = namesAndPaths[2 * i + 1];
+        }
+        fields.put(name, new Field(name, names, paths));
+        return this;
+    }
+
+    /**
+     * @throws IllegalArgumentException for an unknown field or a limit out of range
+     */
+    Selection select(Long after, Integer limit, String fieldList) {
+        List<Field> selected = select(fieldList);
+        if (limit != null && (limit < 1 || limit > MAX_LIMIT)) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return new Selection(selected, after == null ? Long.MIN_VALUE : after, limit);
+    }
+
+    /**
+     * @throws IllegalArgumentException for an unknown field or a limit out of range
+     */
+    Response respond(EntityManager entityManager, ObjectMapper objectMapper, Long after, Integer limit,
+                     String fieldList, UriInfo uriInfo) {
+        Selection selection = select(after, limit, fieldList);
+        long total = estimateCount(entityManager);
+        if (limit != null) {
+            return page(objectMapper, selection, page(entityManager, selection, selection.after, limit + 1), total, uriInfo);
+        }
+        return Response.ok((StreamingOutput) output -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+                generator.writeStartArray();
+                long last = selection.after;
+                List<Object[]> batch;
+                do {
+                    batch = page(entityManager, selection, last, BATCH_SIZE);
+                    last = selection.write(generator, batch, last);
+                    generator.flush();
+                } while (batch.size() == BATCH_SIZE);
+                generator.writeEndArray();
+            }
+        }).header(TOTAL_HEADER, total).build();
+    }
+
+    /**
+     * Response for a page read with {@code limit + 1} rows, linking to the
+     * next page when the extra row came back.
+     */
+    Response page(ObjectMapper objectMapper, Selection selection, List<Object[]> rows, long total, UriInfo uriInfo) {
+        boolean more = rows.size() > selection.limit;
+        List<Object[]> page = more ? rows.subList(0, selection.limit) : rows;
+        Response.ResponseBuilder response = Response.ok((StreamingOutput) output -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+                generator.writeStartArray();
+                selection.write(generator, page, selection.after);
+                generator.writeEndArray();
+            }
+        });
+        if (more) {
+            Object last = page.get(page.size() - 1)[0];
+            response.link(uriInfo.getRequestUriBuilder().replaceQueryParam("after", last).build(), "next");
+        }
+        return response.header(TOTAL_HEADER, total).build();
+    }
+
+    /**
+     * SQL of one page, with the id to start after as {@code $1} and the row
+     * limit as {@code $2}; rows come back in the same columns as the JPQL.
+     */
+    String sql(Selection selection) {
+        StringBuilder sql = new StringBuilder("select ").append(column(idPath));
+        for (Field field : selection.fields) {
+            for (String path : field.paths) {
+                sql.append(", ").append(column(path));
+            }
+        }
+        return sql.append(" from ").append(sqlFrom)
+            .append(" where ").append(column(idPath)).append(" > $1 order by ").append(column(idPath))
+            .append(" limit $2").toString();
+    }
+
+    /**
+     * SQL of the row estimate, with the table name as {@code $1}; a negative
+     * or missing estimate means the table was never analyzed.
+     */
+    static String estimateSql() {
+        return "select cast(reltuples as bigint) from pg_class where relname = $1";
+    }
+
+    String countSql() {
+        return "select count(*) from " + table;
+    }
+
+    String table() {
+        return table;
+    }
+
+    private List<Field> select(String fieldList) {
+        if (fieldList == null || fieldList.isBlank()) {
+            return new ArrayList<>(fields.values());
+        }
+        Set<String> names = new LinkedHashSet<>();
+        for (String name : fieldList.split(",")) {
+            if (!name.isBlank()) {
+                names.add(name.trim());
+            }
+        }
+        List<Field> selected = new ArrayList<>();
+        for (String name : names) {
+            Field field = fields.get(name);
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown field: " + name + ". Available: " + String.join(", ", fields.keySet()));
+            }
+            selected.add(field);
+        }
+        return selected;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> page(EntityManager entityManager, Selection selection, long after, int limit) {
+        StringBuilder jpql = new StringBuilder("select ").append(idPath);
+        for (Field field : selection.fields) {
+            for (String path : field.paths) {
+                jpql.append(", ").append(path);
+            }
+        }
+        jpql.append(" from ").append(from)
+            .append(" where ").append(idPath).append(" > ?1 order by ").append(idPath);
+        Query query = entityManager.createQuery(jpql.toString())
+            .setParameter(1, after)
+            .setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    /**
+     * {@code rm.stockQuantity} to {@code rm.stock_quantity}.
+     */
+    private static String column(String path) {
+        StringBuilder column = new StringBuilder(path.length() + 4);
+        for (char c : path.toCharArray()) {
+            if (Character.isUpperCase(c)) {
+                column.append('_').append(Character.toLowerCase(c));
+            } else {
+                column.append(c);
+            }
+        }
+        return column.toString();
+    }
+
+    private static void write(JsonGenerator generator, List<Field> selected, Object[] row) throws IOException {
+        generator.writeStartObject();
+        int column = 1;
+        for (Field field : selected) {
+            generator.writeFieldName(field.name);
+            if (field.names == null) {
+                writeValue(generator, row[column]);
+            } else if (row[column] == null) {
+                generator.writeNull();
+            } else {
+                generator.writeStartObject();
+                for (int i = 0; i < field.names.length; i++) {
+                    generator.writeFieldName(field.names[i]);
+                    writeValue(generator, row[column + i]);
+                }
+                generator.writeEndObject();
+            }
+            column += field.paths.length;
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeValue(JsonGenerator generator, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof Long || value instanceof Integer) {
+            generator.writeNumber(((Number) value).longValue());
+        } else if (value instanceof BigDecimal) {
+            generator.writeNumber((BigDecimal) value);
+        } else if (value instanceof String) {
+            generator.writeString((String) value);
+        } else {
+            generator.writeObject(value);
+        }
+    }
+
+    /**
+     * Row count from {@code pg_class.reltuples}. Tables that were never
+     * analyzed report no estimate; only those fall back to counting.
+     */
+    private long estimateCount(EntityManager entityManager) {
+        List<?> estimate = entityManager
+            .createNativeQuery("select cast(reltuples as bigint) from pg_class where relname = ?1")
+            .setParameter(1, table)
+            .getResultList();
+        if (!estimate.isEmpty() && ((Number) estimate.get(0)).longValue() >= 0) {
+            return ((Number) estimate.get(0)).longValue();
+        }
+        return ((Number) entityManager.createQuery("select count(*) from " + from).getSingleResult()).longValue();
+    }
+
+    /**
+     * Validated fields, start and limit of one list request.
+     */
+    static final class Selection {
+        final List<Field> fields;
+        final long after;
+        final Integer limit;
+
+        private Selection(List<Field> fields, long after, Integer limit) {
+            this.fields = fields;
+            this.after = after;
+            this.limit = limit;
+        }
+
+        /**
+         * Writes the rows as JSON objects.
+         *
+         * @return id of the last row, or {@code last} when there is none
+         */
+        long write(JsonGenerator generator, List<Object[]> rows, long last) throws IOException {
+            for (Object[] row : rows) {
+                KeysetList.write(generator, fields, row);
+                last = ((Number) row[0]).longValue();
+            }
+            return last;
+        }
+    }
+
+    private static final class Field {
+        final String name;
+        final String[] names;
+        final String[] paths;
+
+        Field(String name, String[] names, String[] paths) {
+            this.name = name;
+            this.names = names;
+            this.paths = paths;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.resource;
+
+import com.example.service.LiveUpdates;
+import com.example.service.ProductionPlan;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Server-sent events with stock and production suggestion changes, so
+ * screens stop polling {@code /raw-materials} and {@code /production-suggestion}.
+ *
+ * The first event is {@code resync}: load what the screen shows, then apply
+ * every {@code changes} event. Each carries the new stock of the raw
+ * materials that moved, whether anything else in the catalog changed, and
+ * the suggestion lines that changed with the new total; a line with
+ * quantity 0 left the plan. Values are absolute, so applying an event the
+ * loaded state already includes is harmless. Reconnecting with
+ * {@code Last-Event-ID} resumes after that event, or starts with
+ * {@code resync} when it is too old.
+ */
+@Path("/live-updates")
+public class LiveUpdatesResource {
+
+    @Inject
+    LiveUpdates liveUpdates;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @GET
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void subscribe(@HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) String lastEventId,
+                          @Context SseEventSink sink, @Context Sse sse) {
+        if (!liveUpdates.subscribe(new EventSink(sink, sse), lastEventId)) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Too many live update subscribers, retry later");
+            throw new WebApplicationException(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .type(MediaType.APPLICATION_JSON_TYPE).entity(error).build());
+        }
+    }
+
+    private String encode(LiveUpdates.Update update) {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("stock");
+            for (Map.Entry<Long, Integer> entry : update.getStock().entrySet()) {
+                generator.writeStartObject();
+                generator.writeNumberField("id", entry.getKey());
+                generator.writeNumberField("stockQuantity", entry.getValue());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeBooleanField("catalogChanged", update.isCatalogChanged());
+            if (update.getSuggestionLines() != null) {
+                generator.writeObjectFieldStart("suggestion");
+                generator.writeStringField("etag", update.getSuggestionEtag());
+                generator.writeNumberField("totalValue", update.getSuggestionTotalValue());
+                generator.writeArrayFieldStart("products");
+                for (ProductionPlan.Line line : update.getSuggestionLines()) {
+                    generator.writeStartObject();
+                    generator.writeFieldName("product");
+                    JsonStreams.writeProduct(generator, line.getProduct());
+                    generator.writeNumberField("quantity", line.getQuantity());
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    private final class EventSink implements LiveUpdates.Sink {
+        private final SseEventSink sink;
+        private final Sse sse;
+
+        EventSink(SseEventSink sink, Sse sse) {
+            this.sink = sink;
+            this.sse = sse;
+        }
+
+        @Override
+        public CompletionStage<?> send(LiveUpdates.Update update) {
+            OutboundSseEvent event;
+            if (update.getEvent() == null) {
+                event = sse.newEventBuilder().comment("keep-alive").build();
+            } else {
+                event = sse.newEventBuilder()
+                    .name(update.getEvent())
+                    .id(update.getId())
+                    .mediaType(MediaType.TEXT_PLAIN_TYPE)
+                    .data(update.encoded(LiveUpdatesResource.this::encode))
+                    .build();
+            }
+            return sink.send(event);
+        }
+
+        @Override
+        public boolean isClosed() {
+            return sink.isClosed();
+        }
+
+        @Override
+        public void close() {
+            sink.close();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.resource;
+
+import com.example.model.Product;
+import com.example.model.ProductComponent;
+import com.example.repository.ProductComponentRepository;
+import com.example.repository.ProductRepository;
+import com.example.service.CatalogChanged;
+import com.example.service.FlattenedRequirements;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Products used as components of other products, for multi-level bills of
+ * materials. The production suggestion and production orders explode an
+ * assembly into the raw materials of all its levels.
+ */
+@Path("/product-components")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class ProductComponentResource {
+    private static final KeysetList LIST = new KeysetList("product_component",
+            "ProductComponent pc left join pc.product p left join pc.component c", "pc.id")
+        .sqlFrom("product_component pc left join product p on p.id = pc.product_id"
+            + " left join product c on c.id = pc.component_id")
+        .field("id", "pc.id")
+        .object("product", "id", "p.id", "code", "p.code", "name", "p.name", "price", "p.price", "quantity", "p.quantity")
+        .object("component", "id", "c.id", "code", "c.code", "name", "c.name", "price", "c.price", "quantity", "c.quantity")
+        .field("requiredQuantity", "pc.requiredQuantity");
+
+    @Inject
+    ProductComponentRepository repository;
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    CatalogReads reads;
+
+    @Inject
+    FlattenedRequirements flattenedRequirements;
+
+    @Inject
+    Event<CatalogChanged> catalogChanged;
+
+    @GET
+    public Uni<Response> list(@QueryParam("after") Long after,
+                              @QueryParam("limit") Integer limit,
+                              @QueryParam("fields") String fields,
+                              @Context UriInfo uriInfo) {
+        return reads.list(LIST, after, limit, fields, uriInfo)
+            .onFailure(IllegalArgumentException.class).recoverWithItem(e -> error(e.getMessage()));
+    }
+
+    @POST
+    @Transactional
+    @RunOnVirtualThread
+    public Response create(ProductComponent pc) {
+        if (pc.getProduct() == null || pc.getProduct().getId() == null
+                || pc.getComponent() == null || pc.getComponent().getId() == null) {
+            return error("Product and component ids are required");
+        }
+        if (pc.getRequiredQuantity() == null || pc.getRequiredQuantity() <= 0) {
+            return error("Required quantity must be positive");
+        }
+        flattenedRequirements.lockForChanges();
+        Product product = productRepository.findById(pc.getProduct().getId());
+        if (product == null) {
+            return error("Product not found");
+        }
+        Product component = productRepository.findById(pc.getComponent().getId());
+        if (component == null) {
+            return error("Component not found");
+        }
+        if (repository.contains(component.getId(), product.getId())) {
+            return error("Component would create a cycle: product " + component.getId()
+                + " already contains product " + product.getId());
+        }
+
+        pc.setProduct(product);
+        pc.setComponent(component);
+        repository.persist(pc);
+        repository.flush();
+        flattenedRequirements.refresh(List.of(product.getId()));
+        catalogChanged.fire(new CatalogChanged());
+        return Response.ok(pc).build();
+    }
+
+    @GET
+    @Path("/{id}")
+    @RunOnVirtualThread
+    public Response getById(@PathParam("id") Long id) {
+        ProductComponent pc = repository.findById(id);
+        return pc == null ? Response.noContent().build() : Response.ok(pc).build();
+    }
+
+    @DELETE
+    @Path("/{id}")
+    @Transactional
+    @RunOnVirtualThread
+    public Response delete(@PathParam("id") Long id) {
+        flattenedRequirements.lockForChanges();
+        ProductComponent pc = repository.findById(id);
+        if (pc != null) {
+            repository.delete(pc);
+            repository.flush();
+            flattenedRequirements.refresh(List.of(pc.getProduct().getId()));
+            catalogChanged.fire(new CatalogChanged());
+            return Response.noContent().build();
+        } else {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+    }
+
+    private static Response error(String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", message);
+        return Response.status(Response.Status.BAD_REQUEST).entity(error).build();
+    }
+}
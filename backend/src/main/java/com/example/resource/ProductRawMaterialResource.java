@@ -4,35 +4,72 @@ import com.example.model.ProductRawMaterial;
 import com.example.model.RawMaterial;
 import com.example.repository.ProductRawMaterialRepository;
 import com.example.repository.RawMaterialRepository;
-import javax.inject.Inject;
-import javax.transaction.Transactional;
-import javax.ws.rs.*;
-import javax.ws.rs.core.MediaType;
-import javax.ws.rs.core.Response;
-import java.util.List;
+import com.example.service.CatalogChanged;
+import com.example.service.FlattenedRequirements;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.LockModeType;
+import jakarta.transaction.Transactional;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Path("/products-raw-materials")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public class ProductRawMaterialResource {
+    private static final KeysetList LIST = new KeysetList("product_raw_material",
+            "ProductRawMaterial prm left join prm.product p left join prm.rawMaterial rm", "prm.id")
+        .sqlFrom("product_raw_material prm left join product p on p.id = prm.product_id"
+            + " left join raw_material rm on rm.id = prm.raw_material_id")
+        .field("id", "prm.id")
+        .object("product", "id", "p.id", "code", "p.code", "name", "p.name", "price", "p.price", "quantity", "p.quantity")
+        .object("rawMaterial", "id", "rm.id", "code", "rm.code", "name", "rm.name", "stockQuantity", "rm.stockQuantity")
+        .field("requiredQuantity", "prm.requiredQuantity");
+
     @Inject
     ProductRawMaterialRepository repository;
-    
+
+    @Inject
+    CatalogReads reads;
+
     @Inject
     RawMaterialRepository rawMaterialRepository;
 
+    @Inject
+    FlattenedRequirements flattenedRequirements;
+
+    @Inject
+    Event<CatalogChanged> catalogChanged;
+
     @GET
-    public List<ProductRawMaterial> list() {
-        return repository.listAll();
+    public Uni<Response> list(@QueryParam("after") Long after,
+                              @QueryParam("limit") Integer limit,
+                              @QueryParam("fields") String fields,
+                              @Context UriInfo uriInfo) {
+        return reads.list(LIST, after, limit, fields, uriInfo)
+            .onFailure(IllegalArgumentException.class).recoverWithItem(e -> {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", e.getMessage());
+                return Response.status(Response.Status.BAD_REQUEST).entity(error).build();
+            });
     }
 
     @POST
     @Transactional
+    @RunOnVirtualThread
     public Response create(ProductRawMaterial prm) {
-        // Validate stock availability
-        RawMaterial rawMaterial = rawMaterialRepository.findById(prm.getRawMaterial().getId());
+        flattenedRequirements.lockForChanges();
+        // Validate stock availability; the shared lock keeps a concurrent reservation
+        // from taking the stock below the requirement before this commits
+        RawMaterial rawMaterial = rawMaterialRepository.findById(prm.getRawMaterial().getId(), LockModeType.PESSIMISTIC_READ);
         if (rawMaterial == null) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Raw material not found");
@@ -45,25 +82,40 @@ public class ProductRawMaterialResource {
             return Response.status(Response.Status.BAD_REQUEST).entity(error).build();
         }
         
+        prm.setRawMaterial(rawMaterial);
         repository.persist(prm);
+        refreshProduct(prm);
+        catalogChanged.fire(new CatalogChanged());
         return Response.ok(prm).build();
     }
 
     @GET
     @Path("/{id}")
-    public ProductRawMaterial getById(@PathParam("id") Long id) {
-        return repository.findById(id);
+    public Uni<Response> getById(@PathParam("id") Long id) {
+        return reads.association(id);
     }
 
     @DELETE
     @Path("/{id}")
     @Transactional
+    @RunOnVirtualThread
     public Response delete(@PathParam("id") Long id) {
-        boolean removed = repository.deleteById(id);
-        if (removed) {
+        flattenedRequirements.lockForChanges();
+        ProductRawMaterial prm = repository.findById(id);
+        if (prm != null) {
+            repository.delete(prm);
+            refreshProduct(prm);
+            catalogChanged.fire(new CatalogChanged());
             return Response.noContent().build();
         } else {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
     }
+
+    private void refreshProduct(ProductRawMaterial prm) {
+        if (prm.getProduct() != null) {
+            repository.flush();
+            flattenedRequirements.refresh(List.of(prm.getProduct().getId()));
+        }
+    }
 }
@@ -2,34 +2,70 @@ package com.example.resource;
 
 import com.example.model.Product;
 import com.example.repository.ProductRepository;
-import javax.inject.Inject;
-import javax.ws.rs.*;
-import javax.ws.rs.core.MediaType;
-import javax.ws.rs.core.Response;
-import java.util.List;
+import com.example.service.CatalogChanged;
+import com.example.service.FlattenedRequirements;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 
 @Path("/products")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public class ProductResource {
+    private static final KeysetList LIST = new KeysetList("product", "Product p", "p.id")
+        .field("id", "p.id")
+        .field("code", "p.code")
+        .field("name", "p.name")
+        .field("price", "p.price")
+        .field("quantity", "p.quantity");
+
     @Inject
     ProductRepository productRepository;
 
+    @Inject
+    CatalogReads reads;
+
+    @Inject
+    FlattenedRequirements flattenedRequirements;
+
+    @Inject
+    Event<CatalogChanged> catalogChanged;
+
     @GET
-    public List<Product> list() {
-        return productRepository.listAll();
+    public Uni<Response> list(@QueryParam("after") Long after,
+                              @QueryParam("limit") Integer limit,
+                              @QueryParam("fields") String fields,
+                              @Context UriInfo uriInfo) {
+        return reads.list(LIST, after, limit, fields, uriInfo)
+            .onFailure(IllegalArgumentException.class).recoverWithItem(e -> {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", e.getMessage());
+                return Response.status(Response.Status.BAD_REQUEST).entity(error).build();
+            });
     }
 
     @POST
-    @javax.transaction.Transactional
+    @jakarta.transaction.Transactional
+    @RunOnVirtualThread
     public Product create(Product product) {
         productRepository.persist(product);
+        catalogChanged.fire(new CatalogChanged());
         return product;
     }
 
     @PUT
     @Path("/{id}")
-    @javax.transaction.Transactional
+    @jakarta.transaction.Transactional
+    @RunOnVirtualThread
     public Product update(@PathParam("id") Long id, Product product) {
         Product entity = productRepository.findById(id);
         if (entity == null) {
@@ -40,18 +76,25 @@ public class ProductResource {
         entity.setPrice(product.getPrice());
         entity.setQuantity(product.getQuantity());
         productRepository.persist(entity);
+        catalogChanged.fire(new CatalogChanged());
         return entity;
     }
 
     @DELETE
     @Path("/{id}")
-    @javax.transaction.Transactional
+    @jakarta.transaction.Transactional
+    @RunOnVirtualThread
     public Response delete(@PathParam("id") Long id) {
+        flattenedRequirements.lockForChanges();
         Product entity = productRepository.findById(id);
         if (entity == null) {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
+        Set<Long> assemblies = flattenedRequirements.assemblies(id);
         productRepository.deleteById(id);
+        productRepository.flush();
+        flattenedRequirements.refresh(assemblies);
+        catalogChanged.fire(new CatalogChanged());
         return Response.noContent().build();
     }
 }
@@ -0,0 +1,41 @@
+package com.example.resource;
+
+import com.example.service.ProductionOrder;
+import com.example.service.ProductionOrderExecutor;
+import com.example.service.StockMovements;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.util.HashMap;
+import java.util.Map;
+
+@Path("/production-orders")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class ProductionOrderResource {
+    @Inject
+    ProductionOrderExecutor executor;
+
+    @Inject
+    StockMovements stockMovements;
+
+    /**
+     * Produces one product ({@code productId}, {@code quantity}) or a whole
+     * plan ({@code products}, as returned by {@code /production-suggestion}).
+     * Either all of it is produced or, when a raw material is short, none.
+     */
+    @POST
+    public Response create(ProductionOrder order) {
+        try {
+            return Response.ok(stockMovements.exclusive(() -> executor.execute(order))).build();
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return Response.status(Response.Status.BAD_REQUEST).entity(error).build();
+        }
+    }
+}
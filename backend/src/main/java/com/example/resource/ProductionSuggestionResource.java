@@ -1,61 +1,115 @@
 package com.example.resource;
 
-import com.example.model.Product;
-import com.example.model.ProductRawMaterial;
-import com.example.repository.ProductRepository;
-import com.example.repository.ProductRawMaterialRepository;
-import com.example.repository.RawMaterialRepository;
-import javax.inject.Inject;
-import javax.ws.rs.GET;
-import javax.ws.rs.Path;
-import javax.ws.rs.Produces;
-import javax.ws.rs.core.MediaType;
-import java.math.BigDecimal;
+import com.example.service.GreedyOptimizer;
+import com.example.service.ProductionPlan;
+import com.example.service.ProductionPlanner;
+import com.example.service.Scenario;
+import com.example.service.SuggestionMetrics;
+import com.example.service.SuggestionSnapshot;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Path("/production-suggestion")
 @Produces(MediaType.APPLICATION_JSON)
 public class ProductionSuggestionResource {
     @Inject
-    ProductRepository productRepository;
+    ProductionPlanner planner;
+
+    @Inject
+    CatalogReads reads;
+
     @Inject
-    RawMaterialRepository rawMaterialRepository;
+    ObjectMapper objectMapper;
+
     @Inject
-    ProductRawMaterialRepository productRawMaterialRepository;
+    SuggestionMetrics metrics;
 
     @GET
-    public Map<String, Object> suggest() {
-        List<Product> products = productRepository.listAll();
-        products.sort(Comparator.comparing(Product::getPrice).reversed());
-        Map<Long, Integer> rawMaterialStock = rawMaterialRepository.listAll().stream()
-                .collect(Collectors.toMap(rm -> rm.getId(), rm -> rm.getStockQuantity()));
-        Map<Product, Integer> producible = new LinkedHashMap<>();
-        BigDecimal totalValue = BigDecimal.ZERO;
-        for (Product product : products) {
-            int maxQty = Integer.MAX_VALUE;
-            for (ProductRawMaterial prm : product.getRawMaterials()) {
-                int stock = rawMaterialStock.getOrDefault(prm.getRawMaterial().getId(), 0);
-                int possible = stock / prm.getRequiredQuantity();
-                if (possible < maxQty) {
-                    maxQty = possible;
-                }
+    public Uni<Response> suggest(@QueryParam("strategy") @DefaultValue(GreedyOptimizer.NAME) String strategy,
+                                 @Context Request request) {
+        return reads.suggestion(strategy)
+            .map(snapshot -> respond(snapshot, strategy, request))
+            .onFailure(IllegalArgumentException.class).recoverWithItem(e -> {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", e.getMessage());
+                return Response.status(Response.Status.BAD_REQUEST).entity(error).build();
+            });
+    }
+
+    private Response respond(SuggestionSnapshot snapshot, String strategy, Request request) {
+        EntityTag tag = new EntityTag(snapshot.getEtag());
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setNoCache(true);
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.cacheControl(cacheControl).build();
+        }
+
+        ProductionPlan plan = snapshot.getPlan();
+        Timer serialize = metrics.timer(SuggestionMetrics.Phase.SERIALIZE, strategy);
+        StreamingOutput body = output -> {
+            Timer.Sample sample = Timer.start();
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+                generator.writeStartObject();
+                JsonStreams.writePlanFields(generator, plan);
+                generator.writeEndObject();
+            } finally {
+                sample.stop(serialize);
             }
-            if (maxQty > 0 && maxQty != Integer.MAX_VALUE) {
-                producible.put(product, maxQty);
-                totalValue = totalValue.add(product.getPrice().multiply(BigDecimal.valueOf(maxQty)));
-                for (ProductRawMaterial prm : product.getRawMaterials()) {
-                    int used = prm.getRequiredQuantity() * maxQty;
-                    rawMaterialStock.put(prm.getRawMaterial().getId(), rawMaterialStock.get(prm.getRawMaterial().getId()) - used);
+        };
+        return Response.ok(body).tag(tag).cacheControl(cacheControl).build();
+    }
+
+    /**
+     * Evaluates a batch of what-if stock changes without persisting them.
+     */
+    @POST
+    @Path("/scenarios")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response scenarios(@QueryParam("strategy") @DefaultValue(GreedyOptimizer.NAME) String strategy,
+                              List<Scenario> scenarios) {
+        List<ProductionPlan> plans;
+        try {
+            plans = planner.evaluate(strategy, scenarios);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return Response.status(Response.Status.BAD_REQUEST).entity(error).build();
+        }
+
+        StreamingOutput body = output -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+                generator.writeStartObject();
+                generator.writeStringField("strategy", strategy);
+                generator.writeArrayFieldStart("scenarios");
+                for (int i = 0; i < plans.size(); i++) {
+                    generator.writeStartObject();
+                    generator.writeStringField("name", scenarios.get(i).getName());
+                    JsonStreams.writePlanFields(generator, plans.get(i));
+                    generator.writeEndObject();
                 }
+                generator.writeEndArray();
+                generator.writeEndObject();
             }
-        }
-        Map<String, Object> result = new HashMap<>();
-        result.put("products", producible.entrySet().stream().map(e -> Map.of(
-                "product", e.getKey(),
-                "quantity", e.getValue()
-        )).collect(Collectors.toList()));
-        result.put("totalValue", totalValue);
-        return result;
+        };
+        return Response.ok(body).build();
     }
 }
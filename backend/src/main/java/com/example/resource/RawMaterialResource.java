@@ -2,62 +2,239 @@ package com.example.resource;
 
 import com.example.model.RawMaterial;
 import com.example.repository.RawMaterialRepository;
-import javax.transaction.Transactional;
-import javax.inject.Inject;
-import javax.ws.rs.*;
-import javax.ws.rs.core.MediaType;
-import javax.ws.rs.core.Response;
-import java.util.List;
+import com.example.service.CatalogChanged;
+import com.example.service.FlattenedRequirements;
+import com.example.service.StockChanged;
+import com.example.service.StockHistory;
+import com.example.service.StockLevel;
+import com.example.service.StockMovementKind;
+import com.example.service.StockMovements;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Uni;
+import org.hibernate.StaleStateException;
+import jakarta.enterprise.event.Event;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.transaction.Transactional;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiFunction;
 
 @Path("/raw-materials")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public class RawMaterialResource {
+	private static final KeysetList LIST = new KeysetList("raw_material", "RawMaterial rm", "rm.id")
+		.field("id", "rm.id")
+		.field("code", "rm.code")
+		.field("name", "rm.name")
+		.field("stockQuantity", "rm.stockQuantity")
+		.field("reservedQuantity", "rm.reservedQuantity")
+		.field("version", "rm.version");
+
+	/** Attempts of an edit without a client version before answering 409. */
+	private static final int MAX_UPDATE_ATTEMPTS = 3;
+
 	@Inject
 	RawMaterialRepository repository;
 
+	@Inject
+	StockMovements stockMovements;
+
+	@Inject
+	StockHistory stockHistory;
+
+	@Inject
+	CatalogReads reads;
+
+	@Inject
+	FlattenedRequirements flattenedRequirements;
+
+	@Inject
+	Event<CatalogChanged> catalogChanged;
+
 	@GET
-	public List<RawMaterial> list() {
-		return repository.listAll();
+	public Uni<Response> list(@QueryParam("after") Long after,
+	                          @QueryParam("limit") Integer limit,
+	                          @QueryParam("fields") String fields,
+	                          @Context UriInfo uriInfo) {
+		return reads.list(LIST, after, limit, fields, uriInfo)
+			.onFailure(IllegalArgumentException.class).recoverWithItem(e -> {
+				Map<String, String> error = new HashMap<>();
+				error.put("error", e.getMessage());
+				return Response.status(Response.Status.BAD_REQUEST).entity(error).build();
+			});
 	}
 
 	@POST
 	@Transactional
+	@RunOnVirtualThread
 	public Response create(RawMaterial rawMaterial) {
 		repository.persist(rawMaterial);
+		if (rawMaterial.getStockQuantity() != null) {
+			stockHistory.record(rawMaterial.getId(), StockMovementKind.CREATE, rawMaterial.getStockQuantity(), 0);
+		}
 		return Response.ok(rawMaterial).build();
 	}
 
 	@GET
 	@Path("/{id}")
-	public RawMaterial getById(@PathParam("id") Long id) {
-		return repository.findById(id);
+	public Uni<Response> getById(@PathParam("id") Long id) {
+		return reads.rawMaterial(id);
 	}
 
+	/**
+	 * Available and reserved units as the stock movements see them; with the
+	 * stock ledger enabled this is served from memory and can be ahead of the
+	 * raw material itself by up to one flush interval.
+	 */
+	@GET
+	@Path("/{id}/stock")
+	@RunOnVirtualThread
+	public Response stock(@PathParam("id") Long id) {
+		return stockMovements.level(id)
+			.map(level -> Response.ok(level).build())
+			.orElseGet(() -> Response.status(Response.Status.NOT_FOUND).build());
+	}
+
+	/**
+	 * Edits a raw material under its optimistic lock. A client that sends the
+	 * {@code version} it read gets 409 when the row changed since; without a
+	 * version the edit is retried on a fresh read, so a concurrent stock
+	 * movement never turns it into an error.
+	 */
 	@PUT
 	@Path("/{id}")
-	@Transactional
+	@RunOnVirtualThread
 	public Response update(@PathParam("id") Long id, RawMaterial updated) {
+		return stockMovements.exclusive(() -> updateWithRetries(id, updated));
+	}
+
+	private Response updateWithRetries(Long id, RawMaterial updated) {
+		for (int attempt = 1; ; attempt++) {
+			try {
+				return QuarkusTransaction.requiringNew().call(() -> applyUpdate(id, updated));
+			} catch (RuntimeException e) {
+				if (!isOptimisticLockFailure(e)) {
+					throw e;
+				}
+				if (updated.getVersion() != null || attempt == MAX_UPDATE_ATTEMPTS) {
+					return error(Response.Status.CONFLICT, "Raw material was modified concurrently, reload and retry");
+				}
+			}
+		}
+	}
+
+	private Response applyUpdate(Long id, RawMaterial updated) {
 		RawMaterial rawMaterial = repository.findById(id);
 		if (rawMaterial == null) {
 			return Response.status(Response.Status.NOT_FOUND).build();
 		}
+		if (updated.getVersion() != null && !updated.getVersion().equals(rawMaterial.getVersion())) {
+			return error(Response.Status.CONFLICT, "Raw material was modified concurrently, reload and retry");
+		}
+		int previousStock = rawMaterial.getStockQuantity();
 		rawMaterial.setCode(updated.getCode());
 		rawMaterial.setName(updated.getName());
 		rawMaterial.setStockQuantity(updated.getStockQuantity());
-		repository.persist(rawMaterial);
+		repository.flush();
+		if (rawMaterial.getStockQuantity() != previousStock) {
+			stockHistory.record(id, StockMovementKind.ADJUST, rawMaterial.getStockQuantity() - previousStock, 0);
+		}
+		catalogChanged.fire(new StockChanged(rawMaterial.getId()));
 		return Response.ok(rawMaterial).build();
 	}
 
+	@POST
+	@Path("/{id}/reserve")
+	@RunOnVirtualThread
+	public Response reserve(@PathParam("id") Long id, StockRequest request) {
+		return moveStock(id, request, stockMovements::reserve, "stock");
+	}
+
+	@POST
+	@Path("/{id}/release")
+	@RunOnVirtualThread
+	public Response release(@PathParam("id") Long id, StockRequest request) {
+		return moveStock(id, request, stockMovements::release, "reserved quantity");
+	}
+
+	@POST
+	@Path("/{id}/consume")
+	@RunOnVirtualThread
+	public Response consume(@PathParam("id") Long id, StockRequest request) {
+		return moveStock(id, request, stockMovements::consume, "reserved quantity");
+	}
+
+	private Response moveStock(Long id, StockRequest request, BiFunction<Long, Integer, Optional<StockLevel>> movement,
+	                           String shortage) {
+		if (request == null || request.getQuantity() == null || request.getQuantity() < 1) {
+			return error(Response.Status.BAD_REQUEST, "quantity must be at least 1");
+		}
+		int quantity = request.getQuantity();
+		Optional<StockLevel> moved = movement.apply(id, quantity);
+		if (moved.isPresent()) {
+			StockLevel level = moved.get();
+			catalogChanged.fire(new StockChanged(level.getId()));
+			return Response.ok(level).build();
+		}
+		Optional<StockLevel> level = stockMovements.level(id);
+		if (level.isEmpty()) {
+			return Response.status(Response.Status.NOT_FOUND).build();
+		}
+		return error(Response.Status.BAD_REQUEST, "Insufficient " + shortage + ". Requested: " + quantity + " units, Available: "
+			+ level.get().getStockQuantity() + " units, Reserved: " + level.get().getReservedQuantity() + " units");
+	}
+
+	private static boolean isOptimisticLockFailure(Throwable e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof OptimisticLockException || cause instanceof StaleStateException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static Response error(Response.Status status, String message) {
+		Map<String, String> error = new HashMap<>();
+		error.put("error", message);
+		return Response.status(status).entity(error).build();
+	}
+
 	@DELETE
 	@Path("/{id}")
-	@Transactional
+	@RunOnVirtualThread
 	public Response delete(@PathParam("id") Long id) {
-		boolean removed = repository.deleteById(id);
+		boolean removed = stockMovements.exclusive(() -> QuarkusTransaction.requiringNew().call(() -> {
+			flattenedRequirements.lockForChanges();
+			RawMaterial rawMaterial = repository.findById(id);
+			if (rawMaterial == null) {
+				return false;
+			}
+			flattenedRequirements.removeRawMaterial(id);
+			stockHistory.record(id, StockMovementKind.DELETE, -rawMaterial.getStockQuantity(), -rawMaterial.getReservedQuantity());
+			repository.delete(rawMaterial);
+			return true;
+		}));
 		if (removed) {
+			catalogChanged.fire(new CatalogChanged());
 			return Response.noContent().build();
 		} else {
 			return Response.status(Response.Status.NOT_FOUND).build();
 		}
 	}
+
+	public static class StockRequest {
+		private Integer quantity;
+
+		public Integer getQuantity() { return quantity; }
+		public void setQuantity(Integer quantity) { this.quantity = quantity; }
+	}
 }
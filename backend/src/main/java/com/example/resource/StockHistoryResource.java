@@ -0,0 +1,75 @@
+package com.example.resource;
+
+import com.example.service.StockHistory;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+@Path("/stock-history")
+@Produces(MediaType.APPLICATION_JSON)
+public class StockHistoryResource {
+    @Inject
+    StockHistory stockHistory;
+
+    /**
+     * Stock of every raw material with units available or reserved at
+     * {@code at}, an ISO-8601 timestamp with offset; now when omitted.
+     */
+    @GET
+    public Response levels(@QueryParam("at") String at) {
+        try {
+            return Response.ok(stockHistory.levelsAt(instant(at))).build();
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+    }
+
+    @GET
+    @Path("/{rawMaterialId}")
+    public Response level(@PathParam("rawMaterialId") Long rawMaterialId, @QueryParam("at") String at) {
+        try {
+            return Response.ok(stockHistory.levelAt(rawMaterialId, instant(at))).build();
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+    }
+
+    /**
+     * Takes a snapshot now instead of waiting for the next scheduled one.
+     */
+    @POST
+    @Path("/snapshots")
+    public Response snapshot() {
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("takenAt", stockHistory.snapshot().toString());
+        return Response.ok(snapshot).build();
+    }
+
+    private static Instant instant(String at) {
+        if (at == null || at.isBlank()) {
+            return Instant.now();
+        }
+        try {
+            return OffsetDateTime.parse(at).toInstant();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("at must be an ISO-8601 timestamp with offset, e.g. 2026-01-31T23:59:59Z");
+        }
+    }
+
+    private static Response badRequest(String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", message);
+        return Response.status(Response.Status.BAD_REQUEST).entity(error).build();
+    }
+}
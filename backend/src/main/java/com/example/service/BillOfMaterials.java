@@ -0,0 +1,101 @@
+package com.example.service;
+
+import com.example.model.Product;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact, read-only view of the whole bill of materials.
+ *
+ * Holds every product that has at least one raw material requirement,
+ * its requirements as plain (raw material id, quantity) pairs and the
+ * current stock of each referenced raw material. Built from a single
+ * query so the suggestion engine never touches lazy associations.
+ *
+ * Products assembled from other products carry the raw materials of all
+ * their levels, read already exploded from {@link FlattenedRequirements},
+ * so the optimizers plan finished goods and sub-assemblies alike against
+ * raw material stock.
+ */
+public final class BillOfMaterials {
+
+    private final List<Item> items;
+    private final Map<Long, Integer> stock;
+
+    BillOfMaterials(List<Item> items, Map<Long, Integer> stock) {
+        this.items = Collections.unmodifiableList(items);
+        this.stock = Collections.unmodifiableMap(stock);
+    }
+
+    /**
+     * Builds the structure from rows shaped as
+     * {@code [Product, rawMaterialId, stockQuantity, requiredQuantity]},
+     * ordered by product id.
+     */
+    public static BillOfMaterials fromRows(List<Object[]> rows) {
+        List<Item> items = new ArrayList<>();
+        Map<Long, Integer> stock = new HashMap<>();
+        Item current = null;
+        for (Object[] row : rows) {
+            Product product = (Product) row[0];
+            Long rawMaterialId = (Long) row[1];
+            Integer stockQuantity = (Integer) row[2];
+            Integer requiredQuantity = (Integer) row[3];
+            if (current == null || current.product != product) {
+                current = new Item(product);
+                items.add(current);
+            }
+            current.requirements.add(new Requirement(rawMaterialId, requiredQuantity));
+            stock.put(rawMaterialId, stockQuantity);
+        }
+        return new BillOfMaterials(items, stock);
+    }
+
+    /**
+     * The same items with the stock of the given raw materials replaced;
+     * ids the bill does not reference are ignored.
+     */
+    BillOfMaterials withStock(Map<Long, Integer> current) {
+        Map<Long, Integer> merged = new HashMap<>(stock);
+        current.forEach((id, quantity) -> merged.replace(id, quantity));
+        return new BillOfMaterials(items, merged);
+    }
+
+    public List<Item> getItems() { return items; }
+    public Map<Long, Integer> getStock() { return stock; }
+
+    /**
+     * A product together with the raw materials it consumes per unit.
+     */
+    public static final class Item {
+        private final Product product;
+        private final List<Requirement> requirements = new ArrayList<>();
+
+        Item(Product product) {
+            this.product = product;
+        }
+
+        public Product getProduct() { return product; }
+        public List<Requirement> getRequirements() { return requirements; }
+    }
+
+    /**
+     * Quantity of one raw material needed to produce a single unit.
+     */
+    public static final class Requirement {
+        private final long rawMaterialId;
+        private final int requiredQuantity;
+
+        Requirement(long rawMaterialId, int requiredQuantity) {
+            this.rawMaterialId = rawMaterialId;
+            this.requiredQuantity = requiredQuantity;
+        }
+
+        public long getRawMaterialId() { return rawMaterialId; }
+        public int getRequiredQuantity() { return requiredQuantity; }
+    }
+}
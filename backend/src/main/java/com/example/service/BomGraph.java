@@ -0,0 +1,342 @@
+package com.example.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-level bill of materials: the raw materials each product consumes
+ * directly and the products it is assembled from.
+ *
+ * Products and raw materials are remapped to contiguous indexes and both
+ * kinds of edges kept in flat arrays, like {@link OptimizationModel}. Building
+ * the graph sorts the products topologically, components before the
+ * assemblies that use them, and rejects a cycle.
+ *
+ * {@link #explode} gives the raw materials one unit of a product consumes
+ * across all its levels. Explosions are memoized per product, so a
+ * sub-assembly shared by many assemblies is exploded once, and exploding a
+ * product visits only the part of the graph below it. Quantities saturate at
+ * {@link Long#MAX_VALUE} instead of overflowing. Not thread-safe.
+ */
+public final class BomGraph {
+
+    private final long[] productIds;
+    private final long[] materialIds;
+    private final int[] requirementStart;
+    private final int[] requirementMaterial;
+    private final long[] requirementQuantity;
+    private final int[] componentStart;
+    private final int[] component;
+    private final long[] componentQuantity;
+    private final int[] order;
+    private final int[] rank;
+
+    private final Requirements[] exploded;
+    private final long[] sums;
+    private final int[] touched;
+    private final int[] seen;
+    private int visit;
+
+    private BomGraph(Builder builder) {
+        long[] products = new long[builder.requirements.size() + 2 * builder.components.size()];
+        long[] materials = new long[builder.requirements.size()];
+        int r = 0;
+        for (long[] requirement : builder.requirements) {
+            products[r] = requirement[0];
+            materials[r++] = requirement[1];
+        }
+        for (long[] edge : builder.components) {
+            products[r++] = edge[0];
+            products[r++] = edge[1];
+        }
+        productIds = distinct(products);
+        materialIds = distinct(materials);
+
+        int n = productIds.length;
+        requirementStart = new int[n + 1];
+        requirementMaterial = new int[builder.requirements.size()];
+        requirementQuantity = new long[builder.requirements.size()];
+        for (long[] requirement : builder.requirements) {
+            requirementStart[index(requirement[0]) + 1]++;
+        }
+        prefixSums(requirementStart);
+        int[] next = Arrays.copyOf(requirementStart, n);
+        for (long[] requirement : builder.requirements) {
+            int slot = next[index(requirement[0])]++;
+            requirementMaterial[slot] = Arrays.binarySearch(materialIds, requirement[1]);
+            requirementQuantity[slot] = requirement[2];
+        }
+
+        componentStart = new int[n + 1];
+        component = new int[builder.components.size()];
+        componentQuantity = new long[builder.components.size()];
+        int[] usedInStart = new int[n + 1];
+        int[] usedIn = new int[builder.components.size()];
+        for (long[] edge : builder.components) {
+            componentStart[index(edge[0]) + 1]++;
+            usedInStart[index(edge[1]) + 1]++;
+        }
+        prefixSums(componentStart);
+        prefixSums(usedInStart);
+        next = Arrays.copyOf(componentStart, n);
+        int[] nextUse = Arrays.copyOf(usedInStart, n);
+        for (long[] edge : builder.components) {
+            int assembly = index(edge[0]);
+            int part = index(edge[1]);
+            int slot = next[assembly]++;
+            component[slot] = part;
+            componentQuantity[slot] = edge[2];
+            usedIn[nextUse[part]++] = assembly;
+        }
+
+        order = new int[n];
+        rank = new int[n];
+        int[] pending = new int[n];
+        int sorted = 0;
+        for (int p = 0; p < n; p++) {
+            pending[p] = componentStart[p + 1] - componentStart[p];
+            if (pending[p] == 0) {
+                order[sorted++] = p;
+            }
+        }
+        for (int head = 0; head < sorted; head++) {
+            int part = order[head];
+            rank[part] = head;
+            for (int u = usedInStart[part]; u < usedInStart[part + 1]; u++) {
+                if (--pending[usedIn[u]] == 0) {
+                    order[sorted++] = usedIn[u];
+                }
+            }
+        }
+        if (sorted < n) {
+            throw new IllegalArgumentException("Cycle in the bill of materials: " + cycle(pending));
+        }
+
+        exploded = new Requirements[n];
+        sums = new long[materialIds.length];
+        touched = new int[materialIds.length];
+        seen = new int[n];
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int products() {
+        return productIds.length;
+    }
+
+    /**
+     * Product ids with every component before the assemblies that use it.
+     */
+    public long[] topologicalOrder() {
+        long[] ids = new long[order.length];
+        for (int i = 0; i < order.length; i++) {
+            ids[i] = productIds[order[i]];
+        }
+        return ids;
+    }
+
+    /**
+     * Total raw materials one unit of the product consumes, its own and
+     * those of every component at every level, ordered by raw material id.
+     * Empty for a product the graph does not know.
+     */
+    public Requirements explode(long productId) {
+        int p = Arrays.binarySearch(productIds, productId);
+        return p < 0 ? Requirements.EMPTY : explode(p);
+    }
+
+    private Requirements explode(int root) {
+        if (exploded[root] != null) {
+            return exploded[root];
+        }
+        // Collect what is missing below the product, then fill it in topological order
+        visit++;
+        int[] missing = new int[16];
+        int found = 0;
+        int[] stack = new int[16];
+        int top = 0;
+        stack[top++] = root;
+        seen[root] = visit;
+        while (top > 0) {
+            int p = stack[--top];
+            if (found == missing.length) {
+                missing = Arrays.copyOf(missing, found * 2);
+            }
+            missing[found++] = rank[p];
+            for (int e = componentStart[p]; e < componentStart[p + 1]; e++) {
+                int part = component[e];
+                if (exploded[part] == null && seen[part] != visit) {
+                    seen[part] = visit;
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, top * 2);
+                    }
+                    stack[top++] = part;
+                }
+            }
+        }
+        Arrays.sort(missing, 0, found);
+        for (int i = 0; i < found; i++) {
+            int p = order[missing[i]];
+            exploded[p] = compute(p);
+        }
+        return exploded[root];
+    }
+
+    private Requirements compute(int p) {
+        int count = 0;
+        for (int r = requirementStart[p]; r < requirementStart[p + 1]; r++) {
+            if (requirementQuantity[r] > 0) {
+                count = add(requirementMaterial[r], requirementQuantity[r], count);
+            }
+        }
+        for (int e = componentStart[p]; e < componentStart[p + 1]; e++) {
+            long quantity = componentQuantity[e];
+            if (quantity <= 0) {
+                continue;
+            }
+            Requirements part = exploded[component[e]];
+            for (int i = 0; i < part.materials.length; i++) {
+                count = add(part.materials[i], multiply(part.quantities[i], quantity), count);
+            }
+        }
+        if (count == 0) {
+            return Requirements.EMPTY;
+        }
+        int[] materials;
+        if (count * 8L > sums.length) {
+            // dense enough that scanning every raw material beats sorting
+            materials = new int[count];
+            for (int m = 0, i = 0; i < count; m++) {
+                if (sums[m] != 0) {
+                    materials[i++] = m;
+                }
+            }
+        } else {
+            materials = Arrays.copyOf(touched, count);
+            Arrays.sort(materials);
+        }
+        long[] quantities = new long[count];
+        for (int i = 0; i < count; i++) {
+            quantities[i] = sums[materials[i]];
+            sums[materials[i]] = 0;
+        }
+        return new Requirements(materialIds, materials, quantities);
+    }
+
+    private int add(int material, long quantity, int count) {
+        if (sums[material] == 0) {
+            touched[count++] = material;
+        }
+        long sum = sums[material] + quantity;
+        sums[material] = sum < 0 ? Long.MAX_VALUE : sum;
+        return count;
+    }
+
+    private static long multiply(long a, long b) {
+        long product = a * b;
+        return Math.multiplyHigh(a, b) != 0 || product < 0 ? Long.MAX_VALUE : product;
+    }
+
+    /**
+     * Follows components among the products left unsorted until one repeats.
+     * Each of them still has a component left, so the walk never stops early.
+     */
+    private String cycle(int[] pending) {
+        int p = 0;
+        while (pending[p] == 0) {
+            p++;
+        }
+        Map<Integer, Integer> position = new HashMap<>();
+        List<Integer> path = new ArrayList<>();
+        while (!position.containsKey(p)) {
+            position.put(p, path.size());
+            path.add(p);
+            for (int e = componentStart[p]; e < componentStart[p + 1]; e++) {
+                if (pending[component[e]] > 0) {
+                    p = component[e];
+                    break;
+                }
+            }
+        }
+        StringBuilder cycle = new StringBuilder("product");
+        for (int i = position.get(p); i < path.size(); i++) {
+            cycle.append(' ').append(productIds[path.get(i)]).append(" ->");
+        }
+        return cycle.append(' ').append(productIds[p]).toString();
+    }
+
+    private int index(long productId) {
+        return Arrays.binarySearch(productIds, productId);
+    }
+
+    private static long[] distinct(long[] ids) {
+        Arrays.sort(ids);
+        int count = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (count == 0 || ids[i] != ids[count - 1]) {
+                ids[count++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    private static void prefixSums(int[] counts) {
+        for (int i = 1; i < counts.length; i++) {
+            counts[i] += counts[i - 1];
+        }
+    }
+
+    /**
+     * Collects the edges of the graph; duplicates add up.
+     */
+    public static final class Builder {
+        private final List<long[]> requirements = new ArrayList<>();
+        private final List<long[]> components = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder requirement(long productId, long rawMaterialId, long quantity) {
+            requirements.add(new long[]{productId, rawMaterialId, quantity});
+            return this;
+        }
+
+        public Builder component(long assemblyId, long componentId, long quantity) {
+            components.add(new long[]{assemblyId, componentId, quantity});
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException when a product contains itself at some level
+         */
+        public BomGraph build() {
+            return new BomGraph(this);
+        }
+    }
+
+    /**
+     * Raw materials and quantities per unit, ordered by raw material id.
+     */
+    public static final class Requirements {
+        static final Requirements EMPTY = new Requirements(new long[0], new int[0], new long[0]);
+
+        private final long[] materialIds;
+        private final int[] materials;
+        private final long[] quantities;
+
+        private Requirements(long[] materialIds, int[] materials, long[] quantities) {
+            this.materialIds = materialIds;
+            this.materials = materials;
+            this.quantities = quantities;
+        }
+
+        public int size() { return materials.length; }
+        public long rawMaterialId(int i) { return materialIds[materials[i]]; }
+        public long quantity(int i) { return quantities[i]; }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.service;
+
+import java.time.Duration;
+
+/**
+ * Exact bounded-knapsack search over integer production quantities.
+ *
+ * Starts from the {@link LpRelaxationOptimizer} plan and explores quantities
+ * depth first, products ordered by shadow-priced efficiency and larger
+ * quantities first. Each node is pruned with the Lagrangian bound of the
+ * LP relaxation on the remaining stock. When the time budget runs out the
+ * best plan found so far is returned and reported as not optimal.
+ */
+public class BranchAndBoundOptimizer implements ProductionOptimizer {
+
+    public static final String NAME = "branch-and-bound";
+
+    private static final int DEADLINE_CHECK_INTERVAL = 4096;
+
+    private final Duration timeBudget;
+
+    public BranchAndBoundOptimizer(Duration timeBudget) {
+        this.timeBudget = timeBudget;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public ProductionPlan optimize(OptimizationModel model) {
+        long deadline = System.nanoTime() + timeBudget.toNanos();
+        LpRelaxationOptimizer.Incumbent incumbent = LpRelaxationOptimizer.Incumbent.of(model);
+        int[] bestQuantity = incumbent.quantity.clone();
+        double best = incumbent.value;
+        int n = model.products();
+        if (n == 0 || best >= incumbent.relaxation.upperBound - LpRelaxationOptimizer.tolerance(best)) {
+            return model.toPlan(NAME, bestQuantity, true);
+        }
+
+        double[] shadow = incumbent.relaxation.shadowPrice;
+        int[] order = model.pricedOrder(shadow);
+        double[] unitCost = new double[n];
+        double[] lagrangianSuffix = new double[n + 1];
+        double[] valueSuffix = new double[n + 1];
+        int[] upperBound = model.upperBound();
+        for (int k = n - 1; k >= 0; k--) {
+            int p = order[k];
+            unitCost[k] = model.cost(p, shadow);
+            lagrangianSuffix[k] = lagrangianSuffix[k + 1] + Math.max(0, model.price[p] - unitCost[k]) * upperBound[p];
+            valueSuffix[k] = valueSuffix[k + 1] + Math.max(0, model.price[p]) * upperBound[p];
+        }
+
+        int[] remaining = model.stock.clone();
+        double dualRemaining = 0;
+        for (int j = 0; j < remaining.length; j++) {
+            dualRemaining += shadow[j] * remaining[j];
+        }
+        int[] assigned = new int[n];
+        int[] next = new int[n];
+        double value = 0;
+        boolean complete = true;
+        long steps = 0;
+
+        int k = 0;
+        next[0] = candidate(model, order[0], remaining);
+        while (k >= 0) {
+            if (++steps % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                complete = false;
+                break;
+            }
+            if (next[k] < 0) {
+                k--;
+                if (k >= 0) {
+                    int p = order[k];
+                    model.restore(p, assigned[k], remaining);
+                    value -= model.price[p] * assigned[k];
+                    dualRemaining += unitCost[k] * assigned[k];
+                    assigned[k] = 0;
+                }
+                continue;
+            }
+
+            int p = order[k];
+            int quantity = next[k];
+            if (k == n - 1) {
+                double leafValue = value + model.price[p] * quantity;
+                if (leafValue > best + LpRelaxationOptimizer.tolerance(best)) {
+                    best = leafValue;
+                    for (int t = 0; t < k; t++) {
+                        bestQuantity[order[t]] = assigned[t];
+                    }
+                    bestQuantity[p] = quantity;
+                }
+                next[k] = -1;
+                continue;
+            }
+
+            double childValue = value + model.price[p] * quantity;
+            double childDual = dualRemaining - unitCost[k] * quantity;
+            double bound = childValue + Math.min(childDual + lagrangianSuffix[k + 1], valueSuffix[k + 1]);
+            if (bound <= best + LpRelaxationOptimizer.tolerance(best)) {
+                boolean smallerQuantitiesAreWorse = model.price[p] - unitCost[k] >= 0;
+                next[k] = smallerQuantitiesAreWorse ? -1 : quantity - 1;
+                continue;
+            }
+
+            model.consume(p, quantity, remaining);
+            assigned[k] = quantity;
+            value = childValue;
+            dualRemaining = childDual;
+            next[k] = quantity - 1;
+            k++;
+            next[k] = candidate(model, order[k], remaining);
+        }
+        return model.toPlan(NAME, bestQuantity, complete);
+    }
+
+    /**
+     * Largest quantity worth trying for a product: what the remaining stock
+     * allows, or zero when producing it cannot add value.
+     */
+    private static int candidate(OptimizationModel model, int product, int[] remaining) {
+        return model.price[product] > 0 ? model.maxFeasible(product, remaining) : 0;
+    }
+}
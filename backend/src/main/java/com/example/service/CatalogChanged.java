@@ -0,0 +1,9 @@
+package com.example.service;
+
+/**
+ * CDI event fired by write paths that change products, raw material stock
+ * or bill of materials rows. Observers use it to invalidate derived state
+ * such as the cached production suggestion.
+ */
+public class CatalogChanged {
+}
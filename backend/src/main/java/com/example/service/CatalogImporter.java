@@ -0,0 +1,404 @@
+package com.example.service;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Bulk upsert of products, raw materials and bill of materials rows.
+ *
+ * Rows are validated one by one and written in chunks of
+ * {@code import.chunk-size} with JDBC batches, one commit per chunk, so a
+ * large import never holds a long transaction or a persistence context.
+ * Products and raw materials are upserted by code. BOM rows name their
+ * product and raw material by code; each chunk resolves those codes with
+ * one query per table and updates the required quantity of an existing
+ * association or inserts a new one, then refreshes the
+ * {@link FlattenedRequirements} of the products it touched before the
+ * chunk commits. Raw material rows add an
+ * {@code IMPORT} movement to the stock history when their stock changes.
+ *
+ * New rows take their ids from the same sequences as the entities, in
+ * blocks of {@value #ID_ALLOCATION_SIZE}, so imported and persisted rows
+ * never collide. An upsert that hits an existing code keeps its id and the
+ * allocated one is skipped.
+ *
+ * A chunk that fails in the database is rolled back and retried row by row
+ * so only the offending rows are reported. Rows repeated within a chunk are
+ * written once, the last one wins.
+ */
+@ApplicationScoped
+public class CatalogImporter {
+
+    private static final int MAX_TEXT_LENGTH = 255;
+    /** Must match the {@code allocationSize} of the entity sequence generators. */
+    static final int ID_ALLOCATION_SIZE = 50;
+
+    private static final String UPSERT_PRODUCT =
+        "insert into product (id, code, name, price, quantity) values (?, ?, ?, ?, ?) "
+            + "on conflict (code) do update set name = excluded.name, price = excluded.price, quantity = excluded.quantity";
+    private static final String UPSERT_RAW_MATERIAL =
+        "insert into raw_material (id, code, name, stock_quantity, reserved_quantity, version) values (?, ?, ?, ?, 0, 0) "
+            + "on conflict (code) do update set name = excluded.name, stock_quantity = excluded.stock_quantity, "
+            + "version = raw_material.version + 1";
+    private static final String LOCK_RAW_MATERIALS =
+        "select code, id, stock_quantity from raw_material where code = any(?) order by id for no key update";
+    private static final String EXISTING_ASSOCIATIONS =
+        "select product_id, raw_material_id from product_raw_material where product_id = any(?)";
+    private static final String UPDATE_ASSOCIATION =
+        "update product_raw_material set required_quantity = ? where product_id = ? and raw_material_id = ?";
+    private static final String INSERT_ASSOCIATION =
+        "insert into product_raw_material (id, product_id, raw_material_id, required_quantity) values (?, ?, ?, ?)";
+
+    @Inject
+    DataSource dataSource;
+
+    @Inject
+    Event<CatalogChanged> catalogChanged;
+
+    @ConfigProperty(name = "import.chunk-size", defaultValue = "5000")
+    int chunkSize;
+
+    public ImportReport importRows(ImportKind kind, Iterator<ImportRow> rows) {
+        ImportReport report = new ImportReport();
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                List<Entry> chunk = new ArrayList<>(chunkSize);
+                while (rows.hasNext()) {
+                    ImportRow row = rows.next();
+                    report.processed();
+                    Entry entry;
+                    try {
+                        entry = parse(kind, row);
+                    } catch (IllegalArgumentException e) {
+                        report.failed(row.getLine(), e.getMessage());
+                        continue;
+                    }
+                    chunk.add(entry);
+                    if (chunk.size() == chunkSize) {
+                        flush(connection, kind, chunk, report);
+                        chunk.clear();
+                    }
+                }
+                flush(connection, kind, chunk, report);
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Import failed after " + report.getImported() + " rows: " + e.getMessage(), e);
+        } finally {
+            if (report.getImported() > 0) {
+                catalogChanged.fire(new CatalogChanged());
+            }
+        }
+        return report;
+    }
+
+    private void flush(Connection connection, ImportKind kind, List<Entry> chunk, ImportReport report) throws SQLException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Map<String, Entry> unique = new LinkedHashMap<>();
+        for (Entry entry : chunk) {
+            unique.remove(entry.key);
+            unique.put(entry.key, entry);
+        }
+        try {
+            List<Entry> rejected = write(connection, kind, unique.values());
+            connection.commit();
+            report.imported(unique.size() - rejected.size());
+            rejected.forEach(entry -> report.failed(entry.line, entry.rejection));
+        } catch (SQLException e) {
+            connection.rollback();
+            for (Entry entry : unique.values()) {
+                try {
+                    List<Entry> rejected = write(connection, kind, List.of(entry));
+                    connection.commit();
+                    if (rejected.isEmpty()) {
+                        report.imported(1);
+                    } else {
+                        report.failed(entry.line, entry.rejection);
+                    }
+                } catch (SQLException rowError) {
+                    connection.rollback();
+                    report.failed(entry.line, rowError.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return entries that were not written, with the reason set
+     */
+    private List<Entry> write(Connection connection, ImportKind kind, Collection<Entry> entries) throws SQLException {
+        switch (kind) {
+            case PRODUCTS:
+                upsert(connection, UPSERT_PRODUCT, "product_seq", entries);
+                return List.of();
+            case RAW_MATERIALS:
+                writeRawMaterials(connection, entries);
+                return List.of();
+            default:
+                return writeAssociations(connection, entries);
+        }
+    }
+
+    /**
+     * Upserts raw materials and records the change of each one's stock in the
+     * history. The existing rows are locked first, in id order like every
+     * other multi-row stock writer, so the recorded delta is exact.
+     */
+    private void writeRawMaterials(Connection connection, Collection<Entry> entries) throws SQLException {
+        Map<String, long[]> existing = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(LOCK_RAW_MATERIALS)) {
+            statement.setArray(1, connection.createArrayOf("varchar", entries.stream().map(entry -> entry.key).toArray()));
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    existing.put(result.getString(1), new long[]{result.getLong(2), result.getInt(3)});
+                }
+            }
+        }
+        long[] ids = upsert(connection, UPSERT_RAW_MATERIAL, "raw_material_seq", entries);
+        try (PreparedStatement movements = connection.prepareStatement(StockHistory.RECORD_MOVEMENT)) {
+            int i = 0;
+            for (Entry entry : entries) {
+                long[] previous = existing.get(entry.key);
+                int stock = (Integer) entry.values[2];
+                if (previous == null) {
+                    StockHistory.addMovement(movements, ids[i], StockMovementKind.IMPORT, stock, 0);
+                } else if (stock != previous[1]) {
+                    StockHistory.addMovement(movements, previous[0], StockMovementKind.IMPORT, (int) (stock - previous[1]), 0);
+                }
+                i++;
+            }
+            movements.executeBatch();
+        }
+    }
+
+    /**
+     * @return the id allocated to each entry, in order; entries that updated an existing row kept its id instead
+     */
+    private long[] upsert(Connection connection, String sql, String sequence, Collection<Entry> entries) throws SQLException {
+        PrimitiveIterator.OfLong ids = allocateIds(connection, sequence, entries.size());
+        long[] allocated = new long[entries.size()];
+        int next = 0;
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (Entry entry : entries) {
+                allocated[next] = ids.nextLong();
+                statement.setLong(1, allocated[next++]);
+                for (int i = 0; i < entry.values.length; i++) {
+                    if (entry.values[i] == null) {
+                        statement.setNull(i + 2, Types.NULL);
+                    } else {
+                        statement.setObject(i + 2, entry.values[i]);
+                    }
+                }
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        return allocated;
+    }
+
+    private List<Entry> writeAssociations(Connection connection, Collection<Entry> entries) throws SQLException {
+        Set<String> productCodes = new HashSet<>();
+        Set<String> rawMaterialCodes = new HashSet<>();
+        for (Entry entry : entries) {
+            productCodes.add((String) entry.values[0]);
+            rawMaterialCodes.add((String) entry.values[1]);
+        }
+        Map<String, Long> productIds = ids(connection, "product", productCodes);
+        Map<String, Long> rawMaterialIds = ids(connection, "raw_material", rawMaterialCodes);
+
+        List<Entry> rejected = new ArrayList<>();
+        List<Entry> resolved = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            entry.productId = productIds.get((String) entry.values[0]);
+            entry.rawMaterialId = rawMaterialIds.get((String) entry.values[1]);
+            if (entry.productId == null) {
+                entry.rejection = "Unknown product code: " + entry.values[0];
+                rejected.add(entry);
+            } else if (entry.rawMaterialId == null) {
+                entry.rejection = "Unknown raw material code: " + entry.values[1];
+                rejected.add(entry);
+            } else {
+                resolved.add(entry);
+            }
+        }
+
+        if (resolved.isEmpty()) {
+            return rejected;
+        }
+        try (Statement lock = connection.createStatement()) {
+            lock.execute(FlattenedRequirements.LOCK);
+        }
+        Set<Long> products = new HashSet<>();
+        resolved.forEach(entry -> products.add(entry.productId));
+        Map<Long, Set<Long>> existing = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(EXISTING_ASSOCIATIONS)) {
+            statement.setArray(1, connection.createArrayOf("bigint", products.toArray()));
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    existing.computeIfAbsent(result.getLong(1), id -> new HashSet<>()).add(result.getLong(2));
+                }
+            }
+        }
+
+        List<Entry> inserts = new ArrayList<>();
+        try (PreparedStatement update = connection.prepareStatement(UPDATE_ASSOCIATION)) {
+            for (Entry entry : resolved) {
+                if (existing.getOrDefault(entry.productId, Set.of()).contains(entry.rawMaterialId)) {
+                    update.setInt(1, (Integer) entry.values[2]);
+                    update.setLong(2, entry.productId);
+                    update.setLong(3, entry.rawMaterialId);
+                    update.addBatch();
+                } else {
+                    inserts.add(entry);
+                }
+            }
+            update.executeBatch();
+        }
+        if (!inserts.isEmpty()) {
+            PrimitiveIterator.OfLong ids = allocateIds(connection, "product_raw_material_seq", inserts.size());
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_ASSOCIATION)) {
+                for (Entry entry : inserts) {
+                    insert.setLong(1, ids.nextLong());
+                    insert.setLong(2, entry.productId);
+                    insert.setLong(3, entry.rawMaterialId);
+                    insert.setInt(4, (Integer) entry.values[2]);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+        FlattenedRequirements.refresh(connection, products);
+        return rejected;
+    }
+
+    /**
+     * Reserves at least {@code count} ids with one round trip. Each value the
+     * sequence hands out is the last id of a block of
+     * {@value #ID_ALLOCATION_SIZE}, as Hibernate's pooled optimizer reads it.
+     */
+    private PrimitiveIterator.OfLong allocateIds(Connection connection, String sequence, int count) throws SQLException {
+        int blocks = (count + ID_ALLOCATION_SIZE - 1) / ID_ALLOCATION_SIZE;
+        long[] ids = new long[blocks * ID_ALLOCATION_SIZE];
+        int next = 0;
+        try (PreparedStatement statement = connection.prepareStatement("select nextval(?) from generate_series(1, ?)")) {
+            statement.setString(1, sequence);
+            statement.setInt(2, blocks);
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    long last = result.getLong(1);
+                    for (long id = last - ID_ALLOCATION_SIZE + 1; id <= last; id++) {
+                        ids[next++] = id;
+                    }
+                }
+            }
+        }
+        return Arrays.stream(ids, 0, next).iterator();
+    }
+
+    private Map<String, Long> ids(Connection connection, String table, Set<String> codes) throws SQLException {
+        Map<String, Long> ids = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement("select code, id from " + table + " where code = any(?)")) {
+            statement.setArray(1, connection.createArrayOf("varchar", codes.toArray()));
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    ids.put(result.getString(1), result.getLong(2));
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * @throws IllegalArgumentException when the row is missing a column or holds an invalid value
+     */
+    private Entry parse(ImportKind kind, ImportRow row) {
+        if (row.getError() != null) {
+            throw new IllegalArgumentException(row.getError());
+        }
+        switch (kind) {
+            case PRODUCTS: {
+                String code = text(row, "code");
+                BigDecimal price = decimal(row, "price");
+                Integer quantity = row.get("quantity") == null ? null : integer(row, "quantity", 0);
+                return new Entry(row.getLine(), code, new Object[]{code, text(row, "name"), price, quantity});
+            }
+            case RAW_MATERIALS: {
+                String code = text(row, "code");
+                return new Entry(row.getLine(), code, new Object[]{code, text(row, "name"), integer(row, "stockQuantity", 0)});
+            }
+            default: {
+                String productCode = text(row, "productCode");
+                String rawMaterialCode = text(row, "rawMaterialCode");
+                return new Entry(row.getLine(), productCode + '\u0000' + rawMaterialCode,
+                    new Object[]{productCode, rawMaterialCode, integer(row, "requiredQuantity", 1)});
+            }
+        }
+    }
+
+    private static String text(ImportRow row, String column) {
+        String value = row.get(column);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(column + " is required");
+        }
+        value = value.trim();
+        if (value.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException(column + " must be at most " + MAX_TEXT_LENGTH + " characters");
+        }
+        return value;
+    }
+
+    private static int integer(ImportRow row, String column, int min) {
+        String value = text(row, column);
+        int parsed;
+        try {
+            parsed = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " must be an integer: " + value);
+        }
+        if (parsed < min) {
+            throw new IllegalArgumentException(column + " must be at least " + min);
+        }
+        return parsed;
+    }
+
+    private static BigDecimal decimal(ImportRow row, String column) {
+        String value = text(row, column);
+        BigDecimal parsed;
+        try {
+            parsed = new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " must be a number: " + value);
+        }
+        if (parsed.signum() < 0) {
+            throw new IllegalArgumentException(column + " must not be negative");
+        }
+        return parsed;
+    }
+
+    private static final class Entry {
+        final long line;
+        final String key;
+        final Object[] values;
+        Long productId;
+        Long rawMaterialId;
+        String rejection;
+
+        Entry(long line, String key, Object[] values) {
+            this.line = line;
+            this.key = key;
+            this.values = values;
+        }
+    }
+}
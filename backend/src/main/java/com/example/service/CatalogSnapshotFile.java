@@ -0,0 +1,265 @@
+package com.example.service;
+
+import com.example.model.Product;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary, columnar copy of the bill of materials on local disk.
+ *
+ * Every column is one array: product ids, the start of each product's
+ * requirements, raw material indexes and required quantities, the raw
+ * material ids, then code, name and price as UTF-8 with offsets. Reading
+ * maps the file and copies each column with one bulk get, so loading costs
+ * about as much as reading the bytes. A CRC32C over everything else closes
+ * the file; a torn or foreign file is rejected as a whole.
+ *
+ * Stock and product quantities are not kept: they change too often for a
+ * copy to be worth trusting and are read from the database on load.
+ */
+final class CatalogSnapshotFile {
+
+    private static final int MAGIC = 0x424f4d53;
+    private static final int FORMAT = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 4 + 4;
+
+    private final long catalogVersion;
+    private final long[] productIds;
+    private final int[] rowStart;
+    private final int[] material;
+    private final int[] required;
+    private final long[] materialIds;
+    private final String[] codes;
+    private final String[] names;
+    private final String[] prices;
+
+    private CatalogSnapshotFile(long catalogVersion, long[] productIds, int[] rowStart, int[] material, int[] required,
+                                long[] materialIds, String[] codes, String[] names, String[] prices) {
+        this.catalogVersion = catalogVersion;
+        this.productIds = productIds;
+        this.rowStart = rowStart;
+        this.material = material;
+        this.required = required;
+        this.materialIds = materialIds;
+        this.codes = codes;
+        this.names = names;
+        this.prices = prices;
+    }
+
+    /**
+     * Writes the bill of materials tagged with a catalog version. The file
+     * is written next to its final name and moved over it, so readers see
+     * the old copy or the new one, never a mix.
+     */
+    static void write(Path file, long catalogVersion, BillOfMaterials bom) throws IOException {
+        List<BillOfMaterials.Item> items = bom.getItems();
+        int products = items.size();
+        Map<Long, Integer> materialIndex = new HashMap<>();
+        int requirements = 0;
+        for (BillOfMaterials.Item item : items) {
+            for (BillOfMaterials.Requirement requirement : item.getRequirements()) {
+                materialIndex.putIfAbsent(requirement.getRawMaterialId(), 0);
+                requirements++;
+            }
+        }
+        long[] materialIds = materialIndex.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        for (int m = 0; m < materialIds.length; m++) {
+            materialIndex.put(materialIds[m], m);
+        }
+        byte[][] codes = new byte[products][];
+        byte[][] names = new byte[products][];
+        byte[][] prices = new byte[products][];
+        long textBytes = 0;
+        for (int p = 0; p < products; p++) {
+            Product product = items.get(p).getProduct();
+            codes[p] = product.getCode().getBytes(StandardCharsets.UTF_8);
+            names[p] = product.getName().getBytes(StandardCharsets.UTF_8);
+            prices[p] = product.getPrice().toString().getBytes(StandardCharsets.UTF_8);
+            textBytes += codes[p].length + names[p].length + prices[p].length;
+        }
+
+        long size = HEADER_BYTES + 8L * products + 4L * (products + 1) + 8L * requirements + 8L * materialIds.length
+            + 3 * 4L * (products + 1) + textBytes + 8;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Catalog too large for a snapshot: " + size + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        buffer.putInt(MAGIC).putInt(FORMAT).putLong(catalogVersion)
+            .putInt(products).putInt(materialIds.length).putInt(requirements);
+        for (BillOfMaterials.Item item : items) {
+            buffer.putLong(item.getProduct().getId());
+        }
+        int row = 0;
+        for (BillOfMaterials.Item item : items) {
+            buffer.putInt(row);
+            row += item.getRequirements().size();
+        }
+        buffer.putInt(row);
+        for (BillOfMaterials.Item item : items) {
+            for (BillOfMaterials.Requirement requirement : item.getRequirements()) {
+                buffer.putInt(materialIndex.get(requirement.getRawMaterialId()));
+            }
+        }
+        for (BillOfMaterials.Item item : items) {
+            for (BillOfMaterials.Requirement requirement : item.getRequirements()) {
+                buffer.putInt(requirement.getRequiredQuantity());
+            }
+        }
+        for (long id : materialIds) {
+            buffer.putLong(id);
+        }
+        putText(buffer, codes);
+        putText(buffer, names);
+        putText(buffer, prices);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue());
+        buffer.flip();
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * @throws IOException when the file cannot be read or is not a complete snapshot
+     */
+    static CatalogSnapshotFile read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + 8 || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a catalog snapshot: " + size + " bytes");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.duplicate().limit((int) size - 8));
+            if (crc.getValue() != buffer.getLong((int) size - 8)) {
+                throw new IOException("Catalog snapshot checksum mismatch");
+            }
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT) {
+                throw new IOException("Not a catalog snapshot of format " + FORMAT);
+            }
+            buffer.limit((int) size - 8);
+            try {
+                long catalogVersion = buffer.getLong();
+                int products = buffer.getInt();
+                int materials = buffer.getInt();
+                int requirements = buffer.getInt();
+                long[] productIds = longs(buffer, products);
+                int[] rowStart = ints(buffer, products + 1);
+                int[] material = ints(buffer, requirements);
+                int[] required = ints(buffer, requirements);
+                long[] materialIds = longs(buffer, materials);
+                String[] codes = text(buffer, products);
+                String[] names = text(buffer, products);
+                String[] prices = text(buffer, products);
+                if (buffer.hasRemaining() || rowStart[products] != requirements) {
+                    throw new IOException("Catalog snapshot has inconsistent sizes");
+                }
+                return new CatalogSnapshotFile(catalogVersion, productIds, rowStart, material, required, materialIds,
+                    codes, names, prices);
+            } catch (RuntimeException e) {
+                throw new IOException("Catalog snapshot is malformed: " + e, e);
+            }
+        }
+    }
+
+    long catalogVersion() {
+        return catalogVersion;
+    }
+
+    long[] productIds() {
+        return productIds;
+    }
+
+    long[] rawMaterialIds() {
+        return materialIds;
+    }
+
+    /**
+     * The bill of materials with current product quantities and stock; a
+     * raw material missing from {@code stock} counts as none.
+     */
+    BillOfMaterials toBillOfMaterials(Map<Long, Integer> quantities, Map<Long, Integer> stock) {
+        List<BillOfMaterials.Item> items = new ArrayList<>(productIds.length);
+        for (int p = 0; p < productIds.length; p++) {
+            Product product = new Product();
+            product.setId(productIds[p]);
+            product.setCode(codes[p]);
+            product.setName(names[p]);
+            product.setPrice(new BigDecimal(prices[p]));
+            product.setQuantity(quantities.get(productIds[p]));
+            BillOfMaterials.Item item = new BillOfMaterials.Item(product);
+            for (int r = rowStart[p]; r < rowStart[p + 1]; r++) {
+                item.getRequirements().add(new BillOfMaterials.Requirement(materialIds[material[r]], required[r]));
+            }
+            items.add(item);
+        }
+        Map<Long, Integer> levels = new HashMap<>(materialIds.length * 2);
+        for (long id : materialIds) {
+            levels.put(id, stock.getOrDefault(id, 0));
+        }
+        return new BillOfMaterials(items, levels);
+    }
+
+    private static void putText(ByteBuffer buffer, byte[][] values) {
+        int offset = 0;
+        for (byte[] value : values) {
+            buffer.putInt(offset);
+            offset += value.length;
+        }
+        buffer.putInt(offset);
+        for (byte[] value : values) {
+            buffer.put(value);
+        }
+    }
+
+    private static long[] longs(ByteBuffer buffer, int count) {
+        long[] values = new long[count];
+        buffer.asLongBuffer().get(values);
+        buffer.position(buffer.position() + 8 * count);
+        return values;
+    }
+
+    private static int[] ints(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + 4 * count);
+        return values;
+    }
+
+    private static String[] text(ByteBuffer buffer, int count) {
+        int[] offsets = ints(buffer, count + 1);
+        byte[] bytes = new byte[offsets[count]];
+        buffer.get(bytes);
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = new String(bytes, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+}
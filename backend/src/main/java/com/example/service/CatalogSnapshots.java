@@ -0,0 +1,172 @@
+package com.example.service;
+
+import io.quarkus.runtime.StartupEvent;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Local copy of the bill of materials the production suggestion plans from,
+ * so a restart plans without pulling the catalog through Hibernate.
+ *
+ * Every reload from the database is saved to {@code production.snapshot.file}
+ * with the value of {@code catalog_version} read before it. Triggers bump
+ * that counter with every statement that changes the exploded bill of
+ * materials or a product's code, name or price, whoever runs it, so a copy
+ * whose tag no longer matches is stale and is ignored. Loading a copy reads
+ * the counter, the product quantities and the stock of its raw materials,
+ * three queries over plain columns.
+ *
+ * Every structural change on this node also discards the copy once it
+ * commits. A reload that raced with the commit may have read the old rows
+ * from the caches, and this keeps them off the disk. A file that cannot be
+ * read is treated as missing.
+ */
+@ApplicationScoped
+public class CatalogSnapshots {
+
+    private static final Logger LOG = Logger.getLogger(CatalogSnapshots.class);
+
+    private static final String VERSION = "select version from catalog_version where id = 1";
+    /** Hibernate creates product after the migrations on a new database, so its trigger is installed here. */
+    private static final String PRODUCT_TRIGGER =
+        "create or replace trigger catalog_version_product after delete or update of code, name, price on product "
+            + "for each statement execute function bump_catalog_version()";
+    private static final String QUANTITIES = "select id, quantity from product where id = any(?)";
+    private static final String STOCK = "select id, stock_quantity from raw_material where id = any(?)";
+
+    @Inject
+    DataSource dataSource;
+
+    @ConfigProperty(name = "production.snapshot.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "production.snapshot.file", defaultValue = "data/catalog-snapshot.bin")
+    String file;
+
+    /**
+     * Without the trigger product edits would go unnoticed, so snapshots are
+     * turned off when it cannot be installed.
+     */
+    void onStart(@Observes StartupEvent event) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(PRODUCT_TRIGGER);
+        } catch (SQLException e) {
+            LOG.warnf("Catalog snapshots disabled, could not install the catalog version trigger: %s", e.getMessage());
+            enabled = false;
+        }
+    }
+
+    /**
+     * The saved bill of materials with current quantities and stock, or
+     * empty when there is none or it is stale.
+     */
+    public Optional<BillOfMaterials> load() {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Path path = Path.of(file);
+        CatalogSnapshotFile snapshot;
+        try {
+            snapshot = CatalogSnapshotFile.read(path);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            LOG.warnf("Ignoring catalog snapshot %s: %s", path, e.getMessage());
+            invalidate();
+            return Optional.empty();
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            long current = version(connection);
+            if (current < 0 || snapshot.catalogVersion() != current) {
+                LOG.infof("Catalog snapshot %s is stale (version %d, database at %d)", path, snapshot.catalogVersion(), current);
+                invalidate();
+                return Optional.empty();
+            }
+            Map<Long, Integer> quantities = read(connection, QUANTITIES, snapshot.productIds());
+            Map<Long, Integer> stock = read(connection, STOCK, snapshot.rawMaterialIds());
+            return Optional.of(snapshot.toBillOfMaterials(quantities, stock));
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not load the catalog snapshot: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Current value of the catalog version counter; read it before loading
+     * what {@link #save} will be given.
+     */
+    public long databaseVersion() {
+        try (Connection connection = dataSource.getConnection()) {
+            return version(connection);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read the catalog version: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Saves a bill of materials loaded after reading {@code databaseVersion},
+     * unless {@code current} says a change of this node landed meanwhile.
+     * Failing to write only costs the next restart a database load.
+     */
+    public synchronized void save(BillOfMaterials bom, long databaseVersion, BooleanSupplier current) {
+        if (!enabled || !current.getAsBoolean()) {
+            return;
+        }
+        try {
+            CatalogSnapshotFile.write(Path.of(file), databaseVersion, bom);
+        } catch (IOException e) {
+            LOG.warnf("Could not write catalog snapshot %s: %s", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Discards the saved copy; call it for every change that makes it stale.
+     */
+    public synchronized void invalidate() {
+        try {
+            Files.deleteIfExists(Path.of(file));
+        } catch (IOException e) {
+            LOG.warnf("Could not delete catalog snapshot %s: %s", file, e.getMessage());
+        }
+    }
+
+    private static long version(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(VERSION)) {
+            return result.next() ? result.getLong(1) : -1;
+        }
+    }
+
+    private static Map<Long, Integer> read(Connection connection, String sql, long[] ids) throws SQLException {
+        Map<Long, Integer> values = new HashMap<>(ids.length * 2);
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setArray(1, connection.createArrayOf("bigint", Arrays.stream(ids).boxed().toArray()));
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    int value = result.getInt(2);
+                    values.put(result.getLong(1), result.wasNull() ? null : value);
+                }
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.service;
+
+import com.example.model.RawMaterial;
+import com.example.repository.RawMaterialRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Applies every movement as one conditional UPDATE in its own transaction;
+ * the row lock taken by that UPDATE is the only coordination needed.
+ */
+final class DatabaseStockStore implements StockStore {
+
+    private final RawMaterialRepository repository;
+
+    DatabaseStockStore(RawMaterialRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public Optional<StockLevel> level(long id) {
+        return Optional.ofNullable(repository.findById(id)).map(DatabaseStockStore::level);
+    }
+
+    @Override
+    public Map<Long, Integer> stock(Collection<Long> ids) {
+        return repository.stockQuantities(ids);
+    }
+
+    @Override
+    public Map<Long, Integer> unflushedStock() {
+        return Map.of();
+    }
+
+    @Override
+    public Optional<StockLevel> reserve(long id, int quantity) {
+        return QuarkusTransaction.requiringNew().call(() -> repository.reserve(id, quantity)).map(DatabaseStockStore::level);
+    }
+
+    @Override
+    public Optional<StockLevel> release(long id, int quantity) {
+        return QuarkusTransaction.requiringNew().call(() -> repository.release(id, quantity)).map(DatabaseStockStore::level);
+    }
+
+    @Override
+    public Optional<StockLevel> consume(long id, int quantity) {
+        return QuarkusTransaction.requiringNew().call(() -> repository.consume(id, quantity)).map(DatabaseStockStore::level);
+    }
+
+    @Override
+    public <T> T exclusive(Supplier<T> write) {
+        return write.get();
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static StockLevel level(RawMaterial rawMaterial) {
+        return new StockLevel(rawMaterial.getId(), rawMaterial.getStockQuantity(), rawMaterial.getReservedQuantity());
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.service;
+
+import com.example.model.Product;
+import com.example.model.RawMaterial;
+import org.hibernate.Cache;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keeps the Hibernate second-level and query caches in line with writes
+ * that bypass the session: the conditional stock movements, production
+ * orders, bulk imports and stock ledger flushes update rows with SQL, which
+ * Hibernate does not see.
+ *
+ * A {@link StockChanged} evicts that raw material; any other
+ * {@link CatalogChanged} evicts every region, since the writer does not say
+ * what it touched. Either way the cached query results go too, because the
+ * bill of materials query reads stock. A {@link ProductsProduced} evicts
+ * just those products. This observer runs before the
+ * production planner's, so a suggestion recomputed for the new catalog
+ * version never reads evicted data from the cache.
+ */
+@ApplicationScoped
+public class EntityCacheInvalidator {
+
+    @Inject
+    EntityManagerFactory entityManagerFactory;
+
+    void onCatalogChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) @Priority(Interceptor.Priority.APPLICATION)
+                          CatalogChanged event) {
+        if (event instanceof StockChanged) {
+            evictRawMaterials(List.of(((StockChanged) event).getRawMaterialId()));
+        } else {
+            cache().evictAllRegions();
+        }
+    }
+
+    void onProductsProduced(@Observes(during = TransactionPhase.AFTER_SUCCESS) ProductsProduced event) {
+        Cache cache = cache();
+        for (Long id : event.getProductIds()) {
+            cache.evictEntityData(Product.class, id);
+        }
+    }
+
+    public void evictRawMaterials(Collection<Long> rawMaterialIds) {
+        Cache cache = cache();
+        for (Long id : rawMaterialIds) {
+            cache.evictEntityData(RawMaterial.class, id);
+        }
+        cache.evictDefaultQueryRegion();
+        cache.evictQueryRegions();
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Materialized explosion of the bill of materials.
+ *
+ * {@code product_requirement} holds, for every product, the raw materials
+ * one unit consumes at all its levels, so the production suggestion and
+ * production orders read one row per product and raw material instead of
+ * walking components. Quantities too large for an {@code int} are capped
+ * at {@link Integer#MAX_VALUE}, which no stock covers.
+ *
+ * Every write to {@code product_raw_material} or {@code product_component}
+ * refreshes the products it changed, in the same transaction. A refresh
+ * finds every product that contains them at some level, reads the direct
+ * requirements and components of those and the already flattened rows of
+ * their other components, explodes that part of the graph with
+ * {@link BomGraph} and replaces its rows. An edit costs in proportion to the
+ * products above it, not to the catalog.
+ *
+ * Writers take {@link #LOCK} before touching any other row, so refreshes
+ * never interleave and never wait on a table lock while holding a row lock.
+ * Whether a new component closes a cycle is checked under the same lock.
+ * Readers are not blocked.
+ */
+@ApplicationScoped
+public class FlattenedRequirements {
+
+    static final String LOCK = "lock table product_requirement in share row exclusive mode";
+    private static final String ASSEMBLIES =
+        "with recursive affected(id) as (select unnest(cast(? as bigint[])) "
+            + "union select pc.product_id from product_component pc join affected on pc.component_id = affected.id) "
+            + "select id from affected";
+    private static final String DIRECT_REQUIREMENTS =
+        "select product_id, raw_material_id, required_quantity from product_raw_material where product_id = any(?)";
+    private static final String COMPONENTS =
+        "select product_id, component_id, required_quantity from product_component where product_id = any(?)";
+    private static final String FLATTENED =
+        "select product_id, raw_material_id, required_quantity from product_requirement where product_id = any(?)";
+    private static final String DELETE = "delete from product_requirement where product_id = any(?)";
+    private static final String INSERT =
+        "insert into product_requirement (product_id, raw_material_id, required_quantity) values (?, ?, ?)";
+    private static final String REMOVE_RAW_MATERIAL = "delete from product_requirement where raw_material_id = ?";
+
+    @Inject
+    DataSource dataSource;
+
+    /**
+     * Serializes changes to the bill of materials until the transaction
+     * ends. Call it before reading or locking anything else.
+     */
+    public void lockForChanges() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(LOCK);
+        } catch (SQLException e) {
+            throw failure(e);
+        }
+    }
+
+    /**
+     * The product and every product that contains it at some level. Read it
+     * before deleting the product, which takes its components with it, and
+     * {@link #refresh} the result afterwards.
+     */
+    public Set<Long> assemblies(long productId) {
+        try (Connection connection = dataSource.getConnection()) {
+            Set<Long> assemblies = new HashSet<>();
+            for (long id : assemblies(connection, List.of(productId))) {
+                assemblies.add(id);
+            }
+            return assemblies;
+        } catch (SQLException e) {
+            throw failure(e);
+        }
+    }
+
+    /**
+     * Recomputes the products and every product that contains them. Call it
+     * inside the transaction that changed them, after {@link #lockForChanges}
+     * and with the change flushed.
+     *
+     * @return how many products were recomputed
+     */
+    public int refresh(Collection<Long> productIds) {
+        try (Connection connection = dataSource.getConnection()) {
+            return refresh(connection, productIds);
+        } catch (SQLException e) {
+            throw failure(e);
+        }
+    }
+
+    /**
+     * Removes a raw material from every product; call it after
+     * {@link #lockForChanges} in the transaction that deletes it.
+     */
+    public void removeRawMaterial(long rawMaterialId) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(REMOVE_RAW_MATERIAL)) {
+            statement.setLong(1, rawMaterialId);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw failure(e);
+        }
+    }
+
+    /**
+     * {@link #refresh(Collection)} on a connection the caller manages, which
+     * must already hold {@link #LOCK}.
+     */
+    static int refresh(Connection connection, Collection<Long> productIds) throws SQLException {
+        if (productIds.isEmpty()) {
+            return 0;
+        }
+        long[] affected = assemblies(connection, productIds);
+        Object[] affectedIds = Arrays.stream(affected).boxed().toArray();
+        Arrays.sort(affected);
+
+        BomGraph.Builder graph = BomGraph.builder();
+        try (PreparedStatement statement = connection.prepareStatement(DIRECT_REQUIREMENTS)) {
+            statement.setArray(1, connection.createArrayOf("bigint", affectedIds));
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    graph.requirement(result.getLong(1), result.getLong(2), result.getInt(3));
+                }
+            }
+        }
+        // Components outside the refreshed part are up to date; their flattened rows stand in for their subtree
+        Set<Long> unchanged = new HashSet<>();
+        try (PreparedStatement statement = connection.prepareStatement(COMPONENTS)) {
+            statement.setArray(1, connection.createArrayOf("bigint", affectedIds));
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    long component = result.getLong(2);
+                    graph.component(result.getLong(1), component, result.getInt(3));
+                    if (Arrays.binarySearch(affected, component) < 0) {
+                        unchanged.add(component);
+                    }
+                }
+            }
+        }
+        if (!unchanged.isEmpty()) {
+            try (PreparedStatement statement = connection.prepareStatement(FLATTENED)) {
+                statement.setArray(1, connection.createArrayOf("bigint", unchanged.toArray()));
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        graph.requirement(result.getLong(1), result.getLong(2), result.getInt(3));
+                    }
+                }
+            }
+        }
+        BomGraph bom = graph.build();
+
+        try (PreparedStatement statement = connection.prepareStatement(DELETE)) {
+            statement.setArray(1, connection.createArrayOf("bigint", affectedIds));
+            statement.executeUpdate();
+        }
+        try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+            for (long productId : affected) {
+                BomGraph.Requirements requirements = bom.explode(productId);
+                for (int i = 0; i < requirements.size(); i++) {
+                    statement.setLong(1, productId);
+                    statement.setLong(2, requirements.rawMaterialId(i));
+                    statement.setInt(3, (int) Math.min(requirements.quantity(i), Integer.MAX_VALUE));
+                    statement.addBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+        return affected.length;
+    }
+
+    private static long[] assemblies(Connection connection, Collection<Long> productIds) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(ASSEMBLIES)) {
+            statement.setArray(1, connection.createArrayOf("bigint", productIds.toArray()));
+            try (ResultSet result = statement.executeQuery()) {
+                long[] ids = new long[16];
+                int count = 0;
+                while (result.next()) {
+                    if (count == ids.length) {
+                        ids = Arrays.copyOf(ids, count * 2);
+                    }
+                    ids[count++] = result.getLong(1);
+                }
+                return Arrays.copyOf(ids, count);
+            }
+        }
+    }
+
+    private static IllegalStateException failure(SQLException e) {
+        return new IllegalStateException("Could not refresh the flattened bill of materials: " + e.getMessage(), e);
+    }
+}
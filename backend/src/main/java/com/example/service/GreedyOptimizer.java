@@ -0,0 +1,23 @@
+package com.example.service;
+
+/**
+ * Original suggestion algorithm: visits products by descending price and
+ * takes the maximum quantity the remaining stock allows.
+ *
+ * Fast and predictable, but suboptimal when an expensive product consumes
+ * a raw material that several cheaper products could use better.
+ */
+public class GreedyOptimizer implements ProductionOptimizer {
+
+    public static final String NAME = "greedy";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public ProductionPlan optimize(OptimizationModel model) {
+        return model.greedy(NAME);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.service;
+
+import java.util.List;
+
+/**
+ * What a bulk import creates or updates, with the columns each row must provide.
+ */
+public enum ImportKind {
+    PRODUCTS("products", List.of("code", "name", "price")),
+    RAW_MATERIALS("raw-materials", List.of("code", "name", "stockQuantity")),
+    BOM("products-raw-materials", List.of("productCode", "rawMaterialCode", "requiredQuantity"));
+
+    private final String path;
+    private final List<String> requiredColumns;
+
+    ImportKind(String path, List<String> requiredColumns) {
+        this.path = path;
+        this.requiredColumns = requiredColumns;
+    }
+
+    public String getPath() { return path; }
+    public List<String> getRequiredColumns() { return requiredColumns; }
+
+    /**
+     * @throws IllegalArgumentException when no kind is imported under the given path
+     */
+    public static ImportKind fromPath(String path) {
+        for (ImportKind kind : values()) {
+            if (kind.path.equals(path)) {
+                return kind;
+            }
+        }
+        throw new IllegalArgumentException("Unknown import: " + path + ". Available: products, raw-materials, products-raw-materials");
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * Turns NDJSON or CSV text into {@link ImportRow}s, one line at a time.
+ *
+ * Blank lines are skipped. A line that does not parse becomes an invalid row
+ * instead of stopping the import. CSV needs a header line naming the columns;
+ * quoted fields may contain commas and doubled quotes but not line breaks.
+ */
+public final class ImportReader {
+
+    private ImportReader() {
+    }
+
+    public static Iterator<ImportRow> ndjson(BufferedReader reader, ObjectMapper objectMapper) {
+        return new LineIterator(reader) {
+            @Override
+            ImportRow parse(long line, String text) {
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(text);
+                } catch (IOException e) {
+                    return ImportRow.invalid(line, "Malformed JSON");
+                }
+                if (!node.isObject()) {
+                    return ImportRow.invalid(line, "Expected a JSON object");
+                }
+                Map<String, String> values = new HashMap<>();
+                node.fields().forEachRemaining(field -> {
+                    if (!field.getValue().isNull()) {
+                        values.put(field.getKey(), field.getValue().asText());
+                    }
+                });
+                return ImportRow.of(line, values);
+            }
+        };
+    }
+
+    public static Iterator<ImportRow> csv(BufferedReader reader) {
+        return new LineIterator(reader) {
+            private List<String> header;
+
+            @Override
+            ImportRow parse(long line, String text) {
+                List<String> fields = splitCsv(text);
+                if (fields == null) {
+                    return ImportRow.invalid(line, "Unterminated quoted field");
+                }
+                if (header == null) {
+                    header = new ArrayList<>();
+                    fields.forEach(name -> header.add(name.trim()));
+                    return null;
+                }
+                if (fields.size() != header.size()) {
+                    return ImportRow.invalid(line, "Expected " + header.size() + " columns but found " + fields.size());
+                }
+                Map<String, String> values = new HashMap<>();
+                for (int i = 0; i < fields.size(); i++) {
+                    if (!fields.get(i).isEmpty()) {
+                        values.put(header.get(i), fields.get(i));
+                    }
+                }
+                return ImportRow.of(line, values);
+            }
+        };
+    }
+
+    /**
+     * @return the fields of one CSV line, or {@code null} when a quote is left open
+     */
+    static List<String> splitCsv(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private abstract static class LineIterator implements Iterator<ImportRow> {
+        private final BufferedReader reader;
+        private long line;
+        private ImportRow next;
+
+        LineIterator(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * @return the row, or {@code null} for a line that carries no data
+         */
+        abstract ImportRow parse(long line, String text);
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null) {
+                    String text = reader.readLine();
+                    if (text == null) {
+                        return false;
+                    }
+                    line++;
+                    if (!text.isBlank()) {
+                        next = parse(line, text);
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public ImportRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ImportRow row = next;
+            next = null;
+            return row;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.service;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: how many rows were read and written, and why
+ * the others were rejected. Only the first {@value #MAX_ERRORS} errors are kept.
+ */
+@RegisterForReflection
+public final class ImportReport {
+
+    public static final int MAX_ERRORS = 1000;
+
+    private long processed;
+    private long imported;
+    private long failed;
+    private final List<Error> errors = new ArrayList<>();
+
+    void processed() {
+        processed++;
+    }
+
+    void imported(long rows) {
+        imported += rows;
+    }
+
+    void failed(long line, String message) {
+        failed++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new Error(line, message));
+        }
+    }
+
+    public long getProcessed() { return processed; }
+    public long getImported() { return imported; }
+    public long getFailed() { return failed; }
+    public List<Error> getErrors() { return Collections.unmodifiableList(errors); }
+
+    /**
+     * Why one input line was rejected.
+     */
+    public static final class Error {
+        private final long line;
+        private final String error;
+
+        Error(long line, String error) {
+            this.line = line;
+            this.error = error;
+        }
+
+        public long getLine() { return line; }
+        public String getError() { return error; }
+    }
+}
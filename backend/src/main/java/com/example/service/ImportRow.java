@@ -0,0 +1,35 @@
+package com.example.service;
+
+import java.util.Map;
+
+/**
+ * One input line of a bulk import, as column name to raw text, or the
+ * reason it could not be parsed.
+ */
+public final class ImportRow {
+
+    private final long line;
+    private final Map<String, String> values;
+    private final String error;
+
+    private ImportRow(long line, Map<String, String> values, String error) {
+        this.line = line;
+        this.values = values;
+        this.error = error;
+    }
+
+    public static ImportRow of(long line, Map<String, String> values) {
+        return new ImportRow(line, values, null);
+    }
+
+    public static ImportRow invalid(long line, String error) {
+        return new ImportRow(line, Map.of(), error);
+    }
+
+    public long getLine() { return line; }
+    public String getError() { return error; }
+
+    public String get(String column) {
+        return values.get(column);
+    }
+}
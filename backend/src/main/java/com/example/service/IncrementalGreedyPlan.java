@@ -0,0 +1,164 @@
+package com.example.service;
+
+import java.util.BitSet;
+import java.util.Map;
+
+/**
+ * Greedy plan that can be repaired in place when raw material stock changes.
+ *
+ * Keeps a reverse index from each raw material to the positions, in price
+ * order, of the products that require it, together with suffix sums of what
+ * those products consume. The remaining stock of any material before any
+ * position can then be looked up without replaying the plan.
+ *
+ * A stock change only re-evaluates products reachable from the changed
+ * materials: walking in price order, a product is visited only if one of its
+ * materials now has a different remaining quantity than in the previous plan,
+ * and a product whose quantity changes marks its own materials in turn.
+ * Products that are not visited keep their quantity.
+ *
+ * Not thread-safe; callers serialize access.
+ */
+final class IncrementalGreedyPlan {
+
+    private OptimizationModel model;
+    private final int[] useStart;
+    private final int[] usePosition;
+    private final int[] useRow;
+    private final long[] useSuffix;
+    private final int[] quantity;
+    private final int[] remaining;
+    private long totalMinor;
+
+    IncrementalGreedyPlan(OptimizationModel model) {
+        this.model = model;
+        int products = model.products();
+        int materials = model.materials();
+
+        useStart = new int[materials + 1];
+        for (int r = 0; r < model.material.length; r++) {
+            useStart[model.material[r] + 1]++;
+        }
+        for (int m = 0; m < materials; m++) {
+            useStart[m + 1] += useStart[m];
+        }
+        usePosition = new int[model.material.length];
+        useRow = new int[model.material.length];
+        int[] fill = useStart.clone();
+        for (int pos = 0; pos < products; pos++) {
+            int p = model.priceOrder[pos];
+            for (int r = model.rowStart[p]; r < model.rowStart[p + 1]; r++) {
+                int e = fill[model.material[r]]++;
+                usePosition[e] = pos;
+                useRow[e] = r;
+            }
+        }
+
+        quantity = new int[products];
+        remaining = model.stock.clone();
+        totalMinor = model.fill(model.priceOrder, true, remaining, quantity);
+        useSuffix = new long[model.material.length];
+        for (int m = 0; m < materials; m++) {
+            refreshSuffix(m);
+        }
+    }
+
+    OptimizationModel model() {
+        return model;
+    }
+
+    ProductionPlan toPlan(String strategy) {
+        return model.toPlan(strategy, quantity, totalMinor, false);
+    }
+
+    /**
+     * Applies new absolute stock quantities and repairs the plan.
+     *
+     * @return number of products whose quantity was re-evaluated
+     */
+    int applyStock(Map<Long, Integer> stockByRawMaterialId) {
+        OptimizationModel updated = model.withStock(stockByRawMaterialId);
+        int materials = model.materials();
+        long[] delta = new long[materials];
+        BitSet dirty = new BitSet(materials);
+        BitSet pending = new BitSet(model.products());
+        for (int m = 0; m < materials; m++) {
+            if (updated.stock[m] != model.stock[m]) {
+                delta[m] = updated.stock[m] - model.stock[m];
+                markDirty(m, -1, dirty, pending);
+            }
+        }
+        model = updated;
+
+        int touched = 0;
+        for (int pos = pending.nextSetBit(0); pos >= 0; pos = pending.nextSetBit(pos + 1)) {
+            int p = model.priceOrder[pos];
+            touched++;
+            long best = Integer.MAX_VALUE;
+            for (int r = model.rowStart[p]; r < model.rowStart[p + 1]; r++) {
+                int m = model.material[r];
+                long available = remainingBefore(m, pos) + delta[m];
+                best = Math.min(best, available / model.required[r]);
+            }
+            int newQuantity = (int) best;
+            int change = newQuantity - quantity[p];
+            if (change == 0) {
+                continue;
+            }
+            for (int r = model.rowStart[p]; r < model.rowStart[p + 1]; r++) {
+                int m = model.material[r];
+                delta[m] -= (long) model.required[r] * change;
+                markDirty(m, pos, dirty, pending);
+            }
+            quantity[p] = newQuantity;
+            totalMinor = Math.addExact(totalMinor, Math.multiplyExact(model.priceMinor[p], (long) change));
+        }
+
+        for (int m = dirty.nextSetBit(0); m >= 0; m = dirty.nextSetBit(m + 1)) {
+            remaining[m] += (int) delta[m];
+            refreshSuffix(m);
+        }
+        return touched;
+    }
+
+    /**
+     * Remaining stock of a material right before the product at {@code pos}
+     * in the current plan: final remainder plus what products from {@code pos}
+     * onwards consume.
+     */
+    private long remainingBefore(int m, int pos) {
+        int low = useStart[m];
+        int high = useStart[m + 1];
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (usePosition[mid] < pos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return remaining[m] + (low < useStart[m + 1] ? useSuffix[low] : 0);
+    }
+
+    private void markDirty(int m, int afterPosition, BitSet dirty, BitSet pending) {
+        if (dirty.get(m)) {
+            return;
+        }
+        dirty.set(m);
+        for (int e = useStart[m]; e < useStart[m + 1]; e++) {
+            if (usePosition[e] > afterPosition) {
+                pending.set(usePosition[e]);
+            }
+        }
+    }
+
+    private void refreshSuffix(int m) {
+        long sum = 0;
+        for (int e = useStart[m + 1] - 1; e >= useStart[m]; e--) {
+            int r = useRow[e];
+            int p = model.priceOrder[usePosition[e]];
+            sum += (long) model.required[r] * quantity[p];
+            useSuffix[e] = sum;
+        }
+    }
+}
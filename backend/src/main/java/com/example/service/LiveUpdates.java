@@ -0,0 +1,469 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Pushes stock and production suggestion changes to connected clients.
+ *
+ * Every {@link CatalogChanged} is appended, once its transaction commits, to
+ * a ring holding the last {@code live.buffer} changes in order. One thread
+ * wakes every {@code live.interval}, brings the greedy suggestion up to date
+ * when the catalog moved and records which lines changed, then sends every
+ * subscriber a single {@link Update} with all changes after its position:
+ * the current stock of each raw material that moved, read once per round
+ * from {@link StockMovements} because events of concurrent writers arrive
+ * in any order, and the latest line of each product. Subscribers at the
+ * same position share one update, which is encoded once.
+ *
+ * A subscriber holds its position and at most one update being written. One
+ * still writing the previous update is skipped and gets the merged changes
+ * on a later tick; one that falls behind the whole ring, or resumes from an
+ * id this process did not hand out, is sent {@code resync} and reloads. What
+ * a subscriber costs does not depend on how fast the catalog changes or how
+ * slowly it reads. At most {@code live.max-subscribers} are accepted.
+ *
+ * Each round reads every subscriber's position once, so one whose send
+ * completes or that connects while the round runs waits for the next.
+ */
+@ApplicationScoped
+public class LiveUpdates {
+
+    private static final Logger LOG = Logger.getLogger(LiveUpdates.class);
+
+    private static final long RESYNC = -1;
+    private static final Update HEARTBEAT = new Update(null, null, Map.of(), false, null);
+
+    /**
+     * Writes updates to one client.
+     */
+    public interface Sink {
+
+        /**
+         * Completes once the update is written and fails when the client is
+         * gone. May block until the client reads.
+         */
+        CompletionStage<?> send(Update update);
+
+        boolean isClosed();
+
+        void close();
+    }
+
+    @Inject
+    ProductionPlanner planner;
+
+    @Inject
+    StockMovements stockMovements;
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "live.interval", defaultValue = "250ms")
+    Duration interval;
+
+    @ConfigProperty(name = "live.buffer", defaultValue = "4096")
+    int bufferSize;
+
+    @ConfigProperty(name = "live.heartbeat", defaultValue = "15s")
+    Duration heartbeat;
+
+    @ConfigProperty(name = "live.max-subscribers", defaultValue = "20000")
+    int maxSubscribers;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connected = new AtomicInteger();
+
+    /** Guarded by this. */
+    private Change[] ring;
+    private long head;
+
+    /** Used by the ticker thread only. */
+    private SuggestionSnapshot published;
+    private long publishedFrom;
+
+    private ScheduledExecutorService ticker;
+    private ExecutorService senders;
+
+    @PostConstruct
+    void init() {
+        ring = new Change[Math.max(1, bufferSize)];
+        registry.gaugeCollectionSize("live.updates.subscribers", Tags.empty(), subscribers);
+        // Sends can block on a slow client, so each one gets its own virtual thread
+        senders = Executors.newVirtualThreadPerTaskExecutor();
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "live-updates");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = Math.max(1, interval.toMillis());
+        ticker.scheduleWithFixedDelay(() -> {
+            try {
+                tick();
+            } catch (Exception e) {
+                LOG.warn("Live update round failed, retrying on the next interval", e);
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ticker.shutdownNow();
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            drop(subscriber);
+        }
+    }
+
+    /**
+     * Starts sending updates to a client, from after {@code lastEventId}
+     * when it is still in the ring, otherwise from a {@code resync}.
+     *
+     * @return false when {@code live.max-subscribers} are already connected
+     */
+    public boolean subscribe(Sink sink, String lastEventId) {
+        int current;
+        do {
+            current = connected.get();
+            if (current >= maxSubscribers) {
+                return false;
+            }
+        } while (!connected.compareAndSet(current, current + 1));
+        subscribers.add(new Subscriber(sink, position(lastEventId)));
+        return true;
+    }
+
+    public int subscribers() {
+        return subscribers.size();
+    }
+
+    void onCatalogChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) CatalogChanged event) {
+        if (event instanceof StockChanged) {
+            append(new Change(((StockChanged) event).getRawMaterialId(), false, null));
+        } else {
+            append(new Change(0, true, null));
+        }
+    }
+
+    private synchronized void append(Change change) {
+        change.sequence = ++head;
+        ring[(int) (head % ring.length)] = change;
+    }
+
+    private long position(String lastEventId) {
+        if (lastEventId == null || !lastEventId.startsWith(epoch + "-")) {
+            return RESYNC;
+        }
+        long sequence;
+        try {
+            sequence = Long.parseLong(lastEventId.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return RESYNC;
+        }
+        synchronized (this) {
+            return sequence >= 0 && sequence <= head ? sequence : RESYNC;
+        }
+    }
+
+    void tick() {
+        if (subscribers.isEmpty()) {
+            published = null;
+            return;
+        }
+        publishSuggestion();
+
+        // Positions move when sends complete, so both the window and the updates use this one reading
+        Map<Subscriber, Long> ready = new HashMap<>();
+        long from = Long.MAX_VALUE;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.sink.isClosed()) {
+                drop(subscriber);
+            } else if (!subscriber.busy) {
+                long position = subscriber.position;
+                ready.put(subscriber, position);
+                if (position >= 0) {
+                    from = Math.min(from, position);
+                }
+            }
+        }
+        long last;
+        long oldest;
+        List<Change> window = new ArrayList<>();
+        synchronized (this) {
+            last = head;
+            oldest = Math.max(1, head - ring.length + 1);
+            for (long sequence = Math.max(from == Long.MAX_VALUE ? last : from, oldest - 1) + 1; sequence <= last; sequence++) {
+                window.add(ring[(int) (sequence % ring.length)]);
+            }
+        }
+        // Suggestion changes are only recorded while someone listens
+        long resyncBelow = Math.max(oldest - 1, publishedFrom);
+        Map<Long, Integer> stock = currentStock(window);
+
+        long now = System.nanoTime();
+        Map<Long, Update> updates = new HashMap<>();
+        for (Map.Entry<Subscriber, Long> entry : ready.entrySet()) {
+            Subscriber subscriber = entry.getKey();
+            long position = entry.getValue();
+            Update update;
+            if (position < resyncBelow) {
+                update = updates.computeIfAbsent(RESYNC, p -> new Update("resync", id(last), Map.of(), false, null));
+            } else if (position < last) {
+                update = updates.computeIfAbsent(position, p -> merge(window, stock, p, last));
+            } else if (now - subscriber.lastSent >= heartbeat.toNanos()) {
+                update = HEARTBEAT;
+            } else {
+                continue;
+            }
+            send(subscriber, update, update == HEARTBEAT ? position : last, now);
+        }
+    }
+
+    /**
+     * Current stock of the raw materials that moved in {@code window}, read
+     * after the window was taken so it is at least as new as every change in
+     * it. Raw materials deleted since are left out.
+     */
+    private Map<Long, Integer> currentStock(List<Change> window) {
+        Set<Long> ids = new HashSet<>();
+        for (Change change : window) {
+            if (change.rawMaterialId != 0) {
+                ids.add(change.rawMaterialId);
+            }
+        }
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return QuarkusTransaction.joiningExisting().call(() -> stockMovements.stock(ids));
+    }
+
+    /**
+     * Records the lines of the greedy suggestion that changed since the last
+     * round. The first round after a quiet spell only takes the suggestion as
+     * the base to compare against.
+     */
+    private void publishSuggestion() {
+        if (published != null && published.getVersion() == planner.version()) {
+            return;
+        }
+        SuggestionSnapshot snapshot = QuarkusTransaction.joiningExisting().call(() -> planner.suggest(GreedyOptimizer.NAME));
+        if (published == null) {
+            synchronized (this) {
+                publishedFrom = head;
+            }
+        } else {
+            ProductionPlan previous = published.getPlan();
+            ProductionPlan plan = snapshot.getPlan();
+            List<ProductionPlan.Line> lines = changedLines(previous, plan);
+            if (!lines.isEmpty() || previous.getTotalValue().compareTo(plan.getTotalValue()) != 0) {
+                append(new Change(0, false, new SuggestionChange(lines, plan.getTotalValue(), snapshot.getEtag())));
+            }
+        }
+        published = snapshot;
+    }
+
+    /**
+     * Lines of {@code plan} that differ from {@code previous}, plus a line
+     * with quantity 0 for each product that left the plan.
+     */
+    private static List<ProductionPlan.Line> changedLines(ProductionPlan previous, ProductionPlan plan) {
+        Map<Long, ProductionPlan.Line> before = new HashMap<>();
+        for (ProductionPlan.Line line : previous.getLines()) {
+            before.put(line.getProduct().getId(), line);
+        }
+        List<ProductionPlan.Line> changed = new ArrayList<>();
+        for (ProductionPlan.Line line : plan.getLines()) {
+            ProductionPlan.Line old = before.remove(line.getProduct().getId());
+            if (old == null || old.getQuantity() != line.getQuantity() || !sameProduct(old, line)) {
+                changed.add(line);
+            }
+        }
+        for (ProductionPlan.Line removed : before.values()) {
+            changed.add(new ProductionPlan.Line(removed.getProduct(), 0));
+        }
+        return changed;
+    }
+
+    private static boolean sameProduct(ProductionPlan.Line a, ProductionPlan.Line b) {
+        return Objects.equals(a.getProduct().getCode(), b.getProduct().getCode())
+            && Objects.equals(a.getProduct().getName(), b.getProduct().getName())
+            && Objects.equals(a.getProduct().getPrice(), b.getProduct().getPrice());
+    }
+
+    /**
+     * The changes after {@code position} up to {@code last}, with the
+     * current stock of each raw material and the newest line of each product.
+     */
+    private Update merge(List<Change> window, Map<Long, Integer> current, long position, long last) {
+        Map<Long, Integer> stock = new LinkedHashMap<>();
+        Map<Long, ProductionPlan.Line> lines = new LinkedHashMap<>();
+        boolean catalogChanged = false;
+        SuggestionChange suggestion = null;
+        for (Change change : window) {
+            if (change.sequence <= position) {
+                continue;
+            }
+            if (change.suggestion != null) {
+                for (ProductionPlan.Line line : change.suggestion.lines) {
+                    lines.put(line.getProduct().getId(), line);
+                }
+                suggestion = change.suggestion;
+            } else if (change.catalog) {
+                catalogChanged = true;
+            } else if (current.containsKey(change.rawMaterialId)) {
+                stock.put(change.rawMaterialId, current.get(change.rawMaterialId));
+            }
+        }
+        SuggestionChange merged = suggestion == null ? null
+            : new SuggestionChange(new ArrayList<>(lines.values()), suggestion.totalValue, suggestion.etag);
+        return new Update("changes", id(last), stock, catalogChanged, merged);
+    }
+
+    private String id(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    private void send(Subscriber subscriber, Update update, long position, long now) {
+        subscriber.busy = true;
+        subscriber.position = position;
+        subscriber.lastSent = now;
+        senders.execute(() -> {
+            try {
+                subscriber.sink.send(update).whenComplete((ignored, failure) -> {
+                    if (failure == null) {
+                        subscriber.busy = false;
+                    } else {
+                        drop(subscriber);
+                    }
+                });
+            } catch (RuntimeException e) {
+                drop(subscriber);
+            }
+        });
+    }
+
+    private void drop(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            connected.decrementAndGet();
+        }
+        try {
+            subscriber.sink.close();
+        } catch (RuntimeException e) {
+            LOG.debugf("Closing a live update stream failed: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Everything one client gets in a round. A heartbeat has no event name.
+     */
+    public static final class Update {
+        private final String event;
+        private final String id;
+        private final Map<Long, Integer> stock;
+        private final boolean catalogChanged;
+        private final SuggestionChange suggestion;
+        private volatile String encoded;
+
+        private Update(String event, String id, Map<Long, Integer> stock, boolean catalogChanged, SuggestionChange suggestion) {
+            this.event = event;
+            this.id = id;
+            this.stock = Collections.unmodifiableMap(stock);
+            this.catalogChanged = catalogChanged;
+            this.suggestion = suggestion;
+        }
+
+        /** {@code changes}, {@code resync}, or null for a heartbeat. */
+        public String getEvent() { return event; }
+        /** Send it back as {@code Last-Event-ID} to resume after this update. */
+        public String getId() { return id; }
+        /** Current stock by raw material id, for those that moved. */
+        public Map<Long, Integer> getStock() { return stock; }
+        /** Something other than stock changed; reload the catalog. */
+        public boolean isCatalogChanged() { return catalogChanged; }
+        /** Changed suggestion lines, or null when the suggestion did not change. */
+        public List<ProductionPlan.Line> getSuggestionLines() { return suggestion == null ? null : suggestion.lines; }
+        public BigDecimal getSuggestionTotalValue() { return suggestion == null ? null : suggestion.totalValue; }
+        public String getSuggestionEtag() { return suggestion == null ? null : suggestion.etag; }
+
+        /**
+         * The update encoded by {@code encoder}, computed once for all the
+         * subscribers it goes to.
+         */
+        public String encoded(Function<Update, String> encoder) {
+            String value = encoded;
+            if (value == null) {
+                value = encoder.apply(this);
+                encoded = value;
+            }
+            return value;
+        }
+    }
+
+    private static final class SuggestionChange {
+        final List<ProductionPlan.Line> lines;
+        final BigDecimal totalValue;
+        final String etag;
+
+        SuggestionChange(List<ProductionPlan.Line> lines, BigDecimal totalValue, String etag) {
+            this.lines = Collections.unmodifiableList(lines);
+            this.totalValue = totalValue;
+            this.etag = etag;
+        }
+    }
+
+    private static final class Change {
+        long sequence;
+        final long rawMaterialId;
+        final boolean catalog;
+        final SuggestionChange suggestion;
+
+        Change(long rawMaterialId, boolean catalog, SuggestionChange suggestion) {
+            this.rawMaterialId = rawMaterialId;
+            this.catalog = catalog;
+            this.suggestion = suggestion;
+        }
+    }
+
+    private static final class Subscriber {
+        final Sink sink;
+        volatile long position;
+        volatile boolean busy;
+        long lastSent;
+
+        Subscriber(Sink sink, long position) {
+            this.sink = sink;
+            this.position = position;
+            this.lastSent = System.nanoTime();
+        }
+    }
+}
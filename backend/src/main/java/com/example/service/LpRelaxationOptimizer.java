@@ -0,0 +1,58 @@
+package com.example.service;
+
+/**
+ * Heuristic guided by the LP relaxation of the production problem.
+ *
+ * Raw materials are priced with the shadow prices of the relaxation's
+ * Lagrangian dual and products are filled in order of sale value per unit
+ * of priced material. The greedy plan is kept when it happens to be better,
+ * so this strategy never returns less than the greedy pass.
+ */
+public class LpRelaxationOptimizer implements ProductionOptimizer {
+
+    public static final String NAME = "lp";
+
+    static final int RELAXATION_ITERATIONS = 200;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public ProductionPlan optimize(OptimizationModel model) {
+        Incumbent incumbent = Incumbent.of(model);
+        return model.toPlan(NAME, incumbent.quantity, incumbent.value >= incumbent.relaxation.upperBound - tolerance(incumbent.value));
+    }
+
+    static double tolerance(double value) {
+        return 1e-9 * Math.max(1, Math.abs(value));
+    }
+
+    /**
+     * Best of the greedy and the shadow-priced plans, with the relaxation used to build it.
+     */
+    static final class Incumbent {
+        final int[] quantity;
+        final double value;
+        final OptimizationModel.Relaxation relaxation;
+
+        private Incumbent(int[] quantity, double value, OptimizationModel.Relaxation relaxation) {
+            this.quantity = quantity;
+            this.value = value;
+            this.relaxation = relaxation;
+        }
+
+        static Incumbent of(OptimizationModel model) {
+            int[] greedy = model.fill(model.priceOrder);
+            double greedyValue = model.value(greedy);
+            OptimizationModel.Relaxation relaxation = model.relax(greedyValue, RELAXATION_ITERATIONS);
+            int[] priced = model.fill(model.pricedOrder(relaxation.shadowPrice));
+            double pricedValue = model.value(priced);
+            if (pricedValue > greedyValue) {
+                return new Incumbent(priced, pricedValue, relaxation);
+            }
+            return new Incumbent(greedy, greedyValue, relaxation);
+        }
+    }
+}
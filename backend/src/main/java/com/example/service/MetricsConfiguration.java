@@ -0,0 +1,46 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import java.time.Duration;
+
+/**
+ * Publishes latency histograms for every endpoint and for the suggestion
+ * phases, so percentiles can be aggregated across instances at query time.
+ *
+ * Buckets are bounded to the range each timer can realistically see, which
+ * keeps every histogram to a few dozen series and recording to a bucket
+ * lookup plus an atomic add.
+ */
+@Singleton
+public class MetricsConfiguration {
+
+    @Produces
+    @Singleton
+    public MeterFilter histograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getName().equals("http.server.requests")) {
+                    return histogram(Duration.ofMillis(1), Duration.ofSeconds(30)).merge(config);
+                }
+                if (id.getName().equals("production.suggestion.phase")) {
+                    return histogram(Duration.ofNanos(10_000), Duration.ofSeconds(30)).merge(config);
+                }
+                return config;
+            }
+        };
+    }
+
+    private static DistributionStatisticConfig histogram(Duration min, Duration max) {
+        return DistributionStatisticConfig.builder()
+            .percentilesHistogram(true)
+            .minimumExpectedValue((double) min.toNanos())
+            .maximumExpectedValue((double) max.toNanos())
+            .build();
+    }
+}
@@ -0,0 +1,401 @@
+package com.example.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+
+/**
+ * Bill of materials compiled into dense primitive arrays.
+ *
+ * Products and raw materials are remapped to contiguous indexes; the
+ * requirements of product {@code p} live in {@code material[rowStart[p]..rowStart[p + 1])}
+ * and {@code required[...]}, with duplicate rows for the same raw material merged.
+ * Prices are kept as {@code long} minor units at a common scale so the
+ * suggestion loops never allocate; {@link BigDecimal} only comes back when
+ * the plan is built.
+ */
+public final class OptimizationModel {
+
+    private static final int MAX_PRICE_SCALE = 6;
+
+    final BillOfMaterials.Item[] items;
+    final long[] priceMinor;
+    final int priceScale;
+    final double[] price;
+    final int[] rowStart;
+    final int[] material;
+    final int[] required;
+    final int[] stock;
+    final int[] priceOrder;
+    private final Map<Long, Integer> materialIndex;
+    private int[] upperBound;
+
+    private OptimizationModel(BillOfMaterials.Item[] items, int[] rowStart, int[] material, int[] required,
+                              int[] stock, Map<Long, Integer> materialIndex) {
+        this.items = items;
+        this.rowStart = rowStart;
+        this.material = material;
+        this.required = required;
+        this.stock = stock;
+        this.materialIndex = materialIndex;
+
+        int scale = 0;
+        for (BillOfMaterials.Item item : items) {
+            scale = Math.max(scale, Math.min(MAX_PRICE_SCALE, item.getProduct().getPrice().scale()));
+        }
+        this.priceScale = scale;
+        this.priceMinor = new long[items.length];
+        this.price = new double[items.length];
+        for (int p = 0; p < items.length; p++) {
+            priceMinor[p] = items[p].getProduct().getPrice().setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            price[p] = items[p].getProduct().getPrice().doubleValue();
+        }
+        this.priceOrder = sortedIndexes(Comparator.comparingLong((Integer p) -> priceMinor[p]).reversed());
+    }
+
+    /**
+     * Same products and requirements with a different stock vector.
+     */
+    private OptimizationModel(OptimizationModel source, int[] stock) {
+        this.items = source.items;
+        this.priceMinor = source.priceMinor;
+        this.priceScale = source.priceScale;
+        this.price = source.price;
+        this.rowStart = source.rowStart;
+        this.material = source.material;
+        this.required = source.required;
+        this.priceOrder = source.priceOrder;
+        this.materialIndex = source.materialIndex;
+        this.stock = stock;
+    }
+
+    public static OptimizationModel of(BillOfMaterials bom) {
+        Map<Long, Integer> materialIndex = new HashMap<>();
+        List<BillOfMaterials.Item> kept = new ArrayList<>();
+        List<int[]> rows = new ArrayList<>();
+        int nonZeros = 0;
+        for (BillOfMaterials.Item item : bom.getItems()) {
+            Map<Integer, Integer> merged = new LinkedHashMap<>();
+            for (BillOfMaterials.Requirement requirement : item.getRequirements()) {
+                if (requirement.getRequiredQuantity() <= 0) {
+                    continue;
+                }
+                int index = materialIndex.computeIfAbsent(requirement.getRawMaterialId(), id -> materialIndex.size());
+                merged.merge(index, requirement.getRequiredQuantity(), Integer::sum);
+            }
+            if (merged.isEmpty()) {
+                continue;
+            }
+            int[] row = new int[merged.size() * 2];
+            int r = 0;
+            for (Map.Entry<Integer, Integer> entry : merged.entrySet()) {
+                row[r++] = entry.getKey();
+                row[r++] = entry.getValue();
+            }
+            kept.add(item);
+            rows.add(row);
+            nonZeros += merged.size();
+        }
+
+        int products = kept.size();
+        int[] rowStart = new int[products + 1];
+        int[] material = new int[nonZeros];
+        int[] required = new int[nonZeros];
+        int offset = 0;
+        for (int p = 0; p < products; p++) {
+            rowStart[p] = offset;
+            int[] row = rows.get(p);
+            for (int r = 0; r < row.length; r += 2) {
+                material[offset] = row[r];
+                required[offset] = row[r + 1];
+                offset++;
+            }
+        }
+        rowStart[products] = offset;
+
+        int[] stock = new int[materialIndex.size()];
+        for (Map.Entry<Long, Integer> entry : materialIndex.entrySet()) {
+            stock[entry.getValue()] = Math.max(0, bom.getStock().getOrDefault(entry.getKey(), 0));
+        }
+        return new OptimizationModel(kept.toArray(new BillOfMaterials.Item[0]), rowStart, material, required, stock, materialIndex);
+    }
+
+    public int products() {
+        return items.length;
+    }
+
+    int materials() {
+        return stock.length;
+    }
+
+    /**
+     * Index of a raw material, or -1 when no product requires it.
+     */
+    int materialIndex(long rawMaterialId) {
+        return materialIndex.getOrDefault(rawMaterialId, -1);
+    }
+
+    /**
+     * Copy sharing every array except the stock, with the given raw materials
+     * set to new absolute quantities. Raw materials no product requires are ignored.
+     */
+    OptimizationModel withStock(Map<Long, Integer> stockByRawMaterialId) {
+        int[] updated = stock.clone();
+        for (Map.Entry<Long, Integer> entry : stockByRawMaterialId.entrySet()) {
+            int index = materialIndex(entry.getKey());
+            if (index >= 0) {
+                updated[index] = Math.max(0, entry.getValue());
+            }
+        }
+        return new OptimizationModel(this, updated);
+    }
+
+    /**
+     * Copy sharing every array except the stock, with the given quantities
+     * added to the raw materials. Stock never drops below zero.
+     */
+    OptimizationModel withStockDelta(Map<Long, Integer> deltaByRawMaterialId) {
+        int[] updated = stock.clone();
+        for (Map.Entry<Long, Integer> entry : deltaByRawMaterialId.entrySet()) {
+            int index = materialIndex(entry.getKey());
+            if (index >= 0 && entry.getValue() != null) {
+                long quantity = (long) updated[index] + entry.getValue();
+                updated[index] = (int) Math.max(0, Math.min(Integer.MAX_VALUE, quantity));
+            }
+        }
+        return new OptimizationModel(this, updated);
+    }
+
+    /**
+     * Largest quantity of each product the full stock allows, zero for
+     * products that do not add value. Computed on first use.
+     */
+    synchronized int[] upperBound() {
+        if (upperBound == null) {
+            int[] bounds = new int[items.length];
+            for (int p = 0; p < bounds.length; p++) {
+                bounds[p] = price[p] > 0 ? maxFeasible(p, stock) : 0;
+            }
+            upperBound = bounds;
+        }
+        return upperBound;
+    }
+
+    int maxFeasible(int product, int[] remaining) {
+        int max = Integer.MAX_VALUE;
+        for (int r = rowStart[product]; r < rowStart[product + 1]; r++) {
+            int possible = remaining[material[r]] / required[r];
+            if (possible < max) {
+                max = possible;
+            }
+        }
+        return max;
+    }
+
+    void consume(int product, int quantity, int[] remaining) {
+        for (int r = rowStart[product]; r < rowStart[product + 1]; r++) {
+            remaining[material[r]] -= required[r] * quantity;
+        }
+    }
+
+    void restore(int product, int quantity, int[] remaining) {
+        for (int r = rowStart[product]; r < rowStart[product + 1]; r++) {
+            remaining[material[r]] += required[r] * quantity;
+        }
+    }
+
+    /**
+     * Visits products in the given order taking the maximum feasible quantity of each.
+     */
+    int[] fill(int[] order) {
+        int[] remaining = stock.clone();
+        int[] quantity = new int[products()];
+        fill(order, false, remaining, quantity);
+        return quantity;
+    }
+
+    /**
+     * Allocation-free greedy pass over caller-provided buffers.
+     *
+     * @param includeNonPositive whether products that do not add value are still produced
+     * @param remaining          stock per raw material index, consumed in place
+     * @param quantity           receives the quantity per product index
+     * @return total value of the plan in minor units
+     */
+    long fill(int[] order, boolean includeNonPositive, int[] remaining, int[] quantity) {
+        long total = 0;
+        for (int o = 0; o < order.length; o++) {
+            int p = order[o];
+            if (!includeNonPositive && priceMinor[p] <= 0) {
+                quantity[p] = 0;
+                continue;
+            }
+            int start = rowStart[p];
+            int end = rowStart[p + 1];
+            int qty = Integer.MAX_VALUE;
+            for (int r = start; r < end; r++) {
+                int possible = remaining[material[r]] / required[r];
+                if (possible < qty) {
+                    qty = possible;
+                }
+            }
+            quantity[p] = qty;
+            if (qty > 0) {
+                for (int r = start; r < end; r++) {
+                    remaining[material[r]] -= required[r] * qty;
+                }
+                total = Math.addExact(total, Math.multiplyExact(priceMinor[p], (long) qty));
+            }
+        }
+        return total;
+    }
+
+    double value(int[] quantity) {
+        double total = 0;
+        for (int p = 0; p < quantity.length; p++) {
+            total += price[p] * quantity[p];
+        }
+        return total;
+    }
+
+    /**
+     * Original greedy suggestion: descending price, maximum quantity each.
+     */
+    ProductionPlan greedy(String strategy) {
+        int[] remaining = stock.clone();
+        int[] quantity = new int[products()];
+        long total = fill(priceOrder, true, remaining, quantity);
+        return toPlan(strategy, quantity, total, false);
+    }
+
+    long valueMinor(int[] quantity) {
+        long total = 0;
+        for (int p = 0; p < quantity.length; p++) {
+            total = Math.addExact(total, Math.multiplyExact(priceMinor[p], (long) quantity[p]));
+        }
+        return total;
+    }
+
+    /**
+     * Orders products by sale price per unit of raw material cost, where each
+     * raw material is valued at its shadow price.
+     */
+    int[] pricedOrder(double[] shadowPrice) {
+        double[] efficiency = new double[products()];
+        for (int p = 0; p < efficiency.length; p++) {
+            double cost = cost(p, shadowPrice);
+            efficiency[p] = cost > 0 ? price[p] / cost : Double.POSITIVE_INFINITY;
+        }
+        return sortedIndexes(Comparator.comparingDouble((Integer p) -> efficiency[p]).reversed()
+                .thenComparing(Comparator.comparingLong((Integer p) -> priceMinor[p]).reversed()));
+    }
+
+    double cost(int product, double[] shadowPrice) {
+        double cost = 0;
+        for (int r = rowStart[product]; r < rowStart[product + 1]; r++) {
+            cost += shadowPrice[material[r]] * required[r];
+        }
+        return cost;
+    }
+
+    /**
+     * Solves the Lagrangian dual of the LP relaxation by projected subgradient
+     * descent. Any non-negative shadow price vector yields a valid upper bound
+     * {@code sum(shadow * stock) + sum(max(0, price - cost) * upperBound)};
+     * the returned vector is the one with the lowest bound found.
+     *
+     * @param lowerBound value of a known feasible plan, used for the step size
+     */
+    Relaxation relax(double lowerBound, int iterations) {
+        int materials = stock.length;
+        double[] shadow = new double[materials];
+        double[] best = shadow.clone();
+        double bestBound = Double.POSITIVE_INFINITY;
+        double[] gradient = new double[materials];
+        int[] upperBound = upperBound();
+        double theta = 2.0;
+        int stalled = 0;
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            double bound = 0;
+            for (int j = 0; j < materials; j++) {
+                bound += shadow[j] * stock[j];
+                gradient[j] = stock[j];
+            }
+            for (int p = 0; p < products(); p++) {
+                double reduced = price[p] - cost(p, shadow);
+                if (reduced > 0 && upperBound[p] > 0) {
+                    bound += reduced * upperBound[p];
+                    for (int r = rowStart[p]; r < rowStart[p + 1]; r++) {
+                        gradient[material[r]] -= (double) required[r] * upperBound[p];
+                    }
+                }
+            }
+            if (bound < bestBound) {
+                bestBound = bound;
+                System.arraycopy(shadow, 0, best, 0, materials);
+                stalled = 0;
+            } else if (++stalled >= 5) {
+                theta /= 2;
+                stalled = 0;
+            }
+            double norm = 0;
+            for (int j = 0; j < materials; j++) {
+                if (shadow[j] > 0 || gradient[j] < 0) {
+                    norm += gradient[j] * gradient[j];
+                }
+            }
+            double gap = bound - lowerBound;
+            if (norm == 0 || gap <= 0 || theta < 1e-6) {
+                break;
+            }
+            double step = theta * gap / norm;
+            for (int j = 0; j < materials; j++) {
+                shadow[j] = Math.max(0, shadow[j] - step * gradient[j]);
+            }
+        }
+        return new Relaxation(best, bestBound);
+    }
+
+    ProductionPlan toPlan(String strategy, int[] quantity, boolean optimal) {
+        return toPlan(strategy, quantity, valueMinor(quantity), optimal);
+    }
+
+    /**
+     * Converts quantities indexed by product into a plan ordered by descending price.
+     */
+    ProductionPlan toPlan(String strategy, int[] quantity, long totalMinor, boolean optimal) {
+        List<ProductionPlan.Line> lines = new ArrayList<>();
+        for (int p : priceOrder) {
+            if (quantity[p] > 0) {
+                lines.add(new ProductionPlan.Line(items[p].getProduct(), quantity[p]));
+            }
+        }
+        return new ProductionPlan(strategy, lines, BigDecimal.valueOf(totalMinor, priceScale), optimal);
+    }
+
+    private int[] sortedIndexes(Comparator<Integer> comparator) {
+        Integer[] boxed = new Integer[products()];
+        for (int p = 0; p < boxed.length; p++) {
+            boxed[p] = p;
+        }
+        Arrays.sort(boxed, comparator);
+        int[] order = new int[boxed.length];
+        for (int p = 0; p < order.length; p++) {
+            order[p] = boxed[p];
+        }
+        return order;
+    }
+
+    /**
+     * Shadow prices and the upper bound they prove.
+     */
+    static final class Relaxation {
+        final double[] shadowPrice;
+        final double upperBound;
+
+        Relaxation(double[] shadowPrice, double upperBound) {
+            this.shadowPrice = shadowPrice;
+            this.upperBound = upperBound;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.service;
+
+/**
+ * Strategy that turns the bill of materials and current stock into a
+ * production plan maximizing the total sale value.
+ */
+public interface ProductionOptimizer {
+
+    /**
+     * Name used to select the optimizer through the {@code strategy} query parameter.
+     */
+    String name();
+
+    ProductionPlan optimize(OptimizationModel model);
+
+    default ProductionPlan optimize(BillOfMaterials bom) {
+        return optimize(OptimizationModel.of(bom));
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.service;
+
+import com.example.model.Product;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Request to produce finished goods: either one product and quantity, or a
+ * list of lines shaped like the {@code products} of a production suggestion,
+ * so a suggested plan can be posted back as it was received.
+ */
+@RegisterForReflection
+public class ProductionOrder {
+
+    private Long productId;
+    private Integer quantity;
+    private List<Line> products = new ArrayList<>();
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    public List<Line> getProducts() { return products; }
+    public void setProducts(List<Line> products) { this.products = products; }
+
+    public static class Line {
+
+        private Product product;
+        private Integer quantity;
+
+        public Product getProduct() { return product; }
+        public void setProduct(Product product) { this.product = product; }
+        public Integer getQuantity() { return quantity; }
+        public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    }
+}
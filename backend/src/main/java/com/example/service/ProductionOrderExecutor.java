@@ -0,0 +1,212 @@
+package com.example.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import javax.sql.DataSource;
+import jakarta.transaction.Transactional;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Executes production orders: consumes the bill of materials of every
+ * ordered product from raw material stock and adds the produced units to
+ * the product quantity, all in one transaction. Components of an assembly
+ * are built as part of the order, so it consumes their raw materials at
+ * every level, read already exploded from {@link FlattenedRequirements};
+ * their own quantity is left alone.
+ *
+ * The raw materials involved are locked with one {@code select ... for no
+ * key update} ordered by id, then the products the same way, and every writer
+ * that locks more than one row follows that order, so concurrent orders
+ * queue on shared rows instead of deadlocking. Stock is checked under the
+ * lock; when any material is short nothing is written and all shortages
+ * are reported together. Otherwise each table, and the stock history, gets
+ * one JDBC batch, whatever the number of rows.
+ *
+ * An order leaves the catalog structure alone, so after commit it announces
+ * a {@link StockChanged} per consumed raw material and a
+ * {@link ProductsProduced} for the ordered products instead of a plain
+ * {@link CatalogChanged}.
+ */
+@ApplicationScoped
+public class ProductionOrderExecutor {
+
+    private static final String REQUIREMENTS =
+        "select p.id, pr.raw_material_id, pr.required_quantity from product p "
+            + "left join product_requirement pr on pr.product_id = p.id where p.id = any(?)";
+    private static final String LOCK_RAW_MATERIALS =
+        "select id, stock_quantity from raw_material where id = any(?) order by id for no key update";
+    private static final String LOCK_PRODUCTS =
+        "select id, coalesce(quantity, 0) from product where id = any(?) order by id for no key update";
+    private static final String UPDATE_STOCK =
+        "update raw_material set stock_quantity = ?, version = version + 1 where id = ?";
+    private static final String UPDATE_QUANTITY =
+        "update product set quantity = ? where id = ?";
+
+    @Inject
+    DataSource dataSource;
+
+    @Inject
+    Event<CatalogChanged> catalogChanged;
+
+    @Inject
+    Event<ProductsProduced> productsProduced;
+
+    /**
+     * @throws IllegalArgumentException when the order is empty or invalid, names an unknown
+     *                                  product or one without raw material requirements, or
+     *                                  needs more of a raw material than is in stock
+     */
+    @Transactional
+    public ProductionOrderResult execute(ProductionOrder order) {
+        SortedMap<Long, Integer> quantities = quantities(order);
+        try (Connection connection = dataSource.getConnection()) {
+            SortedMap<Long, Long> required = requirements(connection, quantities);
+
+            SortedMap<Long, Integer> stock = lock(connection, LOCK_RAW_MATERIALS, required.keySet());
+            List<String> shortages = new ArrayList<>();
+            for (Map.Entry<Long, Long> need : required.entrySet()) {
+                int available = stock.getOrDefault(need.getKey(), 0);
+                if (need.getValue() > available) {
+                    shortages.add("raw material " + need.getKey() + " requires " + need.getValue() + ", available " + available);
+                }
+            }
+            if (!shortages.isEmpty()) {
+                throw new IllegalArgumentException("Insufficient stock: " + String.join("; ", shortages));
+            }
+            SortedMap<Long, Integer> produced = lock(connection, LOCK_PRODUCTS, quantities.keySet());
+            if (produced.size() < quantities.size()) {
+                throw new IllegalArgumentException("Product deleted while the order was placed");
+            }
+
+            ProductionOrderResult result = new ProductionOrderResult();
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE_STOCK);
+                 PreparedStatement movements = connection.prepareStatement(StockHistory.RECORD_MOVEMENT)) {
+                for (Map.Entry<Long, Long> need : required.entrySet()) {
+                    int remaining = (int) (stock.getOrDefault(need.getKey(), 0) - need.getValue());
+                    statement.setInt(1, remaining);
+                    statement.setLong(2, need.getKey());
+                    statement.addBatch();
+                    StockHistory.addMovement(movements, need.getKey(), StockMovementKind.PRODUCTION, -need.getValue().intValue(), 0);
+                    result.addRawMaterial(need.getKey(), need.getValue().intValue(), remaining);
+                }
+                statement.executeBatch();
+                movements.executeBatch();
+            }
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE_QUANTITY)) {
+                for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+                    long total = (long) produced.get(line.getKey()) + line.getValue();
+                    if (total > Integer.MAX_VALUE) {
+                        throw new IllegalArgumentException("Quantity of product " + line.getKey() + " would exceed " + Integer.MAX_VALUE);
+                    }
+                    statement.setInt(1, (int) total);
+                    statement.setLong(2, line.getKey());
+                    statement.addBatch();
+                    result.addProduct(line.getKey(), line.getValue(), (int) total);
+                }
+                statement.executeBatch();
+            }
+            for (Long rawMaterialId : required.keySet()) {
+                catalogChanged.fire(new StockChanged(rawMaterialId));
+            }
+            productsProduced.fire(new ProductsProduced(quantities.keySet()));
+            return result;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Production order failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Ordered quantity per product id, lines for the same product summed.
+     */
+    private static SortedMap<Long, Integer> quantities(ProductionOrder order) {
+        if (order == null) {
+            throw new IllegalArgumentException("The order must produce at least one unit");
+        }
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        if (order.getProductId() != null) {
+            add(quantities, order.getProductId(), order.getQuantity());
+        }
+        if (order.getProducts() != null) {
+            for (ProductionOrder.Line line : order.getProducts()) {
+                if (line.getProduct() == null || line.getProduct().getId() == null) {
+                    throw new IllegalArgumentException("Every line needs a product id");
+                }
+                add(quantities, line.getProduct().getId(), line.getQuantity());
+            }
+        }
+        if (quantities.isEmpty()) {
+            throw new IllegalArgumentException("The order must produce at least one unit");
+        }
+        return quantities;
+    }
+
+    private static void add(SortedMap<Long, Integer> quantities, long productId, Integer quantity) {
+        if (quantity == null || quantity < 0) {
+            throw new IllegalArgumentException("Quantity of product " + productId + " must not be negative");
+        }
+        if (quantity > 0) {
+            long total = (long) quantities.getOrDefault(productId, 0) + quantity;
+            if (total > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Quantity of product " + productId + " must be at most " + Integer.MAX_VALUE);
+            }
+            quantities.put(productId, (int) total);
+        }
+    }
+
+    /**
+     * Total quantity of each raw material the order consumes.
+     *
+     * @throws IllegalArgumentException when a product does not exist or requires no raw material
+     */
+    private static SortedMap<Long, Long> requirements(Connection connection, SortedMap<Long, Integer> quantities) throws SQLException {
+        SortedMap<Long, Long> required = new TreeMap<>();
+        Set<Long> found = new HashSet<>();
+        Set<Long> withRequirements = new HashSet<>();
+        try (PreparedStatement statement = connection.prepareStatement(REQUIREMENTS)) {
+            statement.setArray(1, connection.createArrayOf("bigint", quantities.keySet().toArray()));
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    long productId = result.getLong(1);
+                    found.add(productId);
+                    long rawMaterialId = result.getLong(2);
+                    if (!result.wasNull()) {
+                        withRequirements.add(productId);
+                        required.merge(rawMaterialId, (long) result.getInt(3) * quantities.get(productId), Long::sum);
+                    }
+                }
+            }
+        }
+        if (found.size() < quantities.size()) {
+            List<Long> missing = new ArrayList<>(quantities.keySet());
+            missing.removeAll(found);
+            throw new IllegalArgumentException("Unknown product id: " + missing);
+        }
+        if (withRequirements.size() < quantities.size()) {
+            List<Long> empty = new ArrayList<>(quantities.keySet());
+            empty.removeAll(withRequirements);
+            throw new IllegalArgumentException("Product requires no raw material: " + empty);
+        }
+        return required;
+    }
+
+    /**
+     * Locks the rows in id order and returns their current quantity.
+     */
+    private static SortedMap<Long, Integer> lock(Connection connection, String sql, Set<Long> ids) throws SQLException {
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        if (ids.isEmpty()) {
+            return quantities;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    quantities.put(result.getLong(1), result.getInt(2));
+                }
+            }
+        }
+        return quantities;
+    }
+}
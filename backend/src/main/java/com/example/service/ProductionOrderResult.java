@@ -0,0 +1,62 @@
+package com.example.service;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What an executed production order changed: units produced and resulting
+ * quantity per product, units consumed and remaining stock per raw material.
+ */
+@RegisterForReflection
+public class ProductionOrderResult {
+
+    private final List<ProductLine> products = new ArrayList<>();
+    private final List<RawMaterialLine> rawMaterials = new ArrayList<>();
+
+    void addProduct(long id, int produced, int quantity) {
+        products.add(new ProductLine(id, produced, quantity));
+    }
+
+    void addRawMaterial(long id, int consumed, int stockQuantity) {
+        rawMaterials.add(new RawMaterialLine(id, consumed, stockQuantity));
+    }
+
+    public List<ProductLine> getProducts() { return products; }
+    public List<RawMaterialLine> getRawMaterials() { return rawMaterials; }
+
+    public static class ProductLine {
+
+        private final long id;
+        private final int produced;
+        private final int quantity;
+
+        ProductLine(long id, int produced, int quantity) {
+            this.id = id;
+            this.produced = produced;
+            this.quantity = quantity;
+        }
+
+        public long getId() { return id; }
+        public int getProduced() { return produced; }
+        public int getQuantity() { return quantity; }
+    }
+
+    public static class RawMaterialLine {
+
+        private final long id;
+        private final int consumed;
+        private final int stockQuantity;
+
+        RawMaterialLine(long id, int consumed, int stockQuantity) {
+            this.id = id;
+            this.consumed = consumed;
+            this.stockQuantity = stockQuantity;
+        }
+
+        public long getId() { return id; }
+        public int getConsumed() { return consumed; }
+        public int getStockQuantity() { return stockQuantity; }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.service;
+
+import com.example.model.Product;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of a production optimization: how many units of each product to
+ * make and the total sale value of the plan.
+ */
+public final class ProductionPlan {
+
+    private final String strategy;
+    private final List<Line> lines;
+    private final BigDecimal totalValue;
+    private final boolean optimal;
+
+    public ProductionPlan(String strategy, List<Line> lines, BigDecimal totalValue, boolean optimal) {
+        this.strategy = strategy;
+        this.lines = Collections.unmodifiableList(lines);
+        this.totalValue = totalValue;
+        this.optimal = optimal;
+    }
+
+    public String getStrategy() { return strategy; }
+    public List<Line> getLines() { return lines; }
+    public BigDecimal getTotalValue() { return totalValue; }
+
+    /**
+     * Whether the plan is proven optimal. Heuristic strategies and searches
+     * stopped by the time budget report {@code false}.
+     */
+    public boolean isOptimal() { return optimal; }
+
+    /**
+     * Quantity suggested for one product.
+     */
+    public static final class Line {
+        private final Product product;
+        private final int quantity;
+
+        public Line(Product product, int quantity) {
+            this.product = product;
+            this.quantity = quantity;
+        }
+
+        public Product getProduct() { return product; }
+        public int getQuantity() { return quantity; }
+    }
+}
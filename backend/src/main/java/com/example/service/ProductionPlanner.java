@@ -0,0 +1,299 @@
+package com.example.service;
+
+import com.example.repository.ProductRawMaterialRepository;
+import com.example.service.SuggestionMetrics.Phase;
+import io.quarkus.runtime.StartupEvent;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Entry point of the production suggestion engine.
+ *
+ * Loads the bill of materials and hands it to the optimizer selected by name.
+ * The exact search stops after {@code production.optimizer.time-budget} and
+ * returns the best plan found until then.
+ *
+ * Results are cached per strategy against a catalog version that is bumped
+ * by {@link CatalogChanged} events once their transaction commits. A burst
+ * of writes only bumps the version; the plan is recomputed once, by the
+ * first request that sees the new version, while concurrent requests for
+ * the same strategy wait for that result.
+ *
+ * A {@link StockChanged} event does not reload the catalog: the raw material
+ * is marked, and on the next refresh its current stock is read from
+ * {@link StockMovements}, patched into the compiled model and the greedy
+ * plan is repaired for the products that depend on it. Any other change reloads everything. Time per
+ * phase, products evaluated and cache hits are published through
+ * {@link SuggestionMetrics}.
+ *
+ * Each reload from the database is saved as a {@link CatalogSnapshots}
+ * copy. On startup the greedy plan is computed from that copy when it is
+ * still current, so the first request after a restart is served like any
+ * later one. Without a current copy nothing is loaded until the first
+ * request.
+ *
+ * What-if scenarios are evaluated against the same compiled model, in
+ * parallel on a dedicated pool of {@code production.scenarios.parallelism}
+ * threads, without touching the database or the cached suggestions.
+ */
+@ApplicationScoped
+public class ProductionPlanner {
+
+    private static final Logger LOG = Logger.getLogger(ProductionPlanner.class);
+
+    @Inject
+    ProductRawMaterialRepository productRawMaterialRepository;
+
+    @Inject
+    CatalogSnapshots catalogSnapshots;
+
+    @Inject
+    StockMovements stockMovements;
+
+    @Inject
+    SuggestionMetrics metrics;
+
+    @ConfigProperty(name = "production.optimizer.time-budget", defaultValue = "2s")
+    Duration timeBudget;
+
+    @ConfigProperty(name = "production.scenarios.parallelism")
+    Optional<Integer> scenarioParallelism;
+
+    @ConfigProperty(name = "production.scenarios.max-batch", defaultValue = "1000")
+    int maxScenarios;
+
+    private final Map<String, ProductionOptimizer> optimizers = new LinkedHashMap<>();
+    private final Map<String, SuggestionSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Object changes = new Object();
+    private Set<Long> pendingStock = new HashSet<>();
+    private boolean structuralChange = true;
+
+    private long modelVersion = -1;
+    private IncrementalGreedyPlan greedyPlan;
+    private BillOfMaterials restored;
+    private long restoredVersion;
+    private ScenarioEvaluator scenarioEvaluator;
+
+    @PostConstruct
+    void init() {
+        register(new GreedyOptimizer());
+        register(new LpRelaxationOptimizer());
+        register(new BranchAndBoundOptimizer(timeBudget));
+        scenarioEvaluator = new ScenarioEvaluator(scenarioParallelism.orElse(Runtime.getRuntime().availableProcessors()));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scenarioEvaluator.shutdown();
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        try {
+            long current = version.get();
+            Optional<BillOfMaterials> saved = catalogSnapshots.load();
+            if (saved.isEmpty()) {
+                return;
+            }
+            synchronized (this) {
+                restored = saved.get();
+                restoredVersion = current;
+            }
+            suggest(GreedyOptimizer.NAME);
+            LOG.infof("Production suggestion prepared from the catalog snapshot for %d products", saved.get().getItems().size());
+        } catch (RuntimeException e) {
+            LOG.warn("Could not prepare the production suggestion from the catalog snapshot", e);
+        }
+    }
+
+    private void register(ProductionOptimizer optimizer) {
+        optimizers.put(optimizer.name(), optimizer);
+    }
+
+    /**
+     * @throws IllegalArgumentException when no optimizer has the given name
+     */
+    public ProductionOptimizer optimizer(String strategy) {
+        ProductionOptimizer optimizer = optimizers.get(strategy);
+        if (optimizer == null) {
+            throw new IllegalArgumentException("Unknown strategy: " + strategy + ". Available: " + String.join(", ", optimizers.keySet()));
+        }
+        return optimizer;
+    }
+
+    public SuggestionSnapshot suggest(String strategy) {
+        ProductionOptimizer optimizer = optimizer(strategy);
+        Optional<SuggestionSnapshot> cached = current(strategy);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        synchronized (optimizer) {
+            long current = version.get();
+            SuggestionSnapshot snapshot = snapshots.get(strategy);
+            if (snapshot != null && snapshot.getVersion() == current) {
+                metrics.served(strategy, true);
+                return snapshot;
+            }
+            ProductionPlan plan;
+            if (optimizer instanceof GreedyOptimizer) {
+                plan = greedyPlan(current);
+            } else {
+                OptimizationModel model = model(current, strategy);
+                plan = metrics.time(Phase.COMPUTE, strategy, () -> optimizer.optimize(model));
+                metrics.evaluated(strategy, model.products());
+            }
+            metrics.served(strategy, false);
+            snapshot = new SuggestionSnapshot(current, epoch + "-" + current + "-" + strategy, plan);
+            snapshots.put(strategy, snapshot);
+            return snapshot;
+        }
+    }
+
+    /**
+     * The cached suggestion when it is still current; never loads, computes
+     * or waits for a computation in progress.
+     *
+     * @throws IllegalArgumentException when no optimizer has the given name
+     */
+    public Optional<SuggestionSnapshot> current(String strategy) {
+        optimizer(strategy);
+        SuggestionSnapshot snapshot = snapshots.get(strategy);
+        if (snapshot != null && snapshot.getVersion() == version.get()) {
+            metrics.served(strategy, true);
+            return Optional.of(snapshot);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Plans for each scenario, in order, computed from the current catalog
+     * with the scenario's stock deltas applied. The exact search shares one
+     * time budget across the whole batch.
+     *
+     * @throws IllegalArgumentException for an unknown strategy or a batch
+     *         that is empty or larger than {@code production.scenarios.max-batch}
+     */
+    public List<ProductionPlan> evaluate(String strategy, List<Scenario> scenarios) {
+        ProductionOptimizer optimizer = optimizer(strategy);
+        if (scenarios == null || scenarios.isEmpty()) {
+            throw new IllegalArgumentException("At least one scenario is required");
+        }
+        if (scenarios.size() > maxScenarios) {
+            throw new IllegalArgumentException("At most " + maxScenarios + " scenarios are allowed per request");
+        }
+        if (optimizer instanceof BranchAndBoundOptimizer) {
+            Duration share = timeBudget.multipliedBy(scenarioEvaluator.parallelism()).dividedBy(scenarios.size());
+            optimizer = new BranchAndBoundOptimizer(share);
+        }
+        List<Map<Long, Integer>> stockDeltas = scenarios.stream()
+            .map(scenario -> scenario.getStockDeltas() == null ? Map.<Long, Integer>of() : scenario.getStockDeltas())
+            .collect(Collectors.toList());
+        return scenarioEvaluator.evaluate(model(version.get(), strategy), optimizer, stockDeltas);
+    }
+
+    /**
+     * Catalog version the cached suggestions are checked against.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    void onCatalogChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) CatalogChanged event) {
+        synchronized (changes) {
+            if (event instanceof StockChanged) {
+                pendingStock.add(((StockChanged) event).getRawMaterialId());
+            } else {
+                structuralChange = true;
+            }
+        }
+        version.incrementAndGet();
+        if (!(event instanceof StockChanged)) {
+            catalogSnapshots.invalidate();
+        }
+    }
+
+    private synchronized ProductionPlan greedyPlan(long current) {
+        metrics.evaluated(GreedyOptimizer.NAME, refresh(current, GreedyOptimizer.NAME));
+        return greedyPlan.toPlan(GreedyOptimizer.NAME);
+    }
+
+    private synchronized OptimizationModel model(long current, String strategy) {
+        refresh(current, strategy);
+        return greedyPlan.model();
+    }
+
+    /**
+     * Brings the compiled bill of materials and the greedy plan up to date.
+     * Tagged with the version read before refreshing, so a change that lands
+     * meanwhile triggers another refresh on the next request. Stock is read
+     * when it is applied rather than taken from the events, which concurrent
+     * writers may deliver in any order; a raw material both seen by a reload
+     * and still pending afterwards is simply read twice.
+     *
+     * Loading and compiling are timed for the strategy that asked; building
+     * or repairing the greedy plan is greedy computation whoever asked.
+     *
+     * @return how many products were re-evaluated
+     */
+    private int refresh(long current, String strategy) {
+        if (greedyPlan != null && modelVersion == current) {
+            return 0;
+        }
+        Set<Long> stock;
+        boolean reload;
+        synchronized (changes) {
+            stock = pendingStock;
+            reload = structuralChange || greedyPlan == null;
+            pendingStock = new HashSet<>();
+            structuralChange = false;
+        }
+        int evaluated;
+        if (reload) {
+            BillOfMaterials bom = metrics.time(Phase.LOAD, strategy, () -> loadBillOfMaterials(current));
+            OptimizationModel model = metrics.time(Phase.COMPILE, strategy, () -> OptimizationModel.of(bom));
+            greedyPlan = metrics.time(Phase.COMPUTE, GreedyOptimizer.NAME, () -> new IncrementalGreedyPlan(model));
+            evaluated = model.products();
+        } else {
+            evaluated = metrics.time(Phase.COMPUTE, GreedyOptimizer.NAME, () -> greedyPlan.applyStock(stockMovements.stock(stock)));
+        }
+        metrics.recomputed(reload, evaluated);
+        modelVersion = current;
+        return evaluated;
+    }
+
+    /**
+     * The copy restored on startup while no change has landed since, or
+     * the database, saving a new copy. Either way the stock is overlaid
+     * with what {@link StockMovements} holds but has not written yet.
+     */
+    private BillOfMaterials loadBillOfMaterials(long current) {
+        BillOfMaterials bom = restored;
+        restored = null;
+        if (bom == null || restoredVersion != current) {
+            long databaseVersion = catalogSnapshots.databaseVersion();
+            bom = productRawMaterialRepository.loadBillOfMaterials();
+            catalogSnapshots.save(bom, databaseVersion, () -> version.get() == current);
+        }
+        Map<Long, Integer> unflushed = stockMovements.unflushedStock();
+        return unflushed.isEmpty() ? bom : bom.withStock(unflushed);
+    }
+}
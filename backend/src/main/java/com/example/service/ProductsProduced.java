@@ -0,0 +1,20 @@
+package com.example.service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A production order raised the quantity of these products. Not a
+ * {@link CatalogChanged}: the catalog structure and the suggestion inputs
+ * stay the same, only cached copies of the product rows go stale.
+ */
+public class ProductsProduced {
+
+    private final List<Long> productIds;
+
+    public ProductsProduced(Collection<Long> productIds) {
+        this.productIds = List.copyOf(productIds);
+    }
+
+    public List<Long> getProductIds() { return productIds; }
+}
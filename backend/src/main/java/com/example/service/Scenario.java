@@ -0,0 +1,23 @@
+package com.example.service;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A what-if question: how would the plan look if the stock of some raw
+ * materials changed by the given quantities. Deltas are keyed by raw
+ * material id and may be negative.
+ */
+@RegisterForReflection
+public class Scenario {
+
+    private String name;
+    private Map<Long, Integer> stockDeltas = new HashMap<>();
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public Map<Long, Integer> getStockDeltas() { return stockDeltas; }
+    public void setStockDeltas(Map<Long, Integer> stockDeltas) { this.stockDeltas = stockDeltas; }
+}
@@ -0,0 +1,42 @@
+package com.example.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Runs one optimizer over many stock scenarios in parallel.
+ *
+ * Every scenario gets its own copy of the stock vector; products, prices and
+ * requirements are shared from the same immutable model, so nothing is read
+ * from the database and scenarios never see each other.
+ */
+final class ScenarioEvaluator {
+
+    private final ForkJoinPool pool;
+
+    ScenarioEvaluator(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    int parallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * @return one plan per scenario, in the same order
+     */
+    List<ProductionPlan> evaluate(OptimizationModel model, ProductionOptimizer optimizer, List<Map<Long, Integer>> stockDeltas) {
+        return pool.submit(() -> IntStream.range(0, stockDeltas.size())
+                .parallel()
+                .mapToObj(i -> optimizer.optimize(model.withStockDelta(stockDeltas.get(i))))
+                .collect(Collectors.toList()))
+            .join();
+    }
+
+    void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.service;
+
+/**
+ * Raw material stock changed.
+ *
+ * Carries no quantity: observers run after commit in no particular order
+ * across transactions, so a value taken from the event could be older than
+ * one already applied. Observers that keep stock read the current level
+ * from {@link StockMovements}, which makes handling the same event twice,
+ * or after a reload that already saw it, harmless.
+ */
+public class StockChanged extends CatalogChanged {
+
+    private final long rawMaterialId;
+
+    public StockChanged(long rawMaterialId) {
+        this.rawMaterialId = rawMaterialId;
+    }
+
+    public long getRawMaterialId() { return rawMaterialId; }
+}
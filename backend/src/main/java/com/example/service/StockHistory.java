@@ -0,0 +1,267 @@
+package com.example.service;
+
+import io.quarkus.runtime.Startup;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only history of raw material stock.
+ *
+ * Every write that changes available or reserved units also inserts a
+ * {@code stock_movement} row with the deltas, in the same transaction, so
+ * the history holds exactly the committed changes. Writers that batch their
+ * updates batch these rows too, with {@link #RECORD_MOVEMENT}.
+ *
+ * Every {@code stock.history.snapshot-interval} the levels of all raw
+ * materials are summed up into a snapshot, built from the previous snapshot
+ * and the movements since, never from the live rows, so a snapshot always
+ * agrees with the history. It covers movements up to
+ * {@code stock.history.snapshot-delay} ago: a movement is stamped when its
+ * statement runs, and transactions that started before the cutoff must have
+ * committed by the time the snapshot is taken.
+ *
+ * Stock at a past instant is the latest snapshot before it plus the
+ * movements in between, summed by the database in one range scan over the
+ * time-ordered movements.
+ *
+ * Created at startup, so snapshots are taken even when every movement is
+ * written through {@link #RECORD_MOVEMENT} or the raw material repository
+ * and nothing else touches this bean.
+ */
+@Startup
+@ApplicationScoped
+public class StockHistory {
+
+    private static final Logger LOG = Logger.getLogger(StockHistory.class);
+
+    static final String RECORD_MOVEMENT =
+        "insert into stock_movement (raw_material_id, kind, stock_delta, reserved_delta) values (?, ?, ?, ?)";
+    private static final String LATEST_SNAPSHOT =
+        "select id, taken_at from stock_snapshot where taken_at <= ? order by taken_at desc limit 1";
+    private static final String INSERT_SNAPSHOT =
+        "insert into stock_snapshot (taken_at) values (?) on conflict (taken_at) do nothing returning id";
+    /** Parameters: base snapshot, lower bound (exclusive), upper bound (inclusive). */
+    private static final String LEVELS =
+        "select raw_material_id, sum(stock_quantity) stock_quantity, sum(reserved_quantity) reserved_quantity from ("
+            + "select raw_material_id, stock_quantity, reserved_quantity from stock_snapshot_level where snapshot_id = ? "
+            + "union all "
+            + "select raw_material_id, stock_delta, reserved_delta from stock_movement where occurred_at > ? and occurred_at <= ?"
+            + ") changes group by raw_material_id";
+    private static final String LEVEL =
+        "select coalesce(sum(stock_quantity), 0), coalesce(sum(reserved_quantity), 0) from ("
+            + "select stock_quantity, reserved_quantity from stock_snapshot_level where snapshot_id = ? and raw_material_id = ? "
+            + "union all "
+            + "select stock_delta, reserved_delta from stock_movement where raw_material_id = ? and occurred_at > ? and occurred_at <= ?"
+            + ") changes";
+    private static final OffsetDateTime START_OF_HISTORY = OffsetDateTime.of(1, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @Inject
+    DataSource dataSource;
+
+    @ConfigProperty(name = "stock.history.snapshot-interval", defaultValue = "24h")
+    Duration snapshotInterval;
+
+    @ConfigProperty(name = "stock.history.snapshot-delay", defaultValue = "5m")
+    Duration snapshotDelay;
+
+    private ScheduledExecutorService snapshots;
+
+    @PostConstruct
+    void init() {
+        snapshots = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-history-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = snapshotInterval.toMillis();
+        snapshots.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (Exception e) {
+                LOG.warn("Stock snapshot failed, retrying on the next interval", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        snapshots.shutdownNow();
+    }
+
+    /**
+     * Records a change to the stock of one raw material. Call it inside the
+     * transaction that makes the change.
+     */
+    public void record(long rawMaterialId, StockMovementKind kind, int stockDelta, int reservedDelta) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(RECORD_MOVEMENT)) {
+            addMovement(statement, rawMaterialId, kind, stockDelta, reservedDelta);
+            statement.executeBatch();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not record stock movement: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Adds one movement to a batch of {@link #RECORD_MOVEMENT}.
+     */
+    static void addMovement(PreparedStatement statement, long rawMaterialId, StockMovementKind kind,
+                            int stockDelta, int reservedDelta) throws SQLException {
+        statement.setLong(1, rawMaterialId);
+        statement.setString(2, kind.name());
+        statement.setInt(3, stockDelta);
+        statement.setInt(4, reservedDelta);
+        statement.addBatch();
+    }
+
+    /**
+     * Stock of every raw material that had units available or reserved at {@code at}, by id.
+     */
+    public List<StockLevel> levelsAt(Instant at) {
+        try (Connection connection = dataSource.getConnection()) {
+            Snapshot base = latestSnapshot(connection, at);
+            List<StockLevel> levels = new ArrayList<>();
+            try (PreparedStatement statement = connection.prepareStatement("select * from (" + LEVELS + ") levels "
+                + "where stock_quantity <> 0 or reserved_quantity <> 0 order by raw_material_id")) {
+                statement.setLong(1, base.id);
+                statement.setObject(2, base.takenAt);
+                statement.setObject(3, timestamp(at));
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        levels.add(new StockLevel(result.getLong(1), Math.toIntExact(result.getLong(2)),
+                            Math.toIntExact(result.getLong(3))));
+                    }
+                }
+            }
+            return levels;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read stock history: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stock of one raw material at {@code at}; zero before it was created and after it was deleted.
+     */
+    public StockLevel levelAt(long rawMaterialId, Instant at) {
+        try (Connection connection = dataSource.getConnection()) {
+            Snapshot base = latestSnapshot(connection, at);
+            try (PreparedStatement statement = connection.prepareStatement(LEVEL)) {
+                statement.setLong(1, base.id);
+                statement.setLong(2, rawMaterialId);
+                statement.setLong(3, rawMaterialId);
+                statement.setObject(4, base.takenAt);
+                statement.setObject(5, timestamp(at));
+                try (ResultSet result = statement.executeQuery()) {
+                    result.next();
+                    return new StockLevel(rawMaterialId, Math.toIntExact(result.getLong(1)), Math.toIntExact(result.getLong(2)));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read stock history: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Takes a snapshot of the movements up to {@code stock.history.snapshot-delay} ago.
+     *
+     * @return the instant the snapshot covers
+     */
+    public Instant snapshot() {
+        Instant cutoff = Instant.now().minus(snapshotDelay);
+        snapshot(cutoff);
+        return cutoff;
+    }
+
+    /**
+     * Takes a snapshot of the movements up to {@code cutoff}, unless one
+     * exists for that instant. No movement stamped at or before the cutoff
+     * may commit afterwards.
+     */
+    void snapshot(Instant cutoff) {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                Snapshot base = latestSnapshot(connection, cutoff);
+                Long id = null;
+                try (PreparedStatement statement = connection.prepareStatement(INSERT_SNAPSHOT)) {
+                    statement.setObject(1, timestamp(cutoff));
+                    try (ResultSet result = statement.executeQuery()) {
+                        if (result.next()) {
+                            id = result.getLong(1);
+                        }
+                    }
+                }
+                if (id != null) {
+                    try (PreparedStatement statement = connection.prepareStatement(
+                        "insert into stock_snapshot_level (snapshot_id, raw_material_id, stock_quantity, reserved_quantity) "
+                            + "select ?, raw_material_id, stock_quantity, reserved_quantity from (" + LEVELS + ") levels "
+                            + "where stock_quantity <> 0 or reserved_quantity <> 0")) {
+                        statement.setLong(1, id);
+                        statement.setLong(2, base.id);
+                        statement.setObject(3, base.takenAt);
+                        statement.setObject(4, timestamp(cutoff));
+                        int levels = statement.executeUpdate();
+                        LOG.debugf("Stock snapshot at %s holds %d raw materials", cutoff, levels);
+                    }
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not take stock snapshot: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Latest snapshot at or before {@code at}, or an empty one at the start of time.
+     */
+    private static Snapshot latestSnapshot(Connection connection, Instant at) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(LATEST_SNAPSHOT)) {
+            statement.setObject(1, timestamp(at));
+            try (ResultSet result = statement.executeQuery()) {
+                if (result.next()) {
+                    return new Snapshot(result.getLong(1), result.getObject(2, OffsetDateTime.class));
+                }
+            }
+        }
+        return new Snapshot(0, START_OF_HISTORY);
+    }
+
+    private static OffsetDateTime timestamp(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+
+    private static final class Snapshot {
+        final long id;
+        final OffsetDateTime takenAt;
+
+        Snapshot(long id, OffsetDateTime takenAt) {
+            this.id = id;
+            this.takenAt = takenAt;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Append-only log of stock ledger movements, split into numbered segments.
+ *
+ * Each record is a raw material id and the change to its available and
+ * reserved units, {@value #RECORD_BYTES} bytes with no framing; a torn
+ * record at the end of a segment is ignored on replay. The ledger starts a
+ * new segment every time it flushes and deletes the segments the database
+ * has caught up with.
+ *
+ * {@link #sync} makes a record durable before its movement is acknowledged.
+ * Callers that arrive while a force is in progress wait for it and are
+ * usually covered by the next one, so one force serves many movements.
+ */
+final class StockJournal {
+
+    static final int RECORD_BYTES = 16;
+    private static final String PREFIX = "stock-";
+    private static final String SUFFIX = ".journal";
+
+    interface RecordConsumer {
+        void accept(long rawMaterialId, int stockDelta, int reservedDelta);
+    }
+
+    private final Path directory;
+    private final boolean force;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+    /** Serializes forces and segment switches; taken before {@code this}. */
+    private final Object syncLock = new Object();
+
+    private FileChannel channel;
+    private long segment;
+    /** Bytes appended over all segments. */
+    private long written;
+    private volatile long synced;
+
+    /**
+     * @param force whether {@link #sync} forces records to the device; without it they
+     *              survive a process crash but not a power loss
+     */
+    StockJournal(Path directory, boolean force) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.force = force;
+    }
+
+    /**
+     * Segments on disk by number.
+     */
+    SortedMap<Long, Path> segments() throws IOException {
+        SortedMap<Long, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    segments.put(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())), file);
+                } catch (NumberFormatException e) {
+                    // not a segment
+                }
+            }
+        }
+        return segments;
+    }
+
+    static void read(Path segment, RecordConsumer consumer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        while (buffer.remaining() >= RECORD_BYTES) {
+            consumer.accept(buffer.getLong(), buffer.getInt(), buffer.getInt());
+        }
+    }
+
+    synchronized void open(long segment) throws IOException {
+        this.segment = segment;
+        channel = FileChannel.open(file(segment), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * @return position to pass to {@link #sync}
+     */
+    synchronized long append(long rawMaterialId, int stockDelta, int reservedDelta) {
+        record.clear();
+        record.putLong(rawMaterialId).putInt(stockDelta).putInt(reservedDelta).flip();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to the stock journal", e);
+        }
+        written += RECORD_BYTES;
+        return written;
+    }
+
+    /**
+     * Returns once everything appended up to {@code position} is durable.
+     */
+    void sync(long position) {
+        if (!force || synced >= position) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (synced >= position) {
+                return;
+            }
+            long target;
+            FileChannel current;
+            synchronized (this) {
+                target = written;
+                current = channel;
+            }
+            try {
+                current.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not sync the stock journal", e);
+            }
+            synced = target;
+        }
+    }
+
+    /**
+     * Closes the current segment, durable, and continues in the next one.
+     *
+     * @return number of the closed segment
+     */
+    long rotate() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                long closed = segment;
+                channel.force(false);
+                channel.close();
+                synced = written;
+                open(closed + 1);
+                return closed;
+            }
+        }
+    }
+
+    /**
+     * Deletes the closed segments up to and including {@code last}.
+     */
+    void deleteThrough(long last) throws IOException {
+        for (Map.Entry<Long, Path> entry : segments().headMap(last + 1).entrySet()) {
+            if (entry.getKey() != currentSegment()) {
+                Files.deleteIfExists(entry.getValue());
+            }
+        }
+    }
+
+    synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    private synchronized long currentSegment() {
+        return segment;
+    }
+
+    private Path file(long segment) {
+        return directory.resolve(PREFIX + segment + SUFFIX);
+    }
+}
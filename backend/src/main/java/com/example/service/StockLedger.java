@@ -0,0 +1,406 @@
+package com.example.service;
+
+import org.jboss.logging.Logger;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Stock of raw materials kept in memory, with write-behind to the database.
+ *
+ * A raw material is loaded on first use. Reservations, releases and
+ * consumptions then change it in memory under one of a fixed set of striped
+ * locks, so movements on different raw materials rarely contend and none
+ * waits on a database row lock. Each movement is appended to the
+ * {@link StockJournal} and acknowledged once the record is durable.
+ *
+ * The accumulated changes are flushed periodically as relative updates, one
+ * JDBC batch in id order, together with the number of the last journal
+ * segment they cover in {@code stock_ledger_checkpoint}; the stock history
+ * gets one {@code LEDGER} movement per raw material. On startup the
+ * segments after the checkpoint are replayed, so a crash loses no
+ * acknowledged movement and applies none twice. The database lags memory by
+ * at most one flush interval.
+ *
+ * Writes that change stock in the database directly go through
+ * {@link #exclusive}: movements pause, pending changes are flushed, the write
+ * runs and the cached raw materials are dropped. The ledger assumes it is
+ * the only one; run a single application instance when it is enabled.
+ */
+final class StockLedger implements StockStore {
+
+    private static final Logger LOG = Logger.getLogger(StockLedger.class);
+
+    private static final String LOAD =
+        "select stock_quantity, reserved_quantity from raw_material where id = ?";
+    private static final String APPLY =
+        "update raw_material set stock_quantity = stock_quantity + ?, reserved_quantity = reserved_quantity + ?, "
+            + "version = version + 1 where id = ?";
+    private static final String READ_CHECKPOINT =
+        "select segment from stock_ledger_checkpoint where id = 1";
+    private static final String WRITE_CHECKPOINT =
+        "insert into stock_ledger_checkpoint (id, segment) values (1, ?) on conflict (id) do update set segment = excluded.segment";
+
+    private final DataSource dataSource;
+    private final Consumer<Collection<Long>> applied;
+    private final StockJournal journal;
+    private final Object[] stripes;
+    private final Map<Long, Cell> cells = new ConcurrentHashMap<>();
+    /** Shared by movements; taken exclusively to snapshot pending changes and around direct writes. */
+    private final ReentrantReadWriteLock gate = new ReentrantReadWriteLock();
+    /** Held from snapshotting pending changes until they are committed, and while loading a raw material. */
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * Replays the journal into the database and starts flushing.
+     *
+     * @param stripes number of locks movements are spread over, rounded up to a power of two
+     * @param applied called with the ids of the raw materials whose rows were updated, after each commit
+     */
+    StockLedger(DataSource dataSource, Path journalDirectory, boolean forceJournal, int stripes, Duration flushInterval,
+                Consumer<Collection<Long>> applied) {
+        this.dataSource = dataSource;
+        this.applied = applied;
+        this.stripes = new Object[Integer.highestOneBit(Math.max(1, stripes - 1)) << 1];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Object();
+        }
+        try {
+            journal = new StockJournal(journalDirectory, forceJournal);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not recover the stock journal", e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not recover the stock journal: " + e.getMessage(), e);
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-ledger-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Optional<StockLevel> level(long id) {
+        Cell cell = cell(id);
+        if (cell == null) {
+            return Optional.empty();
+        }
+        synchronized (stripe(id)) {
+            return Optional.of(new StockLevel(id, cell.stock, cell.reserved));
+        }
+    }
+
+    @Override
+    public Map<Long, Integer> stock(Collection<Long> ids) {
+        Map<Long, Integer> stock = new HashMap<>();
+        for (long id : ids) {
+            level(id).ifPresent(level -> stock.put(id, level.getStockQuantity()));
+        }
+        return stock;
+    }
+
+    /**
+     * Every loaded cell, since movements change cells before the batch
+     * carrying them is written.
+     */
+    @Override
+    public Map<Long, Integer> unflushedStock() {
+        Map<Long, Integer> stock = new HashMap<>();
+        for (Map.Entry<Long, Cell> entry : cells.entrySet()) {
+            synchronized (stripe(entry.getKey())) {
+                stock.put(entry.getKey(), entry.getValue().stock);
+            }
+        }
+        return stock;
+    }
+
+    @Override
+    public Optional<StockLevel> reserve(long id, int quantity) {
+        return move(id, -quantity, quantity);
+    }
+
+    @Override
+    public Optional<StockLevel> release(long id, int quantity) {
+        return move(id, quantity, -quantity);
+    }
+
+    @Override
+    public Optional<StockLevel> consume(long id, int quantity) {
+        return move(id, 0, -quantity);
+    }
+
+    @Override
+    public <T> T exclusive(Supplier<T> write) {
+        flushLock.lock();
+        gate.writeLock().lock();
+        try {
+            try {
+                flush();
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not flush the stock ledger: " + e.getMessage(), e);
+            }
+            try {
+                return write.get();
+            } finally {
+                cells.clear();
+            }
+        } finally {
+            gate.writeLock().unlock();
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+            flush();
+            journal.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | SQLException | UncheckedIOException e) {
+            LOG.error("Stock ledger closed with unflushed changes; they will be replayed from the journal", e);
+        }
+    }
+
+    /**
+     * Changes available and reserved units together, or neither when either
+     * would leave the range of a non-negative int.
+     */
+    private Optional<StockLevel> move(long id, int stockDelta, int reservedDelta) {
+        long position;
+        StockLevel level;
+        while (true) {
+            Cell cell = cell(id);
+            if (cell == null) {
+                return Optional.empty();
+            }
+            gate.readLock().lock();
+            try {
+                if (cells.get(id) != cell) {
+                    continue; // dropped by a direct write, load it again
+                }
+                synchronized (stripe(id)) {
+                    long stock = (long) cell.stock + stockDelta;
+                    long reserved = (long) cell.reserved + reservedDelta;
+                    if (stock < 0 || reserved < 0 || stock > Integer.MAX_VALUE || reserved > Integer.MAX_VALUE) {
+                        return Optional.empty();
+                    }
+                    position = journal.append(id, stockDelta, reservedDelta);
+                    cell.stock = (int) stock;
+                    cell.reserved = (int) reserved;
+                    cell.pendingStock += stockDelta;
+                    cell.pendingReserved += reservedDelta;
+                    level = new StockLevel(id, cell.stock, cell.reserved);
+                }
+            } finally {
+                gate.readLock().unlock();
+            }
+            journal.sync(position);
+            return Optional.of(level);
+        }
+    }
+
+    /**
+     * @return the cached raw material, loaded if needed, or null when it does not exist
+     */
+    private Cell cell(long id) {
+        Cell cell = cells.get(id);
+        if (cell != null) {
+            return cell;
+        }
+        // A raw material is only dropped once its changes are committed, and no
+        // flush or direct write runs while this lock is held, so the row is current
+        flushLock.lock();
+        try {
+            cell = cells.get(id);
+            if (cell != null) {
+                return cell;
+            }
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(LOAD)) {
+                statement.setLong(1, id);
+                try (ResultSet result = statement.executeQuery()) {
+                    if (!result.next()) {
+                        return null;
+                    }
+                    cell = new Cell(result.getInt(1), result.getInt(2));
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not load raw material " + id + ": " + e.getMessage(), e);
+            }
+            cells.put(id, cell);
+            return cell;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            LOG.warn("Stock ledger flush failed, retrying on the next interval", e);
+        }
+    }
+
+    /**
+     * Writes the changes made since the last flush and deletes the journal
+     * segments they cover. On failure the changes stay pending.
+     */
+    void flush() throws SQLException {
+        flushLock.lock();
+        try {
+            SortedMap<Long, long[]> changes = new TreeMap<>();
+            long segment;
+            gate.writeLock().lock();
+            try {
+                for (Map.Entry<Long, Cell> entry : cells.entrySet()) {
+                    Cell cell = entry.getValue();
+                    if (cell.pendingStock != 0 || cell.pendingReserved != 0) {
+                        changes.put(entry.getKey(), new long[]{cell.pendingStock, cell.pendingReserved});
+                        cell.pendingStock = 0;
+                        cell.pendingReserved = 0;
+                    }
+                }
+                segment = journal.rotate();
+            } catch (IOException e) {
+                restore(changes);
+                throw new UncheckedIOException("Could not rotate the stock journal", e);
+            } finally {
+                gate.writeLock().unlock();
+            }
+
+            try {
+                if (!changes.isEmpty()) {
+                    apply(changes, segment);
+                }
+            } catch (SQLException e) {
+                restore(changes);
+                throw e;
+            }
+            journal.deleteThrough(segment);
+        } catch (IOException e) {
+            LOG.warn("Could not delete flushed stock journal segments", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void restore(SortedMap<Long, long[]> changes) {
+        gate.readLock().lock();
+        try {
+            for (Map.Entry<Long, long[]> change : changes.entrySet()) {
+                Cell cell = cells.get(change.getKey());
+                synchronized (stripe(change.getKey())) {
+                    cell.pendingStock += change.getValue()[0];
+                    cell.pendingReserved += change.getValue()[1];
+                }
+            }
+        } finally {
+            gate.readLock().unlock();
+        }
+    }
+
+    private void recover() throws IOException, SQLException {
+        long checkpoint = 0;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(READ_CHECKPOINT);
+             ResultSet result = statement.executeQuery()) {
+            if (result.next()) {
+                checkpoint = result.getLong(1);
+            }
+        }
+        SortedMap<Long, long[]> changes = new TreeMap<>();
+        long last = checkpoint;
+        for (Map.Entry<Long, Path> segment : journal.segments().entrySet()) {
+            last = Math.max(last, segment.getKey());
+            if (segment.getKey() > checkpoint) {
+                StockJournal.read(segment.getValue(), (id, stockDelta, reservedDelta) -> {
+                    long[] change = changes.computeIfAbsent(id, key -> new long[2]);
+                    change[0] += stockDelta;
+                    change[1] += reservedDelta;
+                });
+            }
+        }
+        if (!changes.isEmpty()) {
+            LOG.infof("Replaying stock journal segments %d to %d for %d raw materials", checkpoint + 1, last, changes.size());
+            apply(changes, last);
+        }
+        journal.deleteThrough(last);
+        journal.open(last + 1);
+    }
+
+    /**
+     * Adds the changes to the rows and to the stock history and records the
+     * segment they cover, in one transaction.
+     */
+    private void apply(SortedMap<Long, long[]> changes, long segment) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement update = connection.prepareStatement(APPLY);
+                 PreparedStatement movements = connection.prepareStatement(StockHistory.RECORD_MOVEMENT);
+                 PreparedStatement checkpoint = connection.prepareStatement(WRITE_CHECKPOINT)) {
+                for (Map.Entry<Long, long[]> change : changes.entrySet()) {
+                    int stockDelta = Math.toIntExact(change.getValue()[0]);
+                    int reservedDelta = Math.toIntExact(change.getValue()[1]);
+                    update.setInt(1, stockDelta);
+                    update.setInt(2, reservedDelta);
+                    update.setLong(3, change.getKey());
+                    update.addBatch();
+                    StockHistory.addMovement(movements, change.getKey(), StockMovementKind.LEDGER, stockDelta, reservedDelta);
+                }
+                update.executeBatch();
+                movements.executeBatch();
+                checkpoint.setLong(1, segment);
+                checkpoint.executeUpdate();
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        applied.accept(changes.keySet());
+    }
+
+    private Object stripe(long id) {
+        return stripes[Long.hashCode(id) & (stripes.length - 1)];
+    }
+
+    /** Guarded by the stripe lock of its id. */
+    private static final class Cell {
+        int stock;
+        int reserved;
+        long pendingStock;
+        long pendingReserved;
+
+        Cell(int stock, int reserved) {
+            this.stock = stock;
+            this.reserved = reserved;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.service;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Stock of one raw material as seen by the stock movements: units available
+ * and units held by open reservations.
+ */
+@RegisterForReflection
+public class StockLevel {
+
+    private final long id;
+    private final int stockQuantity;
+    private final int reservedQuantity;
+
+    public StockLevel(long id, int stockQuantity, int reservedQuantity) {
+        this.id = id;
+        this.stockQuantity = stockQuantity;
+        this.reservedQuantity = reservedQuantity;
+    }
+
+    public long getId() { return id; }
+    public int getStockQuantity() { return stockQuantity; }
+    public int getReservedQuantity() { return reservedQuantity; }
+}
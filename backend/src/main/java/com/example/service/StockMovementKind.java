@@ -0,0 +1,21 @@
+package com.example.service;
+
+/**
+ * What caused a row of the stock history.
+ */
+public enum StockMovementKind {
+    /** Stock a raw material had when the history started. */
+    BASELINE,
+    CREATE,
+    /** An edit that set a new stock quantity. */
+    ADJUST,
+    RESERVE,
+    RELEASE,
+    CONSUME,
+    /** Raw materials used by a production order. */
+    PRODUCTION,
+    IMPORT,
+    /** Movements accumulated by the stock ledger during one flush interval. */
+    LEDGER,
+    DELETE
+}
@@ -0,0 +1,126 @@
+package com.example.service;
+
+import com.example.repository.RawMaterialRepository;
+import io.quarkus.runtime.Startup;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Reservations, releases and consumptions of raw material stock.
+ *
+ * By default each movement is a conditional UPDATE of the raw material row.
+ * With {@code stock.ledger.enabled} they are served from the in-memory
+ * {@link StockLedger} instead and reach the database in periodic batches.
+ * Either way, every other write that changes stock must run inside
+ * {@link #exclusive}.
+ *
+ * Created at startup, so a ledger replays its journal before the first
+ * request.
+ */
+@Startup
+@ApplicationScoped
+public class StockMovements {
+
+    @Inject
+    RawMaterialRepository repository;
+
+    @Inject
+    DataSource dataSource;
+
+    @Inject
+    EntityCacheInvalidator cacheInvalidator;
+
+    @ConfigProperty(name = "stock.ledger.enabled", defaultValue = "false")
+    boolean ledgerEnabled;
+
+    @ConfigProperty(name = "stock.ledger.journal-dir", defaultValue = "data/stock-ledger")
+    String journalDirectory;
+
+    @ConfigProperty(name = "stock.ledger.journal-sync", defaultValue = "true")
+    boolean journalSync;
+
+    @ConfigProperty(name = "stock.ledger.stripes", defaultValue = "64")
+    int stripes;
+
+    @ConfigProperty(name = "stock.ledger.flush-interval", defaultValue = "1s")
+    Duration flushInterval;
+
+    private StockStore store;
+
+    @PostConstruct
+    void init() {
+        store = ledgerEnabled
+            ? new StockLedger(dataSource, Path.of(journalDirectory), journalSync, stripes, flushInterval,
+                cacheInvalidator::evictRawMaterials)
+            : new DatabaseStockStore(repository);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        store.close();
+    }
+
+    public boolean isLedgerEnabled() {
+        return ledgerEnabled;
+    }
+
+    public Optional<StockLevel> level(long rawMaterialId) {
+        return store.level(rawMaterialId);
+    }
+
+    /**
+     * Available units of each raw material that still exists, as movements
+     * see them now.
+     */
+    public Map<Long, Integer> stock(Collection<Long> rawMaterialIds) {
+        return store.stock(rawMaterialIds);
+    }
+
+    /**
+     * Stock the store holds newer than the {@code raw_material} rows, by raw
+     * material id; overlay it on anything read from those rows.
+     */
+    public Map<Long, Integer> unflushedStock() {
+        return store.unflushedStock();
+    }
+
+    /**
+     * @return the new level, or empty when the raw material does not exist or has less stock than requested
+     */
+    public Optional<StockLevel> reserve(long rawMaterialId, int quantity) {
+        return store.reserve(rawMaterialId, quantity);
+    }
+
+    /**
+     * @return the new level, or empty when the raw material does not exist or has fewer units reserved
+     */
+    public Optional<StockLevel> release(long rawMaterialId, int quantity) {
+        return store.release(rawMaterialId, quantity);
+    }
+
+    /**
+     * @return the new level, or empty when the raw material does not exist or has fewer units reserved
+     */
+    public Optional<StockLevel> consume(long rawMaterialId, int quantity) {
+        return store.consume(rawMaterialId, quantity);
+    }
+
+    /**
+     * Runs a write that changes stock in the database directly. It must
+     * commit before returning; with the ledger enabled, movements wait for it.
+     */
+    public <T> T exclusive(Supplier<T> write) {
+        return store.exclusive(write);
+    }
+}
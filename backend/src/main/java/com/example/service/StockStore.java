@@ -0,0 +1,43 @@
+package com.example.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Where reservations are applied: straight to the database or to the
+ * in-memory ledger. Movements return empty when the raw material does not
+ * exist or the quantity would go below zero.
+ */
+interface StockStore {
+
+    Optional<StockLevel> level(long id);
+
+    /** Available units of each raw material that exists, as of now. */
+    Map<Long, Integer> stock(Collection<Long> ids);
+
+    /**
+     * Stock of the raw materials whose current level may not have reached
+     * the database yet, by id.
+     */
+    Map<Long, Integer> unflushedStock();
+
+    /** Moves units from stock to reserved. */
+    Optional<StockLevel> reserve(long id, int quantity);
+
+    /** Returns reserved units to stock. */
+    Optional<StockLevel> release(long id, int quantity);
+
+    /** Removes reserved units for good. */
+    Optional<StockLevel> consume(long id, int quantity);
+
+    /**
+     * Runs a write that changes stock without going through these movements,
+     * such as an edit, an import or a production order, so that it sees
+     * every earlier movement and no movement sees the stock it replaces.
+     */
+    <T> T exclusive(Supplier<T> write);
+
+    void close();
+}
@@ -0,0 +1,117 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Meters of the production suggestion engine, registered once so the hot
+ * path only looks them up in a map.
+ *
+ * <ul>
+ *   <li>{@code production.suggestion.phase}: time per phase, tagged with the
+ *       phase and the strategy of the request that ran it. {@code load} reads
+ *       the bill of materials, {@code compile} turns it into the model and
+ *       sorts products by price, {@code compute} runs the optimizer or repairs
+ *       the greedy plan, {@code serialize} writes the response.</li>
+ *   <li>{@code production.suggestion.products.evaluated}: products the
+ *       optimizer looked at per computed suggestion.</li>
+ *   <li>{@code production.suggestion.requests}: suggestions served, tagged
+ *       {@code cache=hit} when the cached plan was still current.</li>
+ *   <li>{@code production.suggestion.recompute.products}: products
+ *       re-evaluated per model refresh, tagged with the mode.</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class SuggestionMetrics {
+
+    public enum Phase {
+        LOAD, COMPILE, COMPUTE, SERIALIZE;
+
+        final String tag = name().toLowerCase();
+    }
+
+    @Inject
+    MeterRegistry registry;
+
+    private final Map<String, Meters> byStrategy = new ConcurrentHashMap<>();
+    private DistributionSummary fullRecomputes;
+    private DistributionSummary incrementalRecomputes;
+
+    @PostConstruct
+    void init() {
+        fullRecomputes = recomputeSummary("full");
+        incrementalRecomputes = recomputeSummary("incremental");
+    }
+
+    public <T> T time(Phase phase, String strategy, Supplier<T> work) {
+        return meters(strategy).phases[phase.ordinal()].record(work);
+    }
+
+    public Timer timer(Phase phase, String strategy) {
+        return meters(strategy).phases[phase.ordinal()];
+    }
+
+    void served(String strategy, boolean cached) {
+        Meters meters = meters(strategy);
+        (cached ? meters.hits : meters.misses).increment();
+    }
+
+    void evaluated(String strategy, int products) {
+        meters(strategy).evaluated.record(products);
+    }
+
+    void recomputed(boolean full, int products) {
+        (full ? fullRecomputes : incrementalRecomputes).record(products);
+    }
+
+    private Meters meters(String strategy) {
+        return byStrategy.computeIfAbsent(strategy, Meters::new);
+    }
+
+    private DistributionSummary recomputeSummary(String mode) {
+        return DistributionSummary.builder("production.suggestion.recompute.products")
+            .description("Products re-evaluated when the suggestion model is refreshed")
+            .tag("mode", mode)
+            .register(registry);
+    }
+
+    private final class Meters {
+        final Timer[] phases = new Timer[Phase.values().length];
+        final DistributionSummary evaluated;
+        final Counter hits;
+        final Counter misses;
+
+        Meters(String strategy) {
+            for (Phase phase : Phase.values()) {
+                phases[phase.ordinal()] = Timer.builder("production.suggestion.phase")
+                    .description("Time spent in each phase of a production suggestion")
+                    .tag("phase", phase.tag)
+                    .tag("strategy", strategy)
+                    .register(registry);
+            }
+            evaluated = DistributionSummary.builder("production.suggestion.products.evaluated")
+                .description("Products evaluated per computed production suggestion")
+                .tag("strategy", strategy)
+                .register(registry);
+            hits = requests(strategy, "hit");
+            misses = requests(strategy, "miss");
+        }
+
+        private Counter requests(String strategy, String cache) {
+            return Counter.builder("production.suggestion.requests")
+                .description("Production suggestions served")
+                .tag("strategy", strategy)
+                .tag("cache", cache)
+                .register(registry);
+        }
+    }
+}
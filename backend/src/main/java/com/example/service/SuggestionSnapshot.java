@@ -0,0 +1,22 @@
+package com.example.service;
+
+/**
+ * A production plan computed for one catalog version, with the entity tag
+ * clients use to revalidate it.
+ */
+public final class SuggestionSnapshot {
+
+    private final long version;
+    private final String etag;
+    private final ProductionPlan plan;
+
+    SuggestionSnapshot(long version, String etag, ProductionPlan plan) {
+        this.version = version;
+        this.etag = etag;
+        this.plan = plan;
+    }
+
+    public long getVersion() { return version; }
+    public String getEtag() { return etag; }
+    public ProductionPlan getPlan() { return plan; }
+}
@@ -0,0 +1,21 @@
+-- Migration: Generate ids from pooled sequences instead of identity columns
+-- Hibernate reserves ids in blocks of 50 (one nextval per block), which lets inserts be batched.
+-- A sequence value n hands out the ids n-49..n, so each sequence resumes after the highest id in use.
+
+CREATE SEQUENCE IF NOT EXISTS product_seq START WITH 50 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS raw_material_seq START WITH 50 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS product_raw_material_seq START WITH 50 INCREMENT BY 50;
+
+-- On a new database the tables are created by Hibernate after this runs
+DO $$
+BEGIN
+  IF to_regclass('product') IS NOT NULL THEN
+    PERFORM setval('product_seq', max(id)) FROM product HAVING max(id) IS NOT NULL;
+  END IF;
+  IF to_regclass('raw_material') IS NOT NULL THEN
+    PERFORM setval('raw_material_seq', max(id)) FROM raw_material HAVING max(id) IS NOT NULL;
+  END IF;
+  IF to_regclass('product_raw_material') IS NOT NULL THEN
+    PERFORM setval('product_raw_material_seq', max(id)) FROM product_raw_material HAVING max(id) IS NOT NULL;
+  END IF;
+END $$;
@@ -0,0 +1,12 @@
+-- Migration: Track reserved stock and add an optimistic lock version to raw materials
+-- Reservations move units from stock_quantity to reserved_quantity with conditional updates;
+-- every write to a raw material increments version so stale edits are rejected.
+
+-- On a new database the columns are created by Hibernate after this runs
+DO $$
+BEGIN
+  IF to_regclass('raw_material') IS NOT NULL THEN
+    ALTER TABLE raw_material ADD COLUMN IF NOT EXISTS reserved_quantity integer NOT NULL DEFAULT 0;
+    ALTER TABLE raw_material ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+  END IF;
+END $$;
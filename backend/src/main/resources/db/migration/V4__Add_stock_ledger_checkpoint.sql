@@ -0,0 +1,7 @@
+-- Migration: Record how far the stock ledger has written its journal back to raw_material
+-- Holds one row with the last journal segment applied; segments after it are replayed on startup.
+
+CREATE TABLE IF NOT EXISTS stock_ledger_checkpoint (
+    id integer PRIMARY KEY,
+    segment bigint NOT NULL
+);
@@ -0,0 +1,39 @@
+-- Migration: Keep an append-only history of stock changes with periodic snapshots
+-- Every change to stock_quantity or reserved_quantity adds a stock_movement row with the deltas;
+-- stock at any past time is the latest snapshot before it plus the movements in between.
+
+CREATE TABLE IF NOT EXISTS stock_movement (
+    id bigserial PRIMARY KEY,
+    raw_material_id bigint NOT NULL,
+    occurred_at timestamptz NOT NULL DEFAULT clock_timestamp(),
+    kind varchar(16) NOT NULL,
+    stock_delta integer NOT NULL,
+    reserved_delta integer NOT NULL
+);
+
+-- Rows arrive in time order, so a BRIN index keeps time range scans sequential at a tiny size
+CREATE INDEX IF NOT EXISTS idx_stock_movement_occurred_at ON stock_movement USING brin (occurred_at);
+CREATE INDEX IF NOT EXISTS idx_stock_movement_raw_material ON stock_movement (raw_material_id, occurred_at);
+
+CREATE TABLE IF NOT EXISTS stock_snapshot (
+    id bigserial PRIMARY KEY,
+    taken_at timestamptz NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS stock_snapshot_level (
+    snapshot_id bigint NOT NULL REFERENCES stock_snapshot (id) ON DELETE CASCADE,
+    raw_material_id bigint NOT NULL,
+    stock_quantity integer NOT NULL,
+    reserved_quantity integer NOT NULL,
+    PRIMARY KEY (snapshot_id, raw_material_id)
+);
+
+-- Stock that existed before the history starts
+DO $$
+BEGIN
+  IF to_regclass('raw_material') IS NOT NULL THEN
+    INSERT INTO stock_movement (raw_material_id, kind, stock_delta, reserved_delta)
+    SELECT id, 'BASELINE', coalesce(stock_quantity, 0), coalesce(reserved_quantity, 0)
+    FROM raw_material;
+  END IF;
+END $$;
@@ -0,0 +1,41 @@
+-- Migration: Materialize the bill of materials exploded across all levels
+-- product_requirement holds the raw materials one unit of each product consumes, its own plus those of its
+-- components at every level; the application refreshes a product and every product containing it whenever
+-- their requirements or components change, in the same transaction.
+
+-- No foreign keys: rows of a deleted product or raw material are removed by the refresh that follows
+CREATE TABLE IF NOT EXISTS product_requirement (
+    product_id bigint NOT NULL,
+    raw_material_id bigint NOT NULL,
+    required_quantity integer NOT NULL,
+    PRIMARY KEY (product_id, raw_material_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_product_requirement_raw_material ON product_requirement (raw_material_id);
+
+-- Requirements that existed before; quantities too large for an integer are capped, no stock covers them
+DO $$
+BEGIN
+  IF to_regclass('product_raw_material') IS NOT NULL AND to_regclass('product_component') IS NOT NULL THEN
+    INSERT INTO product_requirement (product_id, raw_material_id, required_quantity)
+    WITH RECURSIVE exploded (product_id, part_id, units) AS (
+      SELECT id, id, 1::numeric FROM product
+      UNION ALL
+      SELECT e.product_id, pc.component_id, e.units * pc.required_quantity
+      FROM exploded e JOIN product_component pc ON pc.product_id = e.part_id
+      WHERE pc.required_quantity > 0
+    )
+    SELECT e.product_id, prm.raw_material_id, least(sum(e.units * prm.required_quantity), 2147483647)
+    FROM exploded e JOIN product_raw_material prm ON prm.product_id = e.part_id
+    WHERE prm.required_quantity > 0
+    GROUP BY e.product_id, prm.raw_material_id
+    ON CONFLICT DO NOTHING;
+  ELSIF to_regclass('product_raw_material') IS NOT NULL THEN
+    INSERT INTO product_requirement (product_id, raw_material_id, required_quantity)
+    SELECT product_id, raw_material_id, least(sum(required_quantity::numeric), 2147483647)
+    FROM product_raw_material
+    WHERE required_quantity > 0
+    GROUP BY product_id, raw_material_id
+    ON CONFLICT DO NOTHING;
+  END IF;
+END $$;
@@ -0,0 +1,31 @@
+-- Migration: Count changes to the catalog the production suggestion plans from
+-- catalog_version holds one row bumped by every statement that changes the exploded bill of materials or the
+-- code, name or price of a product; a saved copy of the catalog tagged with an older value is stale.
+-- Stock and product quantities are not counted: they change all the time and are always read fresh.
+
+CREATE TABLE IF NOT EXISTS catalog_version (
+    id integer PRIMARY KEY CHECK (id = 1),
+    version bigint NOT NULL
+);
+
+INSERT INTO catalog_version (id, version) VALUES (1, 0) ON CONFLICT DO NOTHING;
+
+CREATE OR REPLACE FUNCTION bump_catalog_version() RETURNS trigger AS $$
+BEGIN
+  UPDATE catalog_version SET version = version + 1 WHERE id = 1;
+  RETURN NULL;
+END $$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE TRIGGER catalog_version_product_requirement
+AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON product_requirement
+FOR EACH STATEMENT EXECUTE FUNCTION bump_catalog_version();
+
+-- On a new database Hibernate creates product after this runs; the application installs the same trigger on startup
+DO $$
+BEGIN
+  IF to_regclass('product') IS NOT NULL THEN
+    CREATE OR REPLACE TRIGGER catalog_version_product
+    AFTER DELETE OR UPDATE OF code, name, price ON product
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_catalog_version();
+  END IF;
+END $$;
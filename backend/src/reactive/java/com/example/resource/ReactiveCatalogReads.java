@@ -0,0 +1,174 @@
+package com.example.resource;
+
+import com.example.service.ProductionPlanner;
+import com.example.service.SuggestionSnapshot;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.Tuple;
+import io.vertx.sqlclient.data.Numeric;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads through the reactive PostgreSQL client, on the event loop that
+ * received the request; no thread waits while a query runs.
+ *
+ * Lists send the same SQL as their JPQL projections. A list without
+ * {@code limit} is written on a worker thread, each batch flushed before
+ * the next is read, so a response never holds more than one batch; only
+ * the batch queries wait on that thread, the event loop never does.
+ *
+ * A current production suggestion is answered straight from the planner's
+ * cache. Recomputing one still loads the bill of materials through
+ * Hibernate, so that rare path moves to a worker thread.
+ */
+@ApplicationScoped
+class ReactiveCatalogReads implements CatalogReads {
+
+    private static final String RAW_MATERIAL = "select id, code, name, stock_quantity, reserved_quantity, version"
+        + " from raw_material where id = $1";
+    private static final String ASSOCIATION = "select prm.id, prm.required_quantity,"
+        + " p.id, p.code, p.name, p.price, p.quantity,"
+        + " rm.id, rm.code, rm.name, rm.stock_quantity, rm.reserved_quantity, rm.version"
+        + " from product_raw_material prm left join product p on p.id = prm.product_id"
+        + " left join raw_material rm on rm.id = prm.raw_material_id where prm.id = $1";
+
+    @Inject
+    PgPool client;
+
+    @Inject
+    ProductionPlanner planner;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Override
+    public Uni<Response> list(KeysetList list, Long after, Integer limit, String fields, UriInfo uriInfo) {
+        KeysetList.Selection selection;
+        try {
+            selection = list.select(after, limit, fields);
+        } catch (IllegalArgumentException e) {
+            return Uni.createFrom().failure(e);
+        }
+        if (limit != null) {
+            return Uni.combine().all().unis(rows(list, selection, selection.after, limit + 1), estimateCount(list))
+                .combinedWith((rows, total) -> list.page(objectMapper, selection, rows, total, uriInfo));
+        }
+        return estimateCount(list)
+            .emitOn(Infrastructure.getDefaultWorkerPool())
+            .map(total -> Response.ok((StreamingOutput) output -> {
+                try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+                    generator.writeStartArray();
+                    long last = selection.after;
+                    List<Object[]> batch;
+                    do {
+                        batch = rows(list, selection, last, KeysetList.BATCH_SIZE).await().indefinitely();
+                        last = selection.write(generator, batch, last);
+                        generator.flush();
+                    } while (batch.size() == KeysetList.BATCH_SIZE);
+                    generator.writeEndArray();
+                }
+            }).header(KeysetList.TOTAL_HEADER, total).build());
+    }
+
+    @Override
+    public Uni<Response> rawMaterial(Long id) {
+        return client.preparedQuery(RAW_MATERIAL).execute(Tuple.of(id))
+            .map(rows -> rows.size() == 0 ? Response.noContent().build()
+                : Response.ok(rawMaterial(rows.iterator().next(), 0)).build());
+    }
+
+    @Override
+    public Uni<Response> association(Long id) {
+        return client.preparedQuery(ASSOCIATION).execute(Tuple.of(id))
+            .map(rows -> {
+                if (rows.size() == 0) {
+                    return Response.noContent().build();
+                }
+                Row row = rows.iterator().next();
+                Map<String, Object> association = new LinkedHashMap<>();
+                association.put("id", row.getLong(0));
+                association.put("product", row.getValue(2) == null ? null : product(row, 2));
+                association.put("rawMaterial", row.getValue(7) == null ? null : rawMaterial(row, 7));
+                association.put("requiredQuantity", row.getInteger(1));
+                return Response.ok(association).build();
+            });
+    }
+
+    @Override
+    public Uni<SuggestionSnapshot> suggestion(String strategy) {
+        return Uni.createFrom().deferred(() -> planner.current(strategy)
+            .map(snapshot -> Uni.createFrom().item(snapshot))
+            .orElseGet(() -> Uni.createFrom()
+                .item(() -> QuarkusTransaction.requiringNew().call(() -> planner.suggest(strategy)))
+                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())));
+    }
+
+    private Uni<List<Object[]>> rows(KeysetList list, KeysetList.Selection selection, long after, int limit) {
+        return client.preparedQuery(list.sql(selection)).execute(Tuple.of(after, limit))
+            .map(ReactiveCatalogReads::toArrays);
+    }
+
+    /**
+     * Row estimate of the list's table, counted only when the table was
+     * never analyzed.
+     */
+    private Uni<Long> estimateCount(KeysetList list) {
+        return client.preparedQuery(KeysetList.estimateSql()).execute(Tuple.of(list.table()))
+            .chain(rows -> {
+                Long estimate = rows.size() == 0 ? null : rows.iterator().next().getLong(0);
+                if (estimate != null && estimate >= 0) {
+                    return Uni.createFrom().item(estimate);
+                }
+                return client.query(list.countSql()).execute().map(count -> count.iterator().next().getLong(0));
+            });
+    }
+
+    private static List<Object[]> toArrays(RowSet<Row> rows) {
+        List<Object[]> arrays = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            Object[] array = new Object[row.size()];
+            for (int i = 0; i < array.length; i++) {
+                Object value = row.getValue(i);
+                array[i] = value instanceof Numeric ? ((Numeric) value).bigDecimalValue() : value;
+            }
+            arrays.add(array);
+        }
+        return arrays;
+    }
+
+    private static Map<String, Object> product(Row row, int from) {
+        Map<String, Object> product = new LinkedHashMap<>();
+        product.put("id", row.getLong(from));
+        product.put("code", row.getString(from + 1));
+        product.put("name", row.getString(from + 2));
+        product.put("price", row.getBigDecimal(from + 3));
+        product.put("quantity", row.getInteger(from + 4));
+        return product;
+    }
+
+    private static Map<String, Object> rawMaterial(Row row, int from) {
+        Map<String, Object> rawMaterial = new LinkedHashMap<>();
+        rawMaterial.put("id", row.getLong(from));
+        rawMaterial.put("code", row.getString(from + 1));
+        rawMaterial.put("name", row.getString(from + 2));
+        rawMaterial.put("stockQuantity", row.getInteger(from + 3));
+        rawMaterial.put("reservedQuantity", row.getInteger(from + 4));
+        rawMaterial.put("version", row.getLong(from + 5));
+        return rawMaterial;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.resource;
+
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Writes {@link StreamingOutput} bodies of JSON endpoints as they are.
+ * RESTEasy Reactive would otherwise hand them to Jackson, which sees a
+ * lambda with no properties.
+ */
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class StreamingJsonWriter implements MessageBodyWriter<StreamingOutput> {
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return StreamingOutput.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void writeTo(StreamingOutput output, Class<?> type, Type genericType, Annotation[] annotations,
+                        MediaType mediaType, MultivaluedMap<String, Object> headers, OutputStream entityStream)
+        throws IOException {
+        output.write(entityStream);
+    }
+}
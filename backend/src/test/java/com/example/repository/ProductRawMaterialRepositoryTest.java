@@ -0,0 +1,142 @@
+package com.example.repository;
+
+import com.example.model.Product;
+import com.example.model.ProductRawMaterial;
+import com.example.model.RawMaterial;
+import com.example.service.BillOfMaterials;
+import com.example.service.FlattenedRequirements;
+import io.quarkus.test.TestTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import jakarta.inject.Inject;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the single-query bill of materials loading
+ */
+@QuarkusTest
+@DisplayName("Bill of Materials Loading Tests")
+public class ProductRawMaterialRepositoryTest {
+
+    @Inject
+    ProductRawMaterialRepository repository;
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    RawMaterialRepository rawMaterialRepository;
+
+    @Inject
+    FlattenedRequirements flattenedRequirements;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Test
+    @TestTransaction
+    @DisplayName("Should load the bill of materials with a constant number of statements")
+    public void testStatementCountIsConstant() {
+        seed("BOM-SMALL", 5, 3);
+        long smallCatalogStatements = countLoadStatements();
+
+        seed("BOM-LARGE", 50, 3);
+        long largeCatalogStatements = countLoadStatements();
+
+        assertEquals(1, smallCatalogStatements);
+        assertEquals(smallCatalogStatements, largeCatalogStatements);
+    }
+
+    @Test
+    @TestTransaction
+    @DisplayName("Should group requirements and stock per product")
+    public void testBillOfMaterialsContents() {
+        seed("BOM-CONTENT", 2, 4);
+        repository.getEntityManager().flush();
+        repository.getEntityManager().clear();
+
+        BillOfMaterials bom = repository.loadBillOfMaterials();
+
+        BillOfMaterials.Item item = bom.getItems().stream()
+            .filter(i -> i.getProduct().getCode().equals("BOM-CONTENT-P0"))
+            .findFirst()
+            .orElseThrow();
+        assertEquals(4, item.getRequirements().size());
+        for (BillOfMaterials.Requirement requirement : item.getRequirements()) {
+            assertEquals(100, bom.getStock().get(requirement.getRawMaterialId()));
+            assertTrue(requirement.getRequiredQuantity() > 0);
+        }
+    }
+
+    @Test
+    @TestTransaction
+    @DisplayName("Should write new entities in JDBC batches")
+    public void testInsertsAreBatched() {
+        repository.getEntityManager().flush();
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+
+        seed("BOM-BATCH", 100, 2);
+        repository.getEntityManager().flush();
+
+        assertEquals(302, statistics.getEntityInsertCount());
+        // 302 interleaved inserts: a handful of batches plus sequence calls
+        assertTrue(statistics.getPrepareStatementCount() < 20,
+            "Expected batched inserts but prepared " + statistics.getPrepareStatementCount() + " statements");
+    }
+
+    // ========== Helper Methods ==========
+
+    private long countLoadStatements() {
+        repository.getEntityManager().flush();
+        repository.getEntityManager().clear();
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+
+        BillOfMaterials bom = repository.loadBillOfMaterials();
+        for (BillOfMaterials.Item item : bom.getItems()) {
+            item.getProduct().getPrice();
+            item.getRequirements().forEach(BillOfMaterials.Requirement::getRawMaterialId);
+        }
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void seed(String prefix, int products, int materialsPerProduct) {
+        flattenedRequirements.lockForChanges();
+        List<Long> productIds = new ArrayList<>();
+        RawMaterial[] materials = new RawMaterial[materialsPerProduct];
+        for (int m = 0; m < materialsPerProduct; m++) {
+            RawMaterial material = new RawMaterial();
+            material.setCode(prefix + "-RM" + m);
+            material.setName("Material " + m);
+            material.setStockQuantity(100);
+            rawMaterialRepository.persist(material);
+            materials[m] = material;
+        }
+        for (int p = 0; p < products; p++) {
+            Product product = new Product();
+            product.setCode(prefix + "-P" + p);
+            product.setName("Product " + p);
+            product.setPrice(BigDecimal.valueOf(10 + p));
+            productRepository.persist(product);
+            productIds.add(product.getId());
+            for (int m = 0; m < materialsPerProduct; m++) {
+                ProductRawMaterial prm = new ProductRawMaterial();
+                prm.setProduct(product);
+                prm.setRawMaterial(materials[m]);
+                prm.setRequiredQuantity(m + 1);
+                repository.persist(prm);
+            }
+        }
+        repository.flush();
+        flattenedRequirements.refresh(productIds);
+    }
+}
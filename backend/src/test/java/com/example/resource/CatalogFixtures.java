@@ -0,0 +1,50 @@
+package com.example.resource;
+
+import io.restassured.http.ContentType;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Products, raw materials and their associations created through the API
+ * for integration tests. Each call expects 200 and returns the new id; the
+ * test deletes what it created.
+ */
+public final class CatalogFixtures {
+
+    private CatalogFixtures() {
+    }
+
+    public static Long product(String code, String price) {
+        return given()
+            .contentType(ContentType.JSON)
+            .body(String.format("{\"code\": \"%s\", \"name\": \"%s\", \"price\": %s}", code, code, price))
+            .when()
+            .post("/products")
+            .then()
+            .statusCode(200)
+            .extract().jsonPath().getLong("id");
+    }
+
+    public static Long rawMaterial(String code, int stock) {
+        return given()
+            .contentType(ContentType.JSON)
+            .body(String.format("{\"code\": \"%s\", \"name\": \"%s\", \"stockQuantity\": %d}", code, code, stock))
+            .when()
+            .post("/raw-materials")
+            .then()
+            .statusCode(200)
+            .extract().jsonPath().getLong("id");
+    }
+
+    public static Long requirement(Long productId, Long rawMaterialId, int requiredQuantity) {
+        return given()
+            .contentType(ContentType.JSON)
+            .body(String.format("{\"product\": {\"id\": %d}, \"rawMaterial\": {\"id\": %d}, \"requiredQuantity\": %d}",
+                productId, rawMaterialId, requiredQuantity))
+            .when()
+            .post("/products-raw-materials")
+            .then()
+            .statusCode(200)
+            .extract().jsonPath().getLong("id");
+    }
+}
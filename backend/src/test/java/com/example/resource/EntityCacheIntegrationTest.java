@@ -0,0 +1,145 @@
+package com.example.resource;
+
+import com.example.repository.ProductRawMaterialRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import jakarta.inject.Inject;
+
+import static com.example.resource.CatalogFixtures.*;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Tests for the second-level and query caches
+ * Counts database round trips of the read-heavy paths with a cold and a warm cache,
+ * and checks that writes outside the session never leave stale entries behind
+ */
+@QuarkusTest
+@DisplayName("Entity Cache Integration Tests")
+public class EntityCacheIntegrationTest {
+
+    private static final String RAW_MATERIALS_ENDPOINT = "/raw-materials";
+    private static final String PRODUCTS_ENDPOINT = "/products";
+    private static final String ASSOCIATIONS_ENDPOINT = "/products-raw-materials";
+    private static final int REQUESTS = 20;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Inject
+    ProductRawMaterialRepository productRawMaterialRepository;
+
+    private Long productId;
+    private Long materialId;
+    private Long associationId;
+
+    @BeforeEach
+    public void setUp() {
+        productId = product("CACHE-P-" + System.nanoTime(), "10.00");
+        materialId = rawMaterial("CACHE-RM-" + System.nanoTime(), 100);
+        associationId = requirement(productId, materialId, 2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        given().when().delete(PRODUCTS_ENDPOINT + "/{id}", productId);
+        given().when().delete(RAW_MATERIALS_ENDPOINT + "/{id}", materialId);
+    }
+
+    @Test
+    @DisplayName("Should serve repeated reads without database round trips")
+    public void testRoundTripsPerRequest() {
+        Runnable getRawMaterial = () -> given()
+            .when().get(RAW_MATERIALS_ENDPOINT + "/{id}", materialId)
+            .then().statusCode(200);
+        Runnable getAssociation = () -> given()
+            .when().get(ASSOCIATIONS_ENDPOINT + "/{id}", associationId)
+            .then().statusCode(200);
+        Runnable loadBillOfMaterials = () -> QuarkusTransaction.requiringNew().run(productRawMaterialRepository::loadBillOfMaterials);
+
+        double[] rawMaterial = {statementsPerRequest(getRawMaterial, true), statementsPerRequest(getRawMaterial, false)};
+        double[] association = {statementsPerRequest(getAssociation, true), statementsPerRequest(getAssociation, false)};
+        double[] billOfMaterials = {statementsPerRequest(loadBillOfMaterials, true), statementsPerRequest(loadBillOfMaterials, false)};
+
+        // The reactive build (-Dreactive) reads these two through the reactive client, never through Hibernate
+        if (!Boolean.getBoolean("reactive")) {
+            assertTrue(rawMaterial[0] >= 1);
+            assertTrue(association[0] >= 1);
+        }
+        assertEquals(0, rawMaterial[1]);
+        assertEquals(0, association[1]);
+        assertTrue(billOfMaterials[0] >= 1);
+        assertEquals(0, billOfMaterials[1]);
+
+        assertTrue(sessionFactory.getStatistics().getQueryCacheHitCount() > 0);
+        given()
+            .when().get("/q/metrics")
+            .then()
+            .statusCode(200)
+            .body(containsString("hibernate_second_level_cache_requests"));
+    }
+
+    @Test
+    @DisplayName("Should never serve stale stock after writes that bypass the session")
+    public void testWritesInvalidateCachedEntries() {
+        assertStock(100);
+        assertStock(100);
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"quantity\": 30}")
+            .when().post(RAW_MATERIALS_ENDPOINT + "/{id}/reserve", materialId)
+            .then().statusCode(200);
+        assertStock(70);
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("{\"productId\": %d, \"quantity\": 5}", productId))
+            .when().post("/production-orders")
+            .then().statusCode(200);
+        assertStock(60);
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("{\"code\": \"CACHE-RM-%d\", \"name\": \"Cached material\", \"stockQuantity\": 500}", materialId))
+            .when().put(RAW_MATERIALS_ENDPOINT + "/{id}", materialId)
+            .then().statusCode(200);
+        assertStock(500);
+    }
+
+    // ========== Helper Methods ==========
+
+    /**
+     * Average prepared statements per call, with the caches emptied before every call or warmed up once.
+     */
+    private double statementsPerRequest(Runnable request, boolean cold) {
+        sessionFactory.getCache().evictAllRegions();
+        request.run();
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        for (int i = 0; i < REQUESTS; i++) {
+            if (cold) {
+                sessionFactory.getCache().evictAllRegions();
+            }
+            request.run();
+        }
+        return (double) statistics.getPrepareStatementCount() / REQUESTS;
+    }
+
+    private void assertStock(int expected) {
+        given()
+            .when().get(RAW_MATERIALS_ENDPOINT + "/{id}", materialId)
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", is(expected));
+    }
+}
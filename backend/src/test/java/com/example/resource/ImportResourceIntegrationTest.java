@@ -0,0 +1,155 @@
+package com.example.resource;
+
+import com.example.repository.ProductRawMaterialRepository;
+import com.example.repository.ProductRepository;
+import com.example.repository.RawMaterialRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import jakarta.inject.Inject;
+import java.nio.charset.StandardCharsets;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Integration Tests for ImportResource
+ * Tests NDJSON and CSV upserts, BOM code resolution and the row-level error report
+ */
+@QuarkusTest
+@DisplayName("Bulk Import Tests")
+public class ImportResourceIntegrationTest {
+
+    private static final String IMPORT_ENDPOINT = "/import";
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    RawMaterialRepository rawMaterialRepository;
+
+    @Inject
+    ProductRawMaterialRepository productRawMaterialRepository;
+
+    @AfterEach
+    public void tearDown() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            productRawMaterialRepository.delete("product.id in (select p.id from Product p where p.code like ?1) "
+                + "or rawMaterial.id in (select rm.id from RawMaterial rm where rm.code like ?1)", "IMP-%");
+            productRepository.delete("code like ?1", "IMP-%");
+            rawMaterialRepository.delete("code like ?1", "IMP-%");
+        });
+    }
+
+    @Test
+    @DisplayName("Should upsert products from NDJSON and report invalid rows")
+    public void testImportProductsNdjson() {
+        String body = """
+            {"code": "IMP-P1", "name": "Imported 1", "price": 10.50, "quantity": 3}
+            {"code": "IMP-P2", "name": "Imported 2", "price": "oops"}
+            not json
+
+            {"code": "IMP-P3", "name": "Imported 3", "price": 7}
+            """;
+
+        given()
+            .contentType(ImportResource.NDJSON)
+            .body(body.getBytes(StandardCharsets.UTF_8))
+            .when()
+            .post(IMPORT_ENDPOINT + "/products")
+            .then()
+            .statusCode(200)
+            .body("processed", is(4))
+            .body("imported", is(2))
+            .body("failed", is(2))
+            .body("errors.line", contains(2, 3))
+            .body("errors[0].error", containsString("price"));
+
+        given()
+            .contentType(ImportResource.NDJSON)
+            .body("{\"code\": \"IMP-P1\", \"name\": \"Renamed\", \"price\": 11}".getBytes(StandardCharsets.UTF_8))
+            .when()
+            .post(IMPORT_ENDPOINT + "/products")
+            .then()
+            .statusCode(200)
+            .body("imported", is(1));
+
+        given()
+            .queryParam("limit", 1000)
+            .when()
+            .get("/products")
+            .then()
+            .statusCode(200)
+            .body("findAll { it.code == 'IMP-P1' }.size()", is(1))
+            .body("find { it.code == 'IMP-P1' }.name", is("Renamed"))
+            .body("find { it.code == 'IMP-P3' }.quantity", nullValue());
+    }
+
+    @Test
+    @DisplayName("Should import raw materials and BOM rows from CSV")
+    public void testImportCsvWithBom() {
+        given()
+            .contentType(ImportResource.NDJSON)
+            .body("{\"code\": \"IMP-P1\", \"name\": \"Imported 1\", \"price\": 20}".getBytes(StandardCharsets.UTF_8))
+            .when()
+            .post(IMPORT_ENDPOINT + "/products")
+            .then()
+            .statusCode(200)
+            .body("imported", is(1));
+
+        given()
+            .contentType(ImportResource.CSV)
+            .body("code,name,stockQuantity\nIMP-R1,\"Steel, cold rolled\",100\nIMP-R2,Glue,-5\n")
+            .when()
+            .post(IMPORT_ENDPOINT + "/raw-materials")
+            .then()
+            .statusCode(200)
+            .body("imported", is(1))
+            .body("errors[0].line", is(3))
+            .body("errors[0].error", containsString("stockQuantity"));
+
+        given()
+            .contentType(ImportResource.CSV)
+            .body("productCode,rawMaterialCode,requiredQuantity\nIMP-P1,IMP-R1,5\nIMP-P1,IMP-R9,1\nIMP-P1,IMP-R1,10\n")
+            .when()
+            .post(IMPORT_ENDPOINT + "/products-raw-materials")
+            .then()
+            .statusCode(200)
+            .body("processed", is(3))
+            .body("imported", is(1))
+            .body("errors[0].error", containsString("IMP-R9"));
+
+        given()
+            .queryParam("limit", 1000)
+            .when()
+            .get("/products-raw-materials")
+            .then()
+            .statusCode(200)
+            .body("findAll { it.product.code == 'IMP-P1' }.size()", is(1))
+            .body("find { it.product.code == 'IMP-P1' }.rawMaterial.name", is("Steel, cold rolled"))
+            .body("find { it.product.code == 'IMP-P1' }.requiredQuantity", is(10));
+
+        given()
+            .when()
+            .get("/production-suggestion")
+            .then()
+            .statusCode(200)
+            .body("products.find { it.product.code == 'IMP-P1' }.quantity", is(10));
+    }
+
+    @Test
+    @DisplayName("Should reject unknown import kinds")
+    public void testUnknownKind() {
+        given()
+            .contentType(ImportResource.CSV)
+            .body("code\nX\n")
+            .when()
+            .post(IMPORT_ENDPOINT + "/customers")
+            .then()
+            .statusCode(400)
+            .body("error", containsString("customers"));
+    }
+}
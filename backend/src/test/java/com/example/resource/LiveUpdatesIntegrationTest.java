@@ -0,0 +1,275 @@
+package com.example.resource;
+
+import com.example.service.LiveUpdates;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import jakarta.inject.Inject;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static com.example.resource.CatalogFixtures.*;
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Tests for LiveUpdatesResource
+ * Tests resync, stock and suggestion changes, coalescing, resuming and fan-out to several clients
+ */
+@QuarkusTest
+@DisplayName("Live Updates Tests")
+public class LiveUpdatesIntegrationTest {
+
+    private static final String PRODUCTS_ENDPOINT = "/products";
+    private static final String RAW_MATERIALS_ENDPOINT = "/raw-materials";
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @TestHTTPResource("/live-updates")
+    URI endpoint;
+
+    @Inject
+    LiveUpdates liveUpdates;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final ExecutorService readers = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<EventStream> streams = new ArrayList<>();
+
+    private Long productId;
+    private Long materialId;
+
+    @BeforeEach
+    public void setUp() {
+        productId = product("LIVE-PROD-001", "25.00");
+        materialId = rawMaterial("LIVE-RM-001", 40);
+        requirement(productId, materialId, 4);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        streams.forEach(EventStream::close);
+        readers.shutdownNow();
+        given().when().delete(PRODUCTS_ENDPOINT + "/{id}", productId);
+        given().when().delete(RAW_MATERIALS_ENDPOINT + "/{id}", materialId);
+        // Closed streams are noticed at the next heartbeat; keep them from outliving the test
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (liveUpdates.subscribers() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+    }
+
+    @Test
+    @DisplayName("Should start with resync, then push stock changes")
+    public void testStockChange() throws InterruptedException {
+        EventStream stream = open(null);
+        assertEquals("resync", stream.next().name);
+
+        updateStock(80);
+
+        Event event = stream.await(e -> stock(e) != null);
+        assertEquals("changes", event.name);
+        assertEquals(80, stock(event));
+    }
+
+    @Test
+    @DisplayName("Should push the suggestion lines a stock change moves")
+    public void testSuggestionChange() throws InterruptedException {
+        EventStream stream = open(null);
+        assertEquals("resync", stream.next().name);
+
+        updateStock(80);
+
+        Event event = stream.await(e -> e.data.contains("LIVE-PROD-001"));
+        JsonPath json = JsonPath.from(event.data);
+        assertEquals(20, json.getInt("suggestion.products.find { it.product.code == 'LIVE-PROD-001' }.quantity"));
+        assertNotNull(json.getString("suggestion.etag"));
+    }
+
+    @Test
+    @DisplayName("Should merge a burst of changes into fewer events with the latest stock")
+    public void testCoalescedBurst() throws InterruptedException {
+        EventStream stream = open(null);
+        assertEquals("resync", stream.next().name);
+
+        for (int stock = 41; stock <= 60; stock++) {
+            updateStock(stock);
+        }
+
+        int events = 0;
+        Integer latest;
+        do {
+            latest = stock(stream.await(e -> stock(e) != null));
+            events++;
+        } while (latest != 60);
+        assertTrue(events < 20, "20 changes should arrive in fewer events, got " + events);
+    }
+
+    @Test
+    @DisplayName("Should resume after Last-Event-ID and resync from an unknown one")
+    public void testResume() throws InterruptedException {
+        // Keeps the suggestion tracked while the other client is away
+        EventStream anchor = open(null);
+        assertEquals("resync", anchor.next().name);
+        EventStream first = open(null);
+        String lastEventId = first.next().id;
+        first.close();
+
+        updateStock(70);
+        anchor.await(e -> stock(e) != null);
+
+        EventStream resumed = open(lastEventId);
+        Event event = resumed.next();
+        assertEquals("changes", event.name);
+        assertEquals(70, stock(event));
+
+        assertEquals("resync", open("some-other-run-12").next().name);
+    }
+
+    @Test
+    @DisplayName("Should deliver a change to every subscriber")
+    public void testManySubscribers() throws InterruptedException {
+        int clients = 20;
+        List<EventStream> opened = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            opened.add(open(null));
+        }
+        for (EventStream stream : opened) {
+            assertEquals("resync", stream.next().name);
+        }
+        assertTrue(liveUpdates.subscribers() >= clients);
+        String metrics = given().when().get("/q/metrics").then().statusCode(200).extract().asString();
+        assertTrue(metrics.matches("(?s).*live_updates_subscribers [1-9][0-9]+.*"));
+
+        updateStock(90);
+
+        for (EventStream stream : opened) {
+            assertEquals(90, stock(stream.await(e -> stock(e) != null)));
+        }
+    }
+
+    // ========== Helper Methods ==========
+
+    private void updateStock(int stock) {
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"code\": \"LIVE-RM-001\", \"name\": \"LIVE-RM-001\", \"stockQuantity\": " + stock + "}")
+            .when()
+            .put(RAW_MATERIALS_ENDPOINT + "/{id}", materialId)
+            .then()
+            .statusCode(200);
+    }
+
+    /**
+     * Stock of the test raw material in a changes event, or null when the
+     * event does not mention it.
+     */
+    private Integer stock(Event event) {
+        if (!"changes".equals(event.name)) {
+            return null;
+        }
+        return JsonPath.from(event.data).get("stock.find { it.id == " + materialId + " }.stockQuantity");
+    }
+
+    private EventStream open(String lastEventId) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(endpoint).header("Accept", "text/event-stream");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        HttpResponse<Stream<String>> response;
+        try {
+            response = client.send(request.build(), HttpResponse.BodyHandlers.ofLines());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        assertEquals(200, response.statusCode());
+        EventStream stream = new EventStream(response.body());
+        readers.execute(stream::read);
+        streams.add(stream);
+        return stream;
+    }
+
+    private static final class Event {
+        final String name;
+        final String id;
+        final String data;
+
+        Event(String name, String id, String data) {
+            this.name = name;
+            this.id = id;
+            this.data = data;
+        }
+    }
+
+    /**
+     * Parses the event stream of one connection into a queue, skipping
+     * comments.
+     */
+    private static final class EventStream {
+        private final Stream<String> lines;
+        private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+
+        EventStream(Stream<String> lines) {
+            this.lines = lines;
+        }
+
+        void read() {
+            String[] event = new String[3];
+            try {
+                lines.forEach(line -> {
+                    if (line.isEmpty()) {
+                        if (event[2] != null) {
+                            events.add(new Event(event[0], event[1], event[2]));
+                        }
+                        event[0] = event[1] = event[2] = null;
+                    } else if (line.startsWith("event:")) {
+                        event[0] = line.substring(6).trim();
+                    } else if (line.startsWith("id:")) {
+                        event[1] = line.substring(3).trim();
+                    } else if (line.startsWith("data:")) {
+                        event[2] = line.substring(5).trim();
+                    }
+                });
+            } catch (RuntimeException e) {
+                // Closed by the test
+            }
+        }
+
+        Event next() throws InterruptedException {
+            Event event = events.poll(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            assertNotNull(event, "No event within " + TIMEOUT);
+            return event;
+        }
+
+        Event await(Predicate<Event> condition) throws InterruptedException {
+            long deadline = System.nanoTime() + TIMEOUT.toNanos();
+            while (true) {
+                Event event = events.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                assertNotNull(event, "No matching event within " + TIMEOUT);
+                if (condition.test(event)) {
+                    return event;
+                }
+            }
+        }
+
+        void close() {
+            lines.close();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Pattern;
+
+import static com.example.resource.CatalogFixtures.*;
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Tests for the metrics served at /q/metrics
+ * Tests endpoint latency histograms, suggestion engine meters, Hibernate and connection pool metrics
+ */
+@QuarkusTest
+@DisplayName("Metrics Integration Tests")
+public class MetricsIntegrationTest {
+
+    private static final String PRODUCTS_ENDPOINT = "/products";
+    private static final String RAW_MATERIALS_ENDPOINT = "/raw-materials";
+    private static final String ASSOCIATIONS_ENDPOINT = "/products-raw-materials";
+    private static final String SUGGESTION_ENDPOINT = "/production-suggestion";
+
+    private Long productId;
+    private Long materialId;
+
+    @BeforeEach
+    public void setUp() {
+        productId = product("METRICS-P-" + System.nanoTime(), "10.00");
+        materialId = rawMaterial("METRICS-RM-" + System.nanoTime(), 100);
+        requirement(productId, materialId, 2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        given().when().delete(PRODUCTS_ENDPOINT + "/{id}", productId);
+        given().when().delete(RAW_MATERIALS_ENDPOINT + "/{id}", materialId);
+    }
+
+    @Test
+    @DisplayName("Should publish a latency histogram per endpoint template")
+    public void testEndpointHistograms() {
+        given().when().get(RAW_MATERIALS_ENDPOINT + "/{id}", materialId).then().statusCode(200);
+        given().when().get(PRODUCTS_ENDPOINT + "?limit=10").then().statusCode(200);
+
+        String metrics = metrics();
+        assertHasSample(metrics, "http_server_requests_seconds_bucket", "uri=\"/raw-materials/{id}\"");
+        assertHasSample(metrics, "http_server_requests_seconds_bucket", "uri=\"/products\"");
+        assertFalse(metrics.contains("uri=\"/raw-materials/" + materialId + "\""), "Path parameters must not become tags");
+    }
+
+    @Test
+    @DisplayName("Should time every suggestion phase and count evaluated products")
+    public void testSuggestionMeters() {
+        given().when().get(SUGGESTION_ENDPOINT).then().statusCode(200);
+        given().when().get(SUGGESTION_ENDPOINT).then().statusCode(200);
+
+        String metrics = metrics();
+        for (String phase : new String[]{"load", "compile", "compute", "serialize"}) {
+            assertHasSample(metrics, "production_suggestion_phase_seconds_count", "phase=\"" + phase + "\"", "strategy=\"greedy\"");
+            assertHasSample(metrics, "production_suggestion_phase_seconds_bucket", "phase=\"" + phase + "\"");
+        }
+        assertHasSample(metrics, "production_suggestion_products_evaluated_count", "strategy=\"greedy\"");
+        assertHasSample(metrics, "production_suggestion_requests_total", "cache=\"hit\"", "strategy=\"greedy\"");
+        assertHasSample(metrics, "production_suggestion_requests_total", "cache=\"miss\"", "strategy=\"greedy\"");
+    }
+
+    @Test
+    @DisplayName("Should publish Hibernate statement counts and connection pool usage")
+    public void testDatabaseMetrics() {
+        given().when().get(ASSOCIATIONS_ENDPOINT + "?limit=10").then().statusCode(200);
+
+        String metrics = metrics();
+        assertHasSample(metrics, "hibernate_statements_total", "status=\"prepared\"");
+        assertHasSample(metrics, "agroal_active_count");
+        assertHasSample(metrics, "agroal_awaiting_count");
+        assertHasSample(metrics, "agroal_max_used_count");
+    }
+
+    // ========== Helper Methods ==========
+
+    private String metrics() {
+        return given()
+            .when().get("/q/metrics")
+            .then().statusCode(200)
+            .extract().asString();
+    }
+
+    /**
+     * Asserts a sample of the metric whose labels contain every given label.
+     */
+    private static void assertHasSample(String metrics, String name, String... labels) {
+        StringBuilder regex = new StringBuilder("(?m)^").append(Pattern.quote(name)).append("\\{");
+        for (String label : labels) {
+            regex.append("(?=.*").append(Pattern.quote(label)).append(")");
+        }
+        regex.append(".*} [0-9.Ee+-]+$");
+        assertTrue(Pattern.compile(regex.toString()).matcher(metrics).find(),
+            () -> "No sample of " + name + " with " + String.join(", ", labels));
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.resource;
+
+import com.example.repository.ProductRawMaterialRepository;
+import com.example.service.BillOfMaterials;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import jakarta.inject.Inject;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.example.resource.CatalogFixtures.*;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Tests for ProductComponentResource
+ * Tests multi-level bills of materials: cycle checks, explosion for the suggestion and production orders,
+ * and the refresh of the exploded requirements on every edit
+ */
+@QuarkusTest
+@DisplayName("Product Component Integration Tests")
+public class ProductComponentResourceIntegrationTest {
+
+    private static final String COMPONENTS_ENDPOINT = "/product-components";
+    private static final String PRODUCTS_ENDPOINT = "/products";
+    private static final String RAW_MATERIALS_ENDPOINT = "/raw-materials";
+    private static final String ASSOCIATIONS_ENDPOINT = "/products-raw-materials";
+    private static final int STOCK = 1000;
+
+    @Inject
+    ProductRawMaterialRepository productRawMaterialRepository;
+
+    private Long bikeId;
+    private Long frameId;
+    private Long wheelId;
+    private Long steelId;
+    private Long rubberId;
+    private Long bikeRubberId;
+
+    @BeforeEach
+    public void setUp() {
+        bikeId = product("COMPONENT-BIKE", "900.00");
+        frameId = product("COMPONENT-FRAME", "300.00");
+        wheelId = product("COMPONENT-WHEEL", "80.00");
+        steelId = rawMaterial("COMPONENT-STEEL", STOCK);
+        rubberId = rawMaterial("COMPONENT-RUBBER", STOCK);
+
+        // bike: 1 frame, 2 wheels, 1 rubber; frame: 4 steel; wheel: 1 steel, 2 rubber
+        bikeRubberId = requirement(bikeId, rubberId, 1);
+        requirement(frameId, steelId, 4);
+        requirement(wheelId, steelId, 1);
+        requirement(wheelId, rubberId, 2);
+        component(bikeId, frameId, 1).then().statusCode(200);
+        component(bikeId, wheelId, 2).then().statusCode(200);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        given().when().delete(PRODUCTS_ENDPOINT + "/{id}", bikeId);
+        given().when().delete(PRODUCTS_ENDPOINT + "/{id}", frameId);
+        given().when().delete(PRODUCTS_ENDPOINT + "/{id}", wheelId);
+        given().when().delete(RAW_MATERIALS_ENDPOINT + "/{id}", steelId);
+        given().when().delete(RAW_MATERIALS_ENDPOINT + "/{id}", rubberId);
+    }
+
+    @Test
+    @DisplayName("Should create, read, list and delete a component")
+    public void testCrud() {
+        Long hubId = product("COMPONENT-HUB", "10.00");
+        try {
+            Integer id = component(wheelId, hubId, 1)
+                .then()
+                .statusCode(200)
+                .body("product.id", is(wheelId.intValue()))
+                .body("component.id", is(hubId.intValue()))
+                .body("requiredQuantity", is(1))
+                .extract().path("id");
+
+            given()
+                .when().get(COMPONENTS_ENDPOINT + "/{id}", id)
+                .then()
+                .statusCode(200)
+                .body("requiredQuantity", is(1));
+
+            given()
+                .queryParam("after", id - 1)
+                .queryParam("limit", 1)
+                .when().get(COMPONENTS_ENDPOINT)
+                .then()
+                .statusCode(200)
+                .body("[0].id", is(id))
+                .body("[0].product.code", is("COMPONENT-WHEEL"))
+                .body("[0].component.code", is("COMPONENT-HUB"));
+
+            given().when().delete(COMPONENTS_ENDPOINT + "/{id}", id).then().statusCode(204);
+            given().when().get(COMPONENTS_ENDPOINT + "/{id}", id).then().statusCode(204);
+            given().when().delete(COMPONENTS_ENDPOINT + "/{id}", id).then().statusCode(404);
+        } finally {
+            given().when().delete(PRODUCTS_ENDPOINT + "/{id}", hubId);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject components that would create a cycle")
+    public void testCycleRejected() {
+        component(frameId, bikeId, 1)
+            .then()
+            .statusCode(400)
+            .body("error", containsString("cycle"));
+
+        component(wheelId, wheelId, 1)
+            .then()
+            .statusCode(400)
+            .body("error", containsString("cycle"));
+    }
+
+    @Test
+    @DisplayName("Should reject unknown products and non-positive quantities")
+    public void testValidation() {
+        component(bikeId, 999999999L, 1)
+            .then()
+            .statusCode(400)
+            .body("error", is("Component not found"));
+
+        component(999999999L, frameId, 1)
+            .then()
+            .statusCode(400)
+            .body("error", is("Product not found"));
+
+        component(frameId, wheelId, 0)
+            .then()
+            .statusCode(400)
+            .body("error", is("Required quantity must be positive"));
+    }
+
+    @Test
+    @DisplayName("Should explode assemblies into the raw materials of all levels")
+    public void testBillOfMaterialsExplosion() {
+        BillOfMaterials bom = QuarkusTransaction.requiringNew().call(productRawMaterialRepository::loadBillOfMaterials);
+
+        assertEquals(Map.of(steelId, 6, rubberId, 5), requirements(bom, bikeId));
+        assertEquals(Map.of(steelId, 4), requirements(bom, frameId));
+        assertEquals(Map.of(steelId, 1, rubberId, 2), requirements(bom, wheelId));
+    }
+
+    @Test
+    @DisplayName("Should consume the raw materials of every level in a production order")
+    public void testProductionOrder() {
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("{\"productId\": %d, \"quantity\": 10}", bikeId))
+            .when()
+            .post("/production-orders")
+            .then()
+            .statusCode(200)
+            .body("products[0].quantity", is(10))
+            .body("rawMaterials.find { it.id == " + steelId + " }.consumed", is(60))
+            .body("rawMaterials.find { it.id == " + rubberId + " }.consumed", is(50));
+
+        given()
+            .queryParam("after", frameId - 1)
+            .queryParam("limit", 1)
+            .when().get(PRODUCTS_ENDPOINT)
+            .then()
+            .body("[0].id", is(frameId.intValue()))
+            .body("[0].quantity", nullValue());
+    }
+
+    @Test
+    @DisplayName("Should remove the components of a deleted product")
+    public void testDeleteProduct() {
+        given().when().delete(PRODUCTS_ENDPOINT + "/{id}", wheelId).then().statusCode(204);
+
+        BillOfMaterials bom = QuarkusTransaction.requiringNew().call(productRawMaterialRepository::loadBillOfMaterials);
+        assertEquals(Map.of(steelId, 4, rubberId, 1), requirements(bom, bikeId));
+    }
+
+    @Test
+    @DisplayName("Should refresh the exploded requirements of every assembly on each edit")
+    public void testRefreshOnEdit() {
+        Long hubId = product("COMPONENT-HUB", "10.00");
+        try {
+            // a hub of 3 steel in each wheel adds 6 steel to the bike
+            requirement(hubId, steelId, 3);
+            Integer hub = component(wheelId, hubId, 1).then().statusCode(200).extract().path("id");
+            assertEquals(Map.of(steelId, 12, rubberId, 5), requirements(bikeId));
+            assertEquals(Map.of(steelId, 4, rubberId, 2), requirements(wheelId));
+
+            given().when().delete(COMPONENTS_ENDPOINT + "/{id}", hub).then().statusCode(204);
+            assertEquals(Map.of(steelId, 6, rubberId, 5), requirements(bikeId));
+
+            given().when().delete(ASSOCIATIONS_ENDPOINT + "/{id}", bikeRubberId).then().statusCode(204);
+            assertEquals(Map.of(steelId, 6, rubberId, 4), requirements(bikeId));
+
+            given().when().delete(RAW_MATERIALS_ENDPOINT + "/{id}", rubberId).then().statusCode(204);
+            assertEquals(Map.of(steelId, 6), requirements(bikeId));
+            assertEquals(Map.of(steelId, 1), requirements(wheelId));
+        } finally {
+            given().when().delete(PRODUCTS_ENDPOINT + "/{id}", hubId);
+        }
+    }
+
+    // ========== Helper Methods ==========
+
+    private Map<Long, Integer> requirements(Long productId) {
+        BillOfMaterials bom = QuarkusTransaction.requiringNew().call(productRawMaterialRepository::loadBillOfMaterials);
+        return requirements(bom, productId);
+    }
+
+    private Map<Long, Integer> requirements(BillOfMaterials bom, Long productId) {
+        BillOfMaterials.Item item = bom.getItems().stream()
+            .filter(candidate -> candidate.getProduct().getId().equals(productId))
+            .findFirst()
+            .orElseThrow();
+        Map<Long, Integer> requirements = new HashMap<>();
+        item.getRequirements().forEach(requirement -> requirements.put(requirement.getRawMaterialId(), requirement.getRequiredQuantity()));
+        return requirements;
+    }
+
+    private Response component(Long productId, Long componentId, int quantity) {
+        return given()
+            .contentType(ContentType.JSON)
+            .body(String.format("{\"product\": {\"id\": %d}, \"component\": {\"id\": %d}, \"requiredQuantity\": %d}",
+                productId, componentId, quantity))
+            .when()
+            .post(COMPONENTS_ENDPOINT);
+    }
+}
@@ -101,6 +101,27 @@ public class ProductRawMaterialResourceIntegrationTest {
             .statusCode(anyOf(is(200), is(404), is(500)));
     }
 
+    @Test
+    @DisplayName("Should list associations with nested product and raw material")
+    public void testListNestedAssociations() {
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("{\"product\": {\"id\": %d}, \"rawMaterial\": {\"id\": %d}, \"requiredQuantity\": 3}", testProductId, testRawMaterialId))
+            .when()
+            .post(ASSOCIATIONS_ENDPOINT)
+            .then()
+            .statusCode(200);
+
+        given()
+            .queryParam("limit", 1000)
+            .when().get(ASSOCIATIONS_ENDPOINT)
+            .then()
+            .statusCode(200)
+            .body("find { it.product.code == 'TEST-ASSOC-PROD-001' }.rawMaterial.code", is("TEST-ASSOC-RM-001"))
+            .body("find { it.product.code == 'TEST-ASSOC-PROD-001' }.rawMaterial.stockQuantity", is(100))
+            .body("find { it.product.code == 'TEST-ASSOC-PROD-001' }.requiredQuantity", is(3));
+    }
+
     @Test
     @DisplayName("Should create a new association")
     public void testCreateAssociationSuccess() {
@@ -1,5 +1,8 @@
 package com.example.resource;
 
+import com.example.model.Product;
+import com.example.repository.ProductRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
@@ -9,10 +12,15 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
 
+import jakarta.inject.Inject;
 import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Integration Tests for ProductResource
@@ -23,6 +31,10 @@ import static org.hamcrest.Matchers.*;
 public class ProductResourceIntegrationTest {
 
     private static final String PRODUCTS_ENDPOINT = "/products";
+
+    @Inject
+    ProductRepository productRepository;
+
     private Long testProductId;
     private Long updateProductId;
 
@@ -327,4 +339,102 @@ public class ProductResourceIntegrationTest {
                 .statusCode(anyOf(is(200), is(201), is(400), is(500)));
         }
     }
+
+    @Test
+    @DisplayName("Should stream every product across several batches")
+    public void testListStreamsAcrossBatches() {
+        int count = KeysetList.BATCH_SIZE * 2 + 1;
+        QuarkusTransaction.requiringNew().run(() -> {
+            for (int i = 0; i < count; i++) {
+                Product product = new Product();
+                product.setCode("STREAM-" + i);
+                product.setName("Streamed Product " + i);
+                product.setPrice(new BigDecimal("1.50"));
+                productRepository.persist(product);
+            }
+        });
+
+        try {
+            List<String> codes = given()
+                .when()
+                .get(PRODUCTS_ENDPOINT)
+                .then()
+                .statusCode(200)
+                .extract().jsonPath().getList("code", String.class);
+
+            Set<String> unique = new HashSet<>(codes);
+            assertEquals(codes.size(), unique.size(), "Products must not repeat across batches");
+            for (int i = 0; i < count; i++) {
+                assertTrue(unique.contains("STREAM-" + i), "Missing STREAM-" + i);
+            }
+        } finally {
+            QuarkusTransaction.requiringNew().run(() -> productRepository.delete("code like ?1", "STREAM-%"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should page through products with a keyset cursor")
+    public void testKeysetPagination() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            for (int i = 0; i < 7; i++) {
+                Product product = new Product();
+                product.setCode("PAGE-" + i);
+                product.setName("Paged Product " + i);
+                product.setPrice(new BigDecimal("2.00"));
+                productRepository.persist(product);
+            }
+        });
+
+        try {
+            Set<String> seen = new HashSet<>();
+            String next = PRODUCTS_ENDPOINT + "?limit=3&fields=id,code";
+            int pages = 0;
+            while (next != null) {
+                Response page = given()
+                    .urlEncodingEnabled(false)
+                    .when()
+                    .get(next)
+                    .then()
+                    .statusCode(200)
+                    .header(KeysetList.TOTAL_HEADER, notNullValue())
+                    .body("size()", lessThanOrEqualTo(3))
+                    .body("[0].keySet()", contains("id", "code"))
+                    .extract().response();
+                List<String> codes = page.jsonPath().getList("code", String.class);
+                for (String code : codes) {
+                    assertTrue(seen.add(code), "Product " + code + " returned twice");
+                }
+                String link = page.getHeader("Link");
+                next = link == null ? null : link.substring(link.indexOf('<') + 1, link.indexOf('>'));
+                pages++;
+            }
+
+            assertTrue(pages >= 3);
+            for (int i = 0; i < 7; i++) {
+                assertTrue(seen.contains("PAGE-" + i), "Missing PAGE-" + i);
+            }
+        } finally {
+            QuarkusTransaction.requiringNew().run(() -> productRepository.delete("code like ?1", "PAGE-%"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject unknown fields and out of range limits")
+    public void testInvalidListParameters() {
+        given()
+            .queryParam("fields", "id,password")
+            .when()
+            .get(PRODUCTS_ENDPOINT)
+            .then()
+            .statusCode(400)
+            .body("error", containsString("password"));
+
+        given()
+            .queryParam("limit", 0)
+            .when()
+            .get(PRODUCTS_ENDPOINT)
+            .then()
+            .statusCode(400)
+            .body("error", containsString("limit"));
+    }
 }
@@ -0,0 +1,262 @@
+package com.example.resource;
+
+import com.example.service.ProductionOrder;
+import com.example.service.ProductionOrderExecutor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static com.example.resource.CatalogFixtures.*;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Tests for ProductionOrderResource
+ * Tests that orders consume the bill of materials atomically, alone and concurrently
+ */
+@QuarkusTest
+@DisplayName("Production Order Integration Tests")
+public class ProductionOrderIntegrationTest {
+
+    private static final String ORDERS_ENDPOINT = "/production-orders";
+    private static final String PRODUCTS_ENDPOINT = "/products";
+    private static final String RAW_MATERIALS_ENDPOINT = "/raw-materials";
+    private static final int STOCK = 5000;
+
+    @Inject
+    ProductionOrderExecutor executor;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private Long chairId;
+    private Long tableId;
+    private Long woodId;
+    private Long screwId;
+    private Long varnishId;
+
+    @BeforeEach
+    public void setUp() {
+        chairId = product("ORDER-CHAIR", "50.00");
+        tableId = product("ORDER-TABLE", "200.00");
+        woodId = rawMaterial("ORDER-WOOD", STOCK);
+        screwId = rawMaterial("ORDER-SCREW", STOCK);
+        varnishId = rawMaterial("ORDER-VARNISH", STOCK);
+
+        // chair: 2 wood, 1 screw; table: 3 screw, 1 varnish
+        requirement(chairId, woodId, 2);
+        requirement(chairId, screwId, 1);
+        requirement(tableId, screwId, 3);
+        requirement(tableId, varnishId, 1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        given().when().delete(PRODUCTS_ENDPOINT + "/{id}", chairId);
+        given().when().delete(PRODUCTS_ENDPOINT + "/{id}", tableId);
+        given().when().delete(RAW_MATERIALS_ENDPOINT + "/{id}", woodId);
+        given().when().delete(RAW_MATERIALS_ENDPOINT + "/{id}", screwId);
+        given().when().delete(RAW_MATERIALS_ENDPOINT + "/{id}", varnishId);
+    }
+
+    @Test
+    @DisplayName("Should consume the bill of materials of one product")
+    public void testSingleProductOrder() {
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("{\"productId\": %d, \"quantity\": 10}", chairId))
+            .when()
+            .post(ORDERS_ENDPOINT)
+            .then()
+            .statusCode(200)
+            .body("products[0].produced", is(10))
+            .body("products[0].quantity", is(10))
+            .body("rawMaterials.find { it.id == " + woodId + " }.consumed", is(20))
+            .body("rawMaterials.find { it.id == " + woodId + " }.stockQuantity", is(STOCK - 20));
+
+        assertStock(woodId, STOCK - 20);
+        assertStock(screwId, STOCK - 10);
+        assertStock(varnishId, STOCK);
+        assertEquals(10, productQuantity(chairId));
+    }
+
+    @Test
+    @DisplayName("Should execute a plan posted back from the production suggestion")
+    public void testSuggestedPlanOrder() {
+        String plan = given()
+            .when().get("/production-suggestion")
+            .then()
+            .statusCode(200)
+            .extract().asString();
+        int suggestedTables = JsonPath.from(plan).getInt("products.find { it.product.code == 'ORDER-TABLE' }.quantity");
+        assertTrue(suggestedTables > 0);
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(plan)
+            .when()
+            .post(ORDERS_ENDPOINT)
+            .then()
+            .statusCode(200);
+
+        assertEquals(suggestedTables, productQuantity(tableId));
+        given()
+            .when().get(RAW_MATERIALS_ENDPOINT + "/{id}", varnishId)
+            .then()
+            .body("stockQuantity", is(STOCK - suggestedTables));
+    }
+
+    @Test
+    @DisplayName("Should reject the whole order when any raw material is short")
+    public void testShortageRejectsWholeOrder() {
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("{\"products\": [{\"product\": {\"id\": %d}, \"quantity\": 10}, {\"product\": {\"id\": %d}, \"quantity\": 1700}]}",
+                chairId, tableId))
+            .when()
+            .post(ORDERS_ENDPOINT)
+            .then()
+            .statusCode(400)
+            .body("error", containsString("Insufficient stock"))
+            .body("error", containsString("raw material " + screwId));
+
+        assertStock(woodId, STOCK);
+        assertStock(screwId, STOCK);
+        assertStock(varnishId, STOCK);
+        assertNull(productQuantity(chairId));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid orders")
+    public void testInvalidOrders() {
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"productId\": 999999999, \"quantity\": 1}")
+            .when()
+            .post(ORDERS_ENDPOINT)
+            .then()
+            .statusCode(400)
+            .body("error", containsString("Unknown product"));
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("{\"productId\": %d, \"quantity\": -1}", chairId))
+            .when()
+            .post(ORDERS_ENDPOINT)
+            .then()
+            .statusCode(400);
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"products\": []}")
+            .when()
+            .post(ORDERS_ENDPOINT)
+            .then()
+            .statusCode(400)
+            .body("error", containsString("at least one unit"));
+    }
+
+    @Test
+    @DisplayName("Should reject products that require no raw material")
+    public void testProductWithoutRequirements() {
+        Long stoolId = product("ORDER-STOOL", "30.00");
+        try {
+            given()
+                .contentType(ContentType.JSON)
+                .body(String.format("{\"products\": [{\"product\": {\"id\": %d}, \"quantity\": 1}, {\"product\": {\"id\": %d}, \"quantity\": 5}]}",
+                    chairId, stoolId))
+                .when()
+                .post(ORDERS_ENDPOINT)
+                .then()
+                .statusCode(400)
+                .body("error", containsString("requires no raw material"))
+                .body("error", containsString(String.valueOf(stoolId)));
+
+            assertNull(productQuantity(stoolId));
+            assertNull(productQuantity(chairId));
+            assertStock(woodId, STOCK);
+            assertStock(screwId, STOCK);
+        } finally {
+            given().when().delete(PRODUCTS_ENDPOINT + "/{id}", stoolId);
+        }
+    }
+
+    @Test
+    @DisplayName("Should run concurrent orders on shared materials without deadlocks")
+    public void testConcurrentOrders() throws Exception {
+        int writers = 32;
+        int ordersPerWriter = 25;
+        // Lines listed in opposite orders so that locking in request order would deadlock
+        ProductionOrder tableFirst = order(tableId, chairId);
+        ProductionOrder chairFirst = order(chairId, tableId);
+
+        // Calls the executor directly so many orders overlap in the database, not in the test client
+        ExecutorService threads = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int w = 0; w < writers; w++) {
+                ProductionOrder order = w % 2 == 0 ? tableFirst : chairFirst;
+                futures.add(threads.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ordersPerWriter; i++) {
+                        executor.execute(order);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        int orders = writers * ordersPerWriter;
+        assertStock(woodId, STOCK - 2 * orders);
+        assertStock(screwId, STOCK - 4 * orders);
+        assertStock(varnishId, STOCK - orders);
+        assertEquals(orders, productQuantity(chairId));
+        assertEquals(orders, productQuantity(tableId));
+    }
+
+    // ========== Helper Methods ==========
+
+    private ProductionOrder order(Long firstProductId, Long secondProductId) throws Exception {
+        return objectMapper.readValue(String.format(
+            "{\"products\": [{\"product\": {\"id\": %d}, \"quantity\": 1}, {\"product\": {\"id\": %d}, \"quantity\": 1}]}",
+            firstProductId, secondProductId), ProductionOrder.class);
+    }
+
+    private Integer productQuantity(Long productId) {
+        return given()
+            .queryParam("after", productId - 1)
+            .queryParam("limit", 1)
+            .queryParam("fields", "id,quantity")
+            .when().get(PRODUCTS_ENDPOINT)
+            .then()
+            .statusCode(200)
+            .body("[0].id", is(productId.intValue()))
+            .extract().jsonPath().get("[0].quantity");
+    }
+
+    private void assertStock(Long rawMaterialId, int expected) {
+        given()
+            .when().get(RAW_MATERIALS_ENDPOINT + "/{id}", rawMaterialId)
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", is(expected));
+    }
+}
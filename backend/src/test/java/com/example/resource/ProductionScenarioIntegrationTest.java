@@ -0,0 +1,96 @@
+package com.example.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.example.resource.CatalogFixtures.*;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Integration Tests for the what-if scenario endpoint
+ * Tests per-scenario plans and that real stock is never modified
+ */
+@QuarkusTest
+@DisplayName("Production Scenario Tests")
+public class ProductionScenarioIntegrationTest {
+
+    private static final String SCENARIOS_ENDPOINT = "/production-suggestion/scenarios";
+    private static final String PRODUCTS_ENDPOINT = "/products";
+    private static final String RAW_MATERIALS_ENDPOINT = "/raw-materials";
+
+    private Long productId;
+    private Long materialId;
+
+    @BeforeEach
+    public void setUp() {
+        productId = product("SCENARIO-PROD-001", "25.00");
+        materialId = rawMaterial("SCENARIO-RM-001", 40);
+        requirement(productId, materialId, 4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        given().when().delete(PRODUCTS_ENDPOINT + "/{id}", productId);
+        given().when().delete(RAW_MATERIALS_ENDPOINT + "/{id}", materialId);
+    }
+
+    @Test
+    @DisplayName("Should return one plan per scenario without changing stock")
+    public void testEvaluateScenarios() {
+        String body = String.format("[{\"name\": \"more\", \"stockDeltas\": {\"%d\": 40}}, {\"name\": \"less\", \"stockDeltas\": {\"%d\": -20}}]",
+            materialId, materialId);
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(body)
+            .when()
+            .post(SCENARIOS_ENDPOINT)
+            .then()
+            .statusCode(200)
+            .body("strategy", is("greedy"))
+            .body("scenarios.size()", is(2))
+            .body("scenarios[0].name", is("more"))
+            .body("scenarios[0].products.find { it.product.code == 'SCENARIO-PROD-001' }.quantity", is(20))
+            .body("scenarios[1].name", is("less"))
+            .body("scenarios[1].products.find { it.product.code == 'SCENARIO-PROD-001' }.quantity", is(5));
+
+        given()
+            .when().get(RAW_MATERIALS_ENDPOINT + "/{id}", materialId)
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", is(40));
+    }
+
+    @Test
+    @DisplayName("Should accept the other strategies")
+    public void testScenarioStrategy() {
+        given()
+            .contentType(ContentType.JSON)
+            .queryParam("strategy", "branch-and-bound")
+            .body(String.format("[{\"name\": \"more\", \"stockDeltas\": {\"%d\": 40}}]", materialId))
+            .when()
+            .post(SCENARIOS_ENDPOINT)
+            .then()
+            .statusCode(200)
+            .body("scenarios[0].strategy", is("branch-and-bound"))
+            .body("scenarios[0].products.find { it.product.code == 'SCENARIO-PROD-001' }.quantity", is(20));
+    }
+
+    @Test
+    @DisplayName("Should reject an empty batch")
+    public void testEmptyBatch() {
+        given()
+            .contentType(ContentType.JSON)
+            .body("[]")
+            .when()
+            .post(SCENARIOS_ENDPOINT)
+            .then()
+            .statusCode(400)
+            .body("error", containsString("scenario"));
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import jakarta.inject.Inject;
+
+import static com.example.resource.CatalogFixtures.*;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Tests for the cached production suggestion
+ * Tests ETag revalidation, invalidation on writes and coalesced recomputation
+ */
+@QuarkusTest
+@DisplayName("Production Suggestion Caching Tests")
+public class ProductionSuggestionCachingTest {
+
+    private static final String SUGGESTION_ENDPOINT = "/production-suggestion";
+    private static final String PRODUCTS_ENDPOINT = "/products";
+    private static final String RAW_MATERIALS_ENDPOINT = "/raw-materials";
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    private Long productId;
+    private Long materialId;
+
+    @BeforeEach
+    public void setUp() {
+        productId = product("CACHE-PROD-001", "25.00");
+        materialId = rawMaterial("CACHE-RM-001", 40);
+        requirement(productId, materialId, 4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        given().when().delete(PRODUCTS_ENDPOINT + "/{id}", productId);
+        given().when().delete(RAW_MATERIALS_ENDPOINT + "/{id}", materialId);
+    }
+
+    @Test
+    @DisplayName("Should answer 304 when the ETag still matches")
+    public void testNotModified() {
+        String etag = given()
+            .when().get(SUGGESTION_ENDPOINT)
+            .then()
+            .statusCode(200)
+            .header("ETag", notNullValue())
+            .extract().header("ETag");
+
+        given()
+            .header("If-None-Match", etag)
+            .when().get(SUGGESTION_ENDPOINT)
+            .then()
+            .statusCode(304);
+    }
+
+    @Test
+    @DisplayName("Should recompute after a stock update")
+    public void testInvalidatedByStockUpdate() {
+        String etag = given()
+            .when().get(SUGGESTION_ENDPOINT)
+            .then()
+            .statusCode(200)
+            .body("products.find { it.product.code == 'CACHE-PROD-001' }.quantity", is(10))
+            .extract().header("ETag");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"code\": \"CACHE-RM-001\", \"name\": \"CACHE-RM-001\", \"stockQuantity\": 80}")
+            .when()
+            .put(RAW_MATERIALS_ENDPOINT + "/{id}", materialId)
+            .then()
+            .statusCode(200);
+
+        String refreshed = given()
+            .header("If-None-Match", etag)
+            .when().get(SUGGESTION_ENDPOINT)
+            .then()
+            .statusCode(200)
+            .body("products.find { it.product.code == 'CACHE-PROD-001' }.quantity", is(20))
+            .extract().header("ETag");
+        assertNotEquals(etag, refreshed);
+
+        String metrics = given()
+            .when().get("/q/metrics")
+            .then()
+            .statusCode(200)
+            .extract().asString();
+        assertTrue(metrics.matches("(?s).*production_suggestion_recompute_products_count\\{mode=\"incremental\"} [1-9].*"));
+    }
+
+    @Test
+    @DisplayName("Should recompute once per burst of changes")
+    public void testCoalescedRecomputation() {
+        for (int stock = 41; stock <= 45; stock++) {
+            given()
+                .contentType(ContentType.JSON)
+                .body("{\"code\": \"CACHE-RM-001\", \"name\": \"CACHE-RM-001\", \"stockQuantity\": " + stock + "}")
+                .when()
+                .put(RAW_MATERIALS_ENDPOINT + "/{id}", materialId)
+                .then()
+                .statusCode(200);
+        }
+
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        for (int i = 0; i < 5; i++) {
+            given()
+                .when().get(SUGGESTION_ENDPOINT)
+                .then()
+                .statusCode(200);
+        }
+
+        assertEquals(1, statistics.getQueryExecutionCount());
+    }
+
+    @Test
+    @DisplayName("Should reject unknown strategies")
+    public void testUnknownStrategy() {
+        given()
+            .queryParam("strategy", "simulated-annealing")
+            .when().get(SUGGESTION_ENDPOINT)
+            .then()
+            .statusCode(400)
+            .body("error", containsString("greedy"));
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import io.restassured.response.ValidatableResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.resource.CatalogFixtures.*;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Tests for stock reservation and optimistic locking of raw materials
+ * Tests the conditional stock movements and version checks, alone and under 64 concurrent writers
+ */
+@QuarkusTest
+@DisplayName("Stock Reservation Integration Tests")
+public class StockReservationIntegrationTest {
+
+    private static final String RAW_MATERIALS_ENDPOINT = "/raw-materials";
+    private static final int WRITERS = 64;
+
+    private Long materialId;
+
+    @BeforeEach
+    public void setUp() {
+        materialId = rawMaterial("STOCK-RES-" + System.nanoTime(), 100);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        given().when().delete(RAW_MATERIALS_ENDPOINT + "/{id}", materialId);
+    }
+
+    @Test
+    @DisplayName("Should move units between stock and reserved")
+    public void testReserveReleaseConsume() {
+        move("reserve", 30)
+            .statusCode(200)
+            .body("stockQuantity", is(70))
+            .body("reservedQuantity", is(30));
+        move("release", 10)
+            .statusCode(200)
+            .body("stockQuantity", is(80))
+            .body("reservedQuantity", is(20));
+        move("consume", 20)
+            .statusCode(200)
+            .body("stockQuantity", is(80))
+            .body("reservedQuantity", is(0));
+
+        given()
+            .when().get(RAW_MATERIALS_ENDPOINT + "/{id}/stock", materialId)
+            .then()
+            .statusCode(200)
+            .body("id", is(materialId.intValue()))
+            .body("stockQuantity", is(80))
+            .body("reservedQuantity", is(0));
+        given()
+            .when().get(RAW_MATERIALS_ENDPOINT + "/{id}/stock", 999999999L)
+            .then()
+            .statusCode(404);
+    }
+
+    @Test
+    @DisplayName("Should reject movements beyond the available quantity")
+    public void testInsufficientQuantity() {
+        move("reserve", 101)
+            .statusCode(400)
+            .body("error", containsString("Insufficient stock"));
+        move("release", 1)
+            .statusCode(400)
+            .body("error", containsString("Insufficient reserved quantity"));
+        move("consume", 1)
+            .statusCode(400);
+
+        given()
+            .when().get(RAW_MATERIALS_ENDPOINT + "/{id}", materialId)
+            .then()
+            .body("stockQuantity", is(100))
+            .body("reservedQuantity", is(0));
+    }
+
+    @Test
+    @DisplayName("Should validate the quantity and the raw material")
+    public void testInvalidMovements() {
+        move("reserve", 0)
+            .statusCode(400)
+            .body("error", containsString("quantity"));
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"quantity\": 1}")
+            .when()
+            .post(RAW_MATERIALS_ENDPOINT + "/{id}/reserve", 999999999L)
+            .then()
+            .statusCode(404);
+    }
+
+    @Test
+    @DisplayName("Should reject an edit based on a stale version")
+    public void testStaleVersionRejected() {
+        long version = given()
+            .when().get(RAW_MATERIALS_ENDPOINT + "/{id}", materialId)
+            .then()
+            .statusCode(200)
+            .extract().jsonPath().getLong("version");
+
+        move("reserve", 5).statusCode(200);
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("{\"code\": \"STOCK-RES-%d\", \"name\": \"Stale\", \"stockQuantity\": 500, \"version\": %d}", materialId, version))
+            .when()
+            .put(RAW_MATERIALS_ENDPOINT + "/{id}", materialId)
+            .then()
+            .statusCode(409)
+            .body("error", containsString("modified concurrently"));
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("{\"code\": \"STOCK-RES-%d\", \"name\": \"Fresh\", \"stockQuantity\": 500}", materialId))
+            .when()
+            .put(RAW_MATERIALS_ENDPOINT + "/{id}", materialId)
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", is(500))
+            .body("reservedQuantity", is(5))
+            .body("version", greaterThan((int) version + 1));
+    }
+
+    @Test
+    @DisplayName("Should never oversell stock to concurrent writers")
+    public void testConcurrentReservationsDoNotOversell() throws Exception {
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runWriters(5, () -> {
+            int status = move("reserve", 1).extract().statusCode();
+            (status == 200 ? reserved : rejected).incrementAndGet();
+        });
+
+        assertEquals(100, reserved.get());
+        assertEquals(WRITERS * 5 - 100, rejected.get());
+        given()
+            .when().get(RAW_MATERIALS_ENDPOINT + "/{id}", materialId)
+            .then()
+            .body("stockQuantity", is(0))
+            .body("reservedQuantity", is(100));
+    }
+
+    @Test
+    @DisplayName("Should not lose updates under concurrent reserve, release and consume")
+    public void testConcurrentMovementsLoseNoUpdates() throws Exception {
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger released = new AtomicInteger();
+        AtomicInteger consumed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger round = new AtomicInteger();
+
+        runWriters(20, () -> {
+            if (move("reserve", 2).extract().statusCode() != 200) {
+                return;
+            }
+            reserved.addAndGet(2);
+            boolean release = round.incrementAndGet() % 2 == 0;
+            int status = move(release ? "release" : "consume", 2).extract().statusCode();
+            if (status != 200) {
+                failed.incrementAndGet();
+            } else {
+                (release ? released : consumed).addAndGet(2);
+            }
+        });
+
+        assertEquals(0, failed.get());
+        assertTrue(reserved.get() > 0);
+        JsonPath material = given()
+            .when().get(RAW_MATERIALS_ENDPOINT + "/{id}", materialId)
+            .then()
+            .statusCode(200)
+            .extract().jsonPath();
+        assertEquals(100 - reserved.get() + released.get(), material.getInt("stockQuantity"));
+        assertEquals(reserved.get() - released.get() - consumed.get(), material.getInt("reservedQuantity"));
+    }
+
+    @Test
+    @DisplayName("Should accept exactly one of concurrent edits of the same version")
+    public void testConcurrentVersionedEdits() throws Exception {
+        long version = given()
+            .when().get(RAW_MATERIALS_ENDPOINT + "/{id}", materialId)
+            .then()
+            .extract().jsonPath().getLong("version");
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        AtomicInteger writer = new AtomicInteger();
+
+        runWriters(1, () -> {
+            int status = given()
+                .contentType(ContentType.JSON)
+                .body(String.format("{\"code\": \"STOCK-RES-%d\", \"name\": \"Writer %d\", \"stockQuantity\": 100, \"version\": %d}",
+                    materialId, writer.incrementAndGet(), version))
+                .when()
+                .put(RAW_MATERIALS_ENDPOINT + "/{id}", materialId)
+                .then()
+                .extract().statusCode();
+            (status == 200 ? accepted : conflicts).incrementAndGet();
+        });
+
+        assertEquals(1, accepted.get());
+        assertEquals(WRITERS - 1, conflicts.get());
+    }
+
+    // ========== Helper Methods ==========
+
+    private ValidatableResponse move(String movement, int quantity) {
+        return given()
+            .contentType(ContentType.JSON)
+            .body("{\"quantity\": " + quantity + "}")
+            .when()
+            .post(RAW_MATERIALS_ENDPOINT + "/{id}/" + movement, materialId)
+            .then();
+    }
+
+    /**
+     * Starts {@value #WRITERS} threads together, each running the operation
+     * {@code iterations} times.
+     */
+    private void runWriters(int iterations, Runnable operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int w = 0; w < WRITERS; w++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < iterations; i++) {
+                        operation.run();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
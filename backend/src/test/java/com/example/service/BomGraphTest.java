@@ -0,0 +1,155 @@
+package com.example.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests for the multi-level bill of materials graph
+ * Checks explosion against a recursive reference, ordering and cycles
+ */
+@DisplayName("Bill of Materials Graph Tests")
+public class BomGraphTest {
+
+    @Test
+    @DisplayName("Should add up raw materials across levels and shared sub-assemblies")
+    public void testExplosion() {
+        // bike: 1 frame, 2 wheels, 1 rubber; frame: 4 steel; wheel: 1 steel, 2 rubber, 1 hub; hub: 3 steel
+        BomGraph graph = BomGraph.builder()
+            .requirement(1, 100, 1)
+            .component(1, 2, 1)
+            .component(1, 3, 2)
+            .requirement(2, 101, 4)
+            .requirement(3, 101, 1)
+            .requirement(3, 100, 2)
+            .component(3, 4, 1)
+            .requirement(4, 101, 3)
+            .build();
+
+        assertEquals(Map.of(100L, 5L, 101L, 12L), toMap(graph.explode(1)));
+        assertEquals(Map.of(100L, 2L, 101L, 4L), toMap(graph.explode(3)));
+        assertEquals(Map.of(101L, 4L), toMap(graph.explode(2)));
+        assertEquals(0, graph.explode(99).size());
+
+        BomGraph.Requirements bike = graph.explode(1);
+        assertEquals(100L, bike.rawMaterialId(0));
+        assertEquals(101L, bike.rawMaterialId(1));
+        assertSame(bike, graph.explode(1));
+    }
+
+    @Test
+    @DisplayName("Should match a recursive explosion on random graphs")
+    public void testMatchesRecursiveExplosion() {
+        Random random = new Random(11);
+        for (int round = 0; round < 20; round++) {
+            Map<Long, Map<Long, Long>> requirements = new HashMap<>();
+            Map<Long, Map<Long, Long>> components = new HashMap<>();
+            BomGraph.Builder builder = BomGraph.builder();
+            int products = 200;
+            for (long p = 0; p < products; p++) {
+                for (int r = random.nextInt(3); r > 0; r--) {
+                    long material = 1_000 + random.nextInt(30);
+                    long quantity = random.nextInt(5);
+                    builder.requirement(p, material, quantity);
+                    requirements.computeIfAbsent(p, k -> new HashMap<>()).merge(material, quantity, Long::sum);
+                }
+                // components only point to lower ids, so the graph stays acyclic
+                for (int c = p == 0 ? 0 : random.nextInt(4); c > 0; c--) {
+                    long part = random.nextInt((int) p);
+                    long quantity = 1 + random.nextInt(3);
+                    builder.component(p, part, quantity);
+                    components.computeIfAbsent(p, k -> new HashMap<>()).merge(part, quantity, Long::sum);
+                }
+            }
+            BomGraph graph = builder.build();
+
+            Map<Long, Map<Long, Long>> expected = new HashMap<>();
+            for (long p = 0; p < products; p++) {
+                expected.put(p, reference(p, requirements, components, expected));
+            }
+            for (long p = products - 1; p >= 0; p--) {
+                assertEquals(expected.get(p), toMap(graph.explode(p)), "round " + round + " product " + p);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should order components before the assemblies that use them")
+    public void testTopologicalOrder() {
+        BomGraph graph = BomGraph.builder()
+            .component(5, 3, 1)
+            .component(3, 1, 1)
+            .component(5, 1, 1)
+            .component(2, 5, 1)
+            .requirement(4, 100, 1)
+            .build();
+
+        long[] order = graph.topologicalOrder();
+        List<Long> positions = new ArrayList<>();
+        for (long id : order) {
+            positions.add(id);
+        }
+        assertEquals(5, graph.products());
+        assertTrue(positions.indexOf(1L) < positions.indexOf(3L));
+        assertTrue(positions.indexOf(3L) < positions.indexOf(5L));
+        assertTrue(positions.indexOf(5L) < positions.indexOf(2L));
+    }
+
+    @Test
+    @DisplayName("Should reject a cycle and name the products in it")
+    public void testCycle() {
+        BomGraph.Builder builder = BomGraph.builder()
+            .component(1, 2, 1)
+            .component(2, 3, 1)
+            .component(3, 4, 1)
+            .component(4, 2, 1);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, builder::build);
+        assertTrue(e.getMessage().contains("2 -> 3 -> 4 -> 2") || e.getMessage().contains("3 -> 4 -> 2 -> 3")
+            || e.getMessage().contains("4 -> 2 -> 3 -> 4"), e.getMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> BomGraph.builder().component(7, 7, 1).build());
+    }
+
+    @Test
+    @DisplayName("Should saturate quantities instead of overflowing")
+    public void testSaturation() {
+        BomGraph.Builder builder = BomGraph.builder().requirement(0, 100, Integer.MAX_VALUE);
+        for (long p = 1; p <= 5; p++) {
+            builder.component(p, p - 1, Integer.MAX_VALUE);
+        }
+        BomGraph graph = builder.build();
+
+        assertEquals(Long.MAX_VALUE, graph.explode(5).quantity(0));
+        assertEquals((long) Integer.MAX_VALUE * Integer.MAX_VALUE, graph.explode(1).quantity(0));
+    }
+
+    // ========== Helper Methods ==========
+
+    /**
+     * Explosion from the definition, reusing the already expanded lower products.
+     */
+    private Map<Long, Long> reference(long product, Map<Long, Map<Long, Long>> requirements,
+                                      Map<Long, Map<Long, Long>> components, Map<Long, Map<Long, Long>> lower) {
+        Map<Long, Long> total = new HashMap<>();
+        requirements.getOrDefault(product, Map.of()).forEach((material, quantity) -> {
+            if (quantity > 0) {
+                total.merge(material, quantity, Long::sum);
+            }
+        });
+        components.getOrDefault(product, Map.of()).forEach((part, units) ->
+            lower.get(part).forEach((material, quantity) -> total.merge(material, quantity * units, Long::sum)));
+        return total;
+    }
+
+    private Map<Long, Long> toMap(BomGraph.Requirements requirements) {
+        Map<Long, Long> map = new HashMap<>();
+        for (int i = 0; i < requirements.size(); i++) {
+            map.put(requirements.rawMaterialId(i), requirements.quantity(i));
+        }
+        return map;
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.service;
+
+import com.example.repository.ProductRawMaterialRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import jakarta.inject.Inject;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for CatalogSnapshots
+ * Tests the saved bill of materials round trip, staleness and corrupt files
+ */
+@QuarkusTest
+@DisplayName("Catalog Snapshots Tests")
+public class CatalogSnapshotsTest {
+
+    private static final int PRODUCTS = 500;
+    private static final int MATERIALS = 50;
+
+    @Inject
+    CatalogSnapshots catalogSnapshots;
+
+    @Inject
+    FlattenedRequirements flattenedRequirements;
+
+    @Inject
+    ProductRawMaterialRepository productRawMaterialRepository;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Inject
+    DataSource dataSource;
+
+    @ConfigProperty(name = "production.snapshot.file")
+    String file;
+
+    private final Random random = new Random(24);
+
+    @BeforeEach
+    public void setUp() {
+        removeSyntheticCatalog();
+        seed();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        removeSyntheticCatalog();
+        catalogSnapshots.invalidate();
+    }
+
+    @Test
+    @DisplayName("Should load the saved bill of materials with current stock and quantities")
+    public void testRoundTrip() {
+        BillOfMaterials saved = save();
+        execute("update raw_material set stock_quantity = 7 where id = -1");
+        execute("update product set quantity = 3 where id = -1");
+
+        BillOfMaterials loaded = catalogSnapshots.load().orElseThrow();
+
+        assertEquals(describe(saved), describe(loaded));
+        assertEquals(7, loaded.getStock().get(-1L));
+        BillOfMaterials.Item first = loaded.getItems().stream()
+            .filter(item -> item.getProduct().getId() == -1L)
+            .findFirst().orElseThrow();
+        assertEquals(3, first.getProduct().getQuantity());
+    }
+
+    @Test
+    @DisplayName("Should ignore a snapshot once a product price changes outside the application")
+    public void testStaleAfterPriceChange() {
+        save();
+        execute("update product set price = 11 where id = -1");
+
+        assertTrue(catalogSnapshots.load().isEmpty());
+        assertFalse(Files.exists(Path.of(file)));
+    }
+
+    @Test
+    @DisplayName("Should ignore a snapshot once the bill of materials changes")
+    public void testStaleAfterRequirementChange() {
+        save();
+        QuarkusTransaction.requiringNew().run(() -> {
+            flattenedRequirements.lockForChanges();
+            execute("update product_raw_material set required_quantity = required_quantity + 1 where product_id = -1");
+            flattenedRequirements.refresh(List.of(-1L));
+        });
+
+        assertTrue(catalogSnapshots.load().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should ignore a corrupt snapshot")
+    public void testCorruptFile() throws IOException {
+        save();
+        byte[] bytes = Files.readAllBytes(Path.of(file));
+        bytes[bytes.length / 2] ^= 0x5a;
+        Files.write(Path.of(file), bytes);
+
+        assertTrue(catalogSnapshots.load().isEmpty());
+        assertFalse(Files.exists(Path.of(file)));
+    }
+
+    // ========== Helper Methods ==========
+
+    private BillOfMaterials save() {
+        // The synthetic rows were written past Hibernate, and reuse the ids of the previous test
+        sessionFactory.getCache().evictAllRegions();
+        long version = catalogSnapshots.databaseVersion();
+        BillOfMaterials bom = QuarkusTransaction.requiringNew().call(productRawMaterialRepository::loadBillOfMaterials);
+        catalogSnapshots.save(bom, version, () -> true);
+        assertTrue(Files.exists(Path.of(file)));
+        return bom;
+    }
+
+    /**
+     * Products, prices, quantities and requirements by product id, with
+     * requirements in raw material order.
+     */
+    private Map<Long, String> describe(BillOfMaterials bom) {
+        Map<Long, String> described = new HashMap<>();
+        for (BillOfMaterials.Item item : bom.getItems()) {
+            if (item.getProduct().getId() > 0) {
+                continue;
+            }
+            Map<Long, Integer> requirements = new TreeMap<>();
+            item.getRequirements().forEach(r -> requirements.put(r.getRawMaterialId(), r.getRequiredQuantity()));
+            described.put(item.getProduct().getId(), item.getProduct().getCode() + "|" + item.getProduct().getName()
+                + "|" + item.getProduct().getPrice().stripTrailingZeros() + "|" + requirements);
+        }
+        return described;
+    }
+
+    /**
+     * Single-level products with negative ids, which the sequences never
+     * hand out, each using two to five of the raw materials.
+     */
+    private void seed() {
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "insert into raw_material (id, code, name, stock_quantity, reserved_quantity, version) values (?, ?, ?, 1000000, 0, 0)")) {
+                for (int m = 1; m <= MATERIALS; m++) {
+                    statement.setLong(1, -m);
+                    statement.setString(2, "SNAP-RM" + m);
+                    statement.setString(3, "Snapshot material " + m);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            try (PreparedStatement product = connection.prepareStatement(
+                     "insert into product (id, code, name, price, quantity) values (?, ?, ?, ?, 0)");
+                 PreparedStatement requirement = connection.prepareStatement(
+                     "insert into product_raw_material (id, product_id, raw_material_id, required_quantity) values (?, ?, ?, ?)")) {
+                long id = 0;
+                for (int p = 1; p <= PRODUCTS; p++) {
+                    product.setLong(1, -p);
+                    product.setString(2, "SNAP-P" + p);
+                    product.setString(3, "Snapshot product " + p + " é");
+                    product.setBigDecimal(4, BigDecimal.valueOf(100 + random.nextInt(10_000), 2));
+                    product.addBatch();
+                    Set<Long> materials = new HashSet<>();
+                    for (int r = 2 + random.nextInt(4); r > 0; r--) {
+                        long material = -1 - random.nextInt(MATERIALS);
+                        if (materials.add(material)) {
+                            requirement.setLong(1, --id);
+                            requirement.setLong(2, -p);
+                            requirement.setLong(3, material);
+                            requirement.setInt(4, 1 + random.nextInt(9));
+                            requirement.addBatch();
+                        }
+                    }
+                }
+                product.executeBatch();
+                requirement.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        List<Long> products = new ArrayList<>();
+        for (long p = 1; p <= PRODUCTS; p++) {
+            products.add(-p);
+        }
+        QuarkusTransaction.requiringNew().run(() -> {
+            flattenedRequirements.lockForChanges();
+            flattenedRequirements.refresh(products);
+        });
+    }
+
+    private void removeSyntheticCatalog() {
+        execute("delete from product_requirement where product_id < 0");
+        execute("delete from product_raw_material where product_id < 0");
+        execute("delete from product where id < 0");
+        execute("delete from raw_material where id < 0");
+    }
+
+    private void execute(String sql) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
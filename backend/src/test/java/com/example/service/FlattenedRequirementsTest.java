@@ -0,0 +1,204 @@
+package com.example.service;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import jakarta.inject.Inject;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for FlattenedRequirements
+ * Tests that incremental refreshes after random edits match a full explosion
+ */
+@QuarkusTest
+@DisplayName("Flattened Requirements Tests")
+public class FlattenedRequirementsTest {
+
+    private static final int[] LEVELS = {200, 150, 80, 40, 20, 10};
+    private static final int MATERIALS = 50;
+    private static final int EDITS = 30;
+
+    @Inject
+    FlattenedRequirements flattenedRequirements;
+
+    @Inject
+    DataSource dataSource;
+
+    private final Random random = new Random(23);
+    private int nextId;
+
+    @BeforeEach
+    @AfterEach
+    public void removeSyntheticCatalog() {
+        // The synthetic catalog uses negative ids, which the sequences never hand out
+        execute("delete from product_requirement where product_id < 0");
+        execute("delete from product_component where id < 0");
+        execute("delete from product_raw_material where product_id < 0");
+        execute("delete from product where id < 0");
+        execute("delete from raw_material where id < 0");
+    }
+
+    @Test
+    @DisplayName("Should match a full explosion after random edits on a 6-level, 500-product catalog")
+    public void testIncrementalRefresh() {
+        long[][] levels = seed();
+        List<Long> leaves = new ArrayList<>();
+        Arrays.stream(levels[0]).forEach(leaves::add);
+
+        int rebuilt = QuarkusTransaction.requiringNew().call(() -> {
+            flattenedRequirements.lockForChanges();
+            return flattenedRequirements.refresh(leaves);
+        });
+        assertEquals(Arrays.stream(LEVELS).sum(), rebuilt);
+        assertEquals(explodeFromScratch(), flattened());
+
+        for (int i = 0; i < EDITS; i++) {
+            int level = 1 + random.nextInt(LEVELS.length - 1);
+            long assembly = levels[level][random.nextInt(levels[level].length)];
+            long part = levels[level - 1][random.nextInt(levels[level - 1].length)];
+            long leaf = levels[0][random.nextInt(levels[0].length)];
+            int edit = i % 3;
+            QuarkusTransaction.requiringNew().call(() -> {
+                flattenedRequirements.lockForChanges();
+                if (edit == 0) {
+                    execute("update product_raw_material set required_quantity = required_quantity + 1 where product_id = " + leaf);
+                    return flattenedRequirements.refresh(List.of(leaf));
+                } else if (edit == 1) {
+                    execute("insert into product_component (id, product_id, component_id, required_quantity) values ("
+                        + --nextId + ", " + assembly + ", " + part + ", 2)");
+                    return flattenedRequirements.refresh(List.of(assembly));
+                } else {
+                    execute("delete from product_component where product_id = " + assembly);
+                    return flattenedRequirements.refresh(List.of(assembly));
+                }
+            });
+        }
+        assertEquals(explodeFromScratch(), flattened());
+    }
+
+    // ========== Helper Methods ==========
+
+    /**
+     * Products numbered level by level, like the graph benchmark: level 0
+     * uses raw materials only, every higher level two to four products of
+     * the level below and sometimes a raw material of its own.
+     *
+     * @return product ids per level
+     */
+    private long[][] seed() {
+        long[][] levels = new long[LEVELS.length][];
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "insert into raw_material (id, code, name, stock_quantity, reserved_quantity, version) values (?, ?, ?, 1000000, 0, 0)")) {
+                for (int m = 1; m <= MATERIALS; m++) {
+                    statement.setLong(1, -m);
+                    statement.setString(2, "FLAT-RM" + m);
+                    statement.setString(3, "Flat material " + m);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            try (PreparedStatement product = connection.prepareStatement(
+                     "insert into product (id, code, name, price, quantity) values (?, ?, ?, 10, 0)");
+                 PreparedStatement requirement = connection.prepareStatement(
+                     "insert into product_raw_material (id, product_id, raw_material_id, required_quantity) values (?, ?, ?, ?)");
+                 PreparedStatement component = connection.prepareStatement(
+                     "insert into product_component (id, product_id, component_id, required_quantity) values (?, ?, ?, ?)")) {
+                long id = 0;
+                for (int level = 0; level < LEVELS.length; level++) {
+                    levels[level] = new long[LEVELS[level]];
+                    for (int p = 0; p < LEVELS[level]; p++) {
+                        long productId = --id;
+                        levels[level][p] = productId;
+                        product.setLong(1, productId);
+                        product.setString(2, "FLAT-P" + -productId);
+                        product.setString(3, "Flat product " + -productId);
+                        product.addBatch();
+                        int requirements = level == 0 ? 2 + random.nextInt(4) : random.nextInt(3) == 0 ? 1 : 0;
+                        Set<Long> materials = new HashSet<>();
+                        for (int r = 0; r < requirements; r++) {
+                            long material = -1 - random.nextInt(MATERIALS);
+                            if (materials.add(material)) {
+                                requirement.setLong(1, --nextId);
+                                requirement.setLong(2, productId);
+                                requirement.setLong(3, material);
+                                requirement.setInt(4, 1 + random.nextInt(9));
+                                requirement.addBatch();
+                            }
+                        }
+                        for (int c = level == 0 ? 0 : 2 + random.nextInt(3); c > 0; c--) {
+                            component.setLong(1, --nextId);
+                            component.setLong(2, productId);
+                            component.setLong(3, levels[level - 1][random.nextInt(LEVELS[level - 1])]);
+                            component.setInt(4, 1 + random.nextInt(4));
+                            component.addBatch();
+                        }
+                    }
+                }
+                product.executeBatch();
+                requirement.executeBatch();
+                component.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        return levels;
+    }
+
+    private Map<Long, Map<Long, Long>> explodeFromScratch() {
+        BomGraph.Builder builder = BomGraph.builder();
+        query("select product_id, raw_material_id, required_quantity from product_raw_material where product_id < 0",
+            row -> builder.requirement(row[0], row[1], row[2]));
+        query("select product_id, component_id, required_quantity from product_component where id < 0",
+            row -> builder.component(row[0], row[1], row[2]));
+        BomGraph graph = builder.build();
+        Map<Long, Map<Long, Long>> exploded = new HashMap<>();
+        for (long productId : graph.topologicalOrder()) {
+            BomGraph.Requirements requirements = graph.explode(productId);
+            for (int i = 0; i < requirements.size(); i++) {
+                exploded.computeIfAbsent(productId, id -> new HashMap<>())
+                    .put(requirements.rawMaterialId(i), Math.min(requirements.quantity(i), Integer.MAX_VALUE));
+            }
+        }
+        return exploded;
+    }
+
+    private Map<Long, Map<Long, Long>> flattened() {
+        Map<Long, Map<Long, Long>> flattened = new HashMap<>();
+        query("select product_id, raw_material_id, required_quantity from product_requirement where product_id < 0",
+            row -> flattened.computeIfAbsent(row[0], id -> new HashMap<>()).put(row[1], row[2]));
+        return flattened;
+    }
+
+    private void query(String sql, java.util.function.Consumer<long[]> rows) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql);
+             ResultSet result = statement.executeQuery()) {
+            while (result.next()) {
+                rows.accept(new long[]{result.getLong(1), result.getLong(2), result.getLong(3)});
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void execute(String sql) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests for ImportReader
+ * Tests CSV quoting rules and per-line error handling for NDJSON and CSV
+ */
+@DisplayName("Import Reader Tests")
+public class ImportReaderTest {
+
+    @Test
+    @DisplayName("Should split quoted CSV fields")
+    public void testSplitCsv() {
+        assertEquals(List.of("A", "Steel, cold \"rolled\"", ""), ImportReader.splitCsv("A,\"Steel, cold \"\"rolled\"\"\","));
+        assertNull(ImportReader.splitCsv("A,\"open"));
+    }
+
+    @Test
+    @DisplayName("Should map CSV columns by header and keep line numbers")
+    public void testCsvRows() {
+        List<ImportRow> rows = read(ImportReader.csv(reader("code,name\nP1,First\n\nP2\nP3,\n")));
+
+        assertEquals(3, rows.size());
+        assertEquals("First", rows.get(0).get("name"));
+        assertEquals(2, rows.get(0).getLine());
+        assertEquals(4, rows.get(1).getLine());
+        assertTrue(rows.get(1).getError().contains("columns"));
+        assertNull(rows.get(2).get("name"));
+    }
+
+    @Test
+    @DisplayName("Should report malformed NDJSON lines without stopping")
+    public void testNdjsonRows() {
+        List<ImportRow> rows = read(ImportReader.ndjson(reader("{\"code\": \"P1\", \"price\": 1.5}\n[1]\n{broken\n{\"code\": null}\n"), new ObjectMapper()));
+
+        assertEquals(4, rows.size());
+        assertEquals("1.5", rows.get(0).get("price"));
+        assertNotNull(rows.get(1).getError());
+        assertNotNull(rows.get(2).getError());
+        assertNull(rows.get(3).getError());
+        assertNull(rows.get(3).get("code"));
+    }
+
+    // ========== Helper Methods ==========
+
+    private BufferedReader reader(String text) {
+        return new BufferedReader(new StringReader(text));
+    }
+
+    private List<ImportRow> read(Iterator<ImportRow> iterator) {
+        List<ImportRow> rows = new ArrayList<>();
+        iterator.forEachRemaining(rows::add);
+        return rows;
+    }
+}
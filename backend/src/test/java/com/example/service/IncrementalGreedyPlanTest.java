@@ -0,0 +1,109 @@
+package com.example.service;
+
+import com.example.model.Product;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests for the incrementally repaired greedy plan
+ * Compares every repair with a greedy pass from scratch over the same stock
+ */
+@DisplayName("Incremental Greedy Plan Tests")
+public class IncrementalGreedyPlanTest {
+
+    @Test
+    @DisplayName("Should match a full greedy pass after random stock changes")
+    public void testMatchesFullRecomputation() {
+        Random random = new Random(5);
+        for (int round = 0; round < 20; round++) {
+            OptimizationModel model = OptimizationModel.of(randomCatalog(random, 300, 40, 4, 2_000));
+            IncrementalGreedyPlan plan = new IncrementalGreedyPlan(model);
+            Map<Long, Integer> stock = new HashMap<>();
+
+            for (int change = 0; change < 25; change++) {
+                Map<Long, Integer> update = new HashMap<>();
+                int materials = 1 + random.nextInt(3);
+                for (int i = 0; i < materials; i++) {
+                    update.put((long) random.nextInt(40), random.nextInt(2_001));
+                }
+                stock.putAll(update);
+
+                int touched = plan.applyStock(update);
+
+                ProductionPlan expected = model.withStock(stock).greedy(GreedyOptimizer.NAME);
+                ProductionPlan actual = plan.toPlan(GreedyOptimizer.NAME);
+                assertTrue(touched <= model.products());
+                assertEquals(0, expected.getTotalValue().compareTo(actual.getTotalValue()), "round " + round + " change " + change);
+                assertEquals(quantities(expected), quantities(actual), "round " + round + " change " + change);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should only revisit products that depend on the changed material")
+    public void testTouchesOnlyDependentProducts() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int p = 0; p < 100; p++) {
+            rows.add(new Object[]{product("P" + p, 100 + p), (long) p, 50, 5});
+        }
+        OptimizationModel model = OptimizationModel.of(BillOfMaterials.fromRows(rows));
+        IncrementalGreedyPlan plan = new IncrementalGreedyPlan(model);
+
+        int touched = plan.applyStock(Map.of(7L, 100));
+
+        assertEquals(1, touched);
+        assertEquals(0, new BigDecimal("150570.00").compareTo(plan.toPlan(GreedyOptimizer.NAME).getTotalValue()));
+    }
+
+    @Test
+    @DisplayName("Should ignore unknown raw materials and unchanged stock")
+    public void testIgnoresNoOpChanges() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{product("ONLY", 10), 1L, 30, 3});
+        IncrementalGreedyPlan plan = new IncrementalGreedyPlan(OptimizationModel.of(BillOfMaterials.fromRows(rows)));
+
+        assertEquals(0, plan.applyStock(Map.of(1L, 30, 99L, 500)));
+        assertEquals(10, plan.toPlan(GreedyOptimizer.NAME).getLines().get(0).getQuantity());
+    }
+
+    // ========== Helper Methods ==========
+
+    private Map<String, Integer> quantities(ProductionPlan plan) {
+        Map<String, Integer> quantities = new HashMap<>();
+        plan.getLines().forEach(line -> quantities.put(line.getProduct().getCode(), line.getQuantity()));
+        return quantities;
+    }
+
+    private BillOfMaterials randomCatalog(Random random, int products, int materials, int maxRequirements, int maxStock) {
+        int[] stock = new int[materials];
+        for (int m = 0; m < materials; m++) {
+            stock[m] = random.nextInt(maxStock + 1);
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (int p = 0; p < products; p++) {
+            Product product = product("P" + p, 1 + random.nextInt(999));
+            Set<Integer> used = new TreeSet<>();
+            int requirements = 1 + random.nextInt(maxRequirements);
+            while (used.size() < Math.min(requirements, materials)) {
+                used.add(random.nextInt(materials));
+            }
+            for (int m : used) {
+                rows.add(new Object[]{product, (long) m, stock[m], 1 + random.nextInt(9)});
+            }
+        }
+        return BillOfMaterials.fromRows(rows);
+    }
+
+    private Product product(String code, int price) {
+        Product product = new Product();
+        product.setCode(code);
+        product.setName(code);
+        product.setPrice(BigDecimal.valueOf(price).setScale(2));
+        return product;
+    }
+}
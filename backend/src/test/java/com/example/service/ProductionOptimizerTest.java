@@ -0,0 +1,259 @@
+package com.example.service;
+
+import com.example.model.Product;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests for the production optimizers
+ * Compares greedy, LP-guided and branch-and-bound plans for value and feasibility
+ */
+@DisplayName("Production Optimizer Tests")
+public class ProductionOptimizerTest {
+
+    private final GreedyOptimizer greedy = new GreedyOptimizer();
+    private final LpRelaxationOptimizer lp = new LpRelaxationOptimizer();
+    private final BranchAndBoundOptimizer branchAndBound = new BranchAndBoundOptimizer(Duration.ofSeconds(2));
+
+    @Test
+    @DisplayName("Should beat greedy when an expensive product hogs a shared material")
+    public void testSharedMaterialCounterExample() {
+        CatalogBuilder catalog = new CatalogBuilder();
+        Product expensive = catalog.product("EXPENSIVE", "100.00");
+        Product cheap = catalog.product("CHEAP", "60.00");
+        catalog.require(expensive, 1L, 10, 10);
+        catalog.require(cheap, 1L, 10, 5);
+        BillOfMaterials bom = catalog.build();
+
+        assertEquals(0, new BigDecimal("100.00").compareTo(greedy.optimize(bom).getTotalValue()));
+        assertEquals(0, new BigDecimal("120.00").compareTo(lp.optimize(bom).getTotalValue()));
+
+        ProductionPlan plan = branchAndBound.optimize(bom);
+        assertEquals(0, new BigDecimal("120.00").compareTo(plan.getTotalValue()));
+        assertTrue(plan.isOptimal());
+        assertEquals(1, plan.getLines().size());
+        assertSame(cheap, plan.getLines().get(0).getProduct());
+        assertEquals(2, plan.getLines().get(0).getQuantity());
+    }
+
+    @Test
+    @DisplayName("Should match brute force on small random catalogs")
+    public void testBranchAndBoundMatchesBruteForce() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            BillOfMaterials bom = randomCatalog(random, 5, 3, 2, 25);
+            ProductionPlan plan = branchAndBound.optimize(bom);
+
+            assertTrue(plan.isOptimal());
+            assertEquals(0, bruteForce(bom).compareTo(plan.getTotalValue()), "round " + round);
+            assertFeasible(bom, plan);
+        }
+    }
+
+    @Test
+    @DisplayName("Should never return less than the greedy pass")
+    public void testNeverWorseThanGreedy() {
+        BranchAndBoundOptimizer bounded = new BranchAndBoundOptimizer(Duration.ofMillis(200));
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            BillOfMaterials bom = randomCatalog(random, 40, 10, 4, 500);
+            BigDecimal greedyValue = greedy.optimize(bom).getTotalValue();
+
+            ProductionPlan lpPlan = lp.optimize(bom);
+            ProductionPlan exactPlan = bounded.optimize(bom);
+
+            assertTrue(lpPlan.getTotalValue().compareTo(greedyValue) >= 0);
+            assertTrue(exactPlan.getTotalValue().compareTo(lpPlan.getTotalValue()) >= 0);
+            assertFeasible(bom, lpPlan);
+            assertFeasible(bom, exactPlan);
+        }
+    }
+
+    @Test
+    @DisplayName("Should match the BigDecimal greedy loop it replaced")
+    public void testGreedyKernelMatchesReferenceLoop() {
+        Random random = new Random(11);
+        for (int round = 0; round < 20; round++) {
+            BillOfMaterials bom = randomCatalog(random, 200, 30, 5, 1_000);
+
+            ProductionPlan plan = greedy.optimize(bom);
+
+            Map<Product, Integer> expected = referenceGreedy(bom);
+            assertEquals(expected.size(), plan.getLines().size());
+            BigDecimal expectedTotal = BigDecimal.ZERO;
+            int index = 0;
+            for (Map.Entry<Product, Integer> entry : expected.entrySet()) {
+                ProductionPlan.Line line = plan.getLines().get(index++);
+                assertSame(entry.getKey(), line.getProduct());
+                assertEquals(entry.getValue(), line.getQuantity());
+                expectedTotal = expectedTotal.add(entry.getKey().getPrice().multiply(BigDecimal.valueOf(entry.getValue())));
+            }
+            assertEquals(0, expectedTotal.compareTo(plan.getTotalValue()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should skip products without positive requirements or price")
+    public void testIgnoresUnboundedAndNegativeProducts() {
+        CatalogBuilder catalog = new CatalogBuilder();
+        Product free = catalog.product("FREE", "10.00");
+        Product negative = catalog.product("NEGATIVE", "-5.00");
+        Product normal = catalog.product("NORMAL", "20.00");
+        catalog.require(free, 1L, 10, 0);
+        catalog.require(negative, 2L, 10, 1);
+        catalog.require(normal, 1L, 10, 2);
+        BillOfMaterials bom = catalog.build();
+
+        ProductionPlan plan = branchAndBound.optimize(bom);
+
+        assertEquals(0, new BigDecimal("100.00").compareTo(plan.getTotalValue()));
+        assertEquals(1, plan.getLines().size());
+        assertSame(normal, plan.getLines().get(0).getProduct());
+    }
+
+    @Test
+    @DisplayName("Should handle an empty catalog")
+    public void testEmptyCatalog() {
+        BillOfMaterials bom = new CatalogBuilder().build();
+
+        for (ProductionOptimizer optimizer : List.of(greedy, lp, branchAndBound)) {
+            ProductionPlan plan = optimizer.optimize(bom);
+            assertEquals(0, BigDecimal.ZERO.compareTo(plan.getTotalValue()));
+            assertTrue(plan.getLines().isEmpty());
+        }
+    }
+
+    @Test
+    @Timeout(30)
+    @DisplayName("Should stay feasible and at least as good as greedy on 10k products x 2k raw materials")
+    public void testLargeCatalog() {
+        BillOfMaterials bom = randomCatalog(new Random(2024), 10_000, 2_000, 6, 5_000);
+        BranchAndBoundOptimizer bounded = new BranchAndBoundOptimizer(Duration.ofSeconds(1));
+
+        ProductionPlan greedyPlan = greedy.optimize(bom);
+        ProductionPlan lpPlan = lp.optimize(bom);
+        ProductionPlan exactPlan = bounded.optimize(bom);
+
+        assertTrue(exactPlan.getTotalValue().compareTo(greedyPlan.getTotalValue()) >= 0);
+        assertFeasible(bom, greedyPlan);
+        assertFeasible(bom, lpPlan);
+        assertFeasible(bom, exactPlan);
+    }
+
+    // ========== Helper Methods ==========
+
+    private BillOfMaterials randomCatalog(Random random, int products, int materials, int maxRequirements, int maxStock) {
+        CatalogBuilder catalog = new CatalogBuilder();
+        int[] stock = new int[materials];
+        for (int m = 0; m < materials; m++) {
+            stock[m] = random.nextInt(maxStock + 1);
+        }
+        for (int p = 0; p < products; p++) {
+            Product product = catalog.product("P" + p, BigDecimal.valueOf(100 + random.nextInt(99_900), 2).toPlainString());
+            int requirements = 1 + random.nextInt(maxRequirements);
+            Set<Integer> used = new TreeSet<>();
+            while (used.size() < Math.min(requirements, materials)) {
+                used.add(random.nextInt(materials));
+            }
+            for (int m : used) {
+                catalog.require(product, (long) m, stock[m], 1 + random.nextInt(9));
+            }
+        }
+        return catalog.build();
+    }
+
+    private BigDecimal bruteForce(BillOfMaterials bom) {
+        List<BillOfMaterials.Item> items = bom.getItems();
+        return bruteForce(items, 0, new HashMap<>(bom.getStock()));
+    }
+
+    private BigDecimal bruteForce(List<BillOfMaterials.Item> items, int index, Map<Long, Integer> stock) {
+        if (index == items.size()) {
+            return BigDecimal.ZERO;
+        }
+        BillOfMaterials.Item item = items.get(index);
+        BigDecimal best = BigDecimal.ZERO;
+        for (int quantity = 0; fits(item, quantity, stock); quantity++) {
+            Map<Long, Integer> remaining = new HashMap<>(stock);
+            for (BillOfMaterials.Requirement requirement : item.getRequirements()) {
+                remaining.merge(requirement.getRawMaterialId(), -requirement.getRequiredQuantity() * quantity, Integer::sum);
+            }
+            BigDecimal value = item.getProduct().getPrice().multiply(BigDecimal.valueOf(quantity))
+                .add(bruteForce(items, index + 1, remaining));
+            if (value.compareTo(best) > 0) {
+                best = value;
+            }
+        }
+        return best;
+    }
+
+    private Map<Product, Integer> referenceGreedy(BillOfMaterials bom) {
+        List<BillOfMaterials.Item> items = new ArrayList<>(bom.getItems());
+        items.sort(Comparator.comparing((BillOfMaterials.Item item) -> item.getProduct().getPrice()).reversed());
+        Map<Long, Integer> stock = new HashMap<>(bom.getStock());
+        Map<Product, Integer> producible = new LinkedHashMap<>();
+        for (BillOfMaterials.Item item : items) {
+            int maxQty = Integer.MAX_VALUE;
+            for (BillOfMaterials.Requirement requirement : item.getRequirements()) {
+                maxQty = Math.min(maxQty, stock.getOrDefault(requirement.getRawMaterialId(), 0) / requirement.getRequiredQuantity());
+            }
+            if (maxQty > 0 && maxQty != Integer.MAX_VALUE) {
+                producible.put(item.getProduct(), maxQty);
+                for (BillOfMaterials.Requirement requirement : item.getRequirements()) {
+                    stock.merge(requirement.getRawMaterialId(), -requirement.getRequiredQuantity() * maxQty, Integer::sum);
+                }
+            }
+        }
+        return producible;
+    }
+
+    private boolean fits(BillOfMaterials.Item item, int quantity, Map<Long, Integer> stock) {
+        for (BillOfMaterials.Requirement requirement : item.getRequirements()) {
+            if (requirement.getRequiredQuantity() * quantity > stock.getOrDefault(requirement.getRawMaterialId(), 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void assertFeasible(BillOfMaterials bom, ProductionPlan plan) {
+        Map<Product, BillOfMaterials.Item> itemsByProduct = new IdentityHashMap<>();
+        bom.getItems().forEach(item -> itemsByProduct.put(item.getProduct(), item));
+        Map<Long, Integer> remaining = new HashMap<>(bom.getStock());
+        for (ProductionPlan.Line line : plan.getLines()) {
+            for (BillOfMaterials.Requirement requirement : itemsByProduct.get(line.getProduct()).getRequirements()) {
+                remaining.merge(requirement.getRawMaterialId(), -requirement.getRequiredQuantity() * line.getQuantity(), Integer::sum);
+            }
+        }
+        remaining.forEach((id, left) -> assertTrue(left >= 0, "Raw material " + id + " over-consumed"));
+    }
+
+    // ========== Helper Classes ==========
+
+    private static class CatalogBuilder {
+        private final List<Object[]> rows = new ArrayList<>();
+
+        Product product(String code, String price) {
+            Product product = new Product();
+            product.setCode(code);
+            product.setName(code);
+            product.setPrice(new BigDecimal(price));
+            return product;
+        }
+
+        void require(Product product, Long rawMaterialId, int stock, int requiredQuantity) {
+            rows.add(new Object[]{product, rawMaterialId, stock, requiredQuantity});
+        }
+
+        BillOfMaterials build() {
+            return BillOfMaterials.fromRows(rows);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.service;
+
+import com.example.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests for the parallel what-if scenario evaluation
+ * Checks isolation between scenarios and a large batch over a large catalog
+ */
+@DisplayName("Scenario Evaluator Tests")
+public class ScenarioEvaluatorTest {
+
+    private final ScenarioEvaluator evaluator = new ScenarioEvaluator(Runtime.getRuntime().availableProcessors());
+    private final GreedyOptimizer greedy = new GreedyOptimizer();
+
+    @AfterEach
+    public void tearDown() {
+        evaluator.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should match sequential evaluation and leave the model untouched")
+    public void testMatchesSequentialEvaluation() {
+        Random random = new Random(3);
+        OptimizationModel model = OptimizationModel.of(randomCatalog(random, 500, 50, 4, 1_000));
+        BigDecimal baseline = greedy.optimize(model).getTotalValue();
+        List<Map<Long, Integer>> deltas = randomDeltas(random, 200, 50);
+
+        List<ProductionPlan> plans = evaluator.evaluate(model, greedy, deltas);
+
+        assertEquals(deltas.size(), plans.size());
+        for (int i = 0; i < deltas.size(); i++) {
+            ProductionPlan expected = greedy.optimize(model.withStockDelta(deltas.get(i)));
+            assertEquals(0, expected.getTotalValue().compareTo(plans.get(i).getTotalValue()), "scenario " + i);
+        }
+        assertEquals(0, baseline.compareTo(greedy.optimize(model).getTotalValue()));
+    }
+
+    @Test
+    @DisplayName("Should clamp stock at zero and ignore unknown raw materials")
+    public void testDeltaBounds() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{product("ONLY", 10), 1L, 30, 3});
+        OptimizationModel model = OptimizationModel.of(BillOfMaterials.fromRows(rows));
+
+        List<ProductionPlan> plans = evaluator.evaluate(model, greedy, List.of(
+            Map.of(1L, 30),
+            Map.of(1L, -100),
+            Map.of(99L, 500),
+            Map.of(1L, Integer.MAX_VALUE)));
+
+        assertEquals(20, plans.get(0).getLines().get(0).getQuantity());
+        assertTrue(plans.get(1).getLines().isEmpty());
+        assertEquals(10, plans.get(2).getLines().get(0).getQuantity());
+        assertEquals(Integer.MAX_VALUE / 3, plans.get(3).getLines().get(0).getQuantity());
+    }
+
+    @Test
+    @Timeout(60)
+    @DisplayName("Should evaluate 1,000 scenarios over 10k products")
+    public void testLargeBatch() {
+        Random random = new Random(2024);
+        OptimizationModel model = OptimizationModel.of(randomCatalog(random, 10_000, 2_000, 6, 5_000));
+        List<Map<Long, Integer>> deltas = randomDeltas(random, 1_000, 2_000);
+        List<ProductionPlan> first = evaluator.evaluate(model, greedy, deltas.subList(0, 50));
+
+        List<ProductionPlan> plans = evaluator.evaluate(model, greedy, deltas);
+
+        assertEquals(1_000, plans.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(0, first.get(i).getTotalValue().compareTo(plans.get(i).getTotalValue()), "scenario " + i);
+        }
+    }
+
+    // ========== Helper Methods ==========
+
+    private List<Map<Long, Integer>> randomDeltas(Random random, int scenarios, int materials) {
+        List<Map<Long, Integer>> deltas = new ArrayList<>();
+        for (int s = 0; s < scenarios; s++) {
+            Map<Long, Integer> delta = new HashMap<>();
+            int changes = 1 + random.nextInt(5);
+            for (int c = 0; c < changes; c++) {
+                delta.put((long) random.nextInt(materials), random.nextInt(1_001) - 300);
+            }
+            deltas.add(delta);
+        }
+        return deltas;
+    }
+
+    private BillOfMaterials randomCatalog(Random random, int products, int materials, int maxRequirements, int maxStock) {
+        int[] stock = new int[materials];
+        for (int m = 0; m < materials; m++) {
+            stock[m] = random.nextInt(maxStock + 1);
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (int p = 0; p < products; p++) {
+            Product product = product("P" + p, 1 + random.nextInt(999));
+            Set<Integer> used = new TreeSet<>();
+            int requirements = 1 + random.nextInt(maxRequirements);
+            while (used.size() < Math.min(requirements, materials)) {
+                used.add(random.nextInt(materials));
+            }
+            for (int m : used) {
+                rows.add(new Object[]{product, (long) m, stock[m], 1 + random.nextInt(9)});
+            }
+        }
+        return BillOfMaterials.fromRows(rows);
+    }
+
+    private Product product(String code, int price) {
+        Product product = new Product();
+        product.setCode(code);
+        product.setName(code);
+        product.setPrice(BigDecimal.valueOf(price).setScale(2));
+        return product;
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.service;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import jakarta.inject.Inject;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.example.resource.CatalogFixtures.*;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for StockHistory
+ * Tests that every stock change is recorded and that past stock is rebuilt from snapshots and movements
+ */
+@QuarkusTest
+@DisplayName("Stock History Tests")
+public class StockHistoryTest {
+
+    private static final String RAW_MATERIALS_ENDPOINT = "/raw-materials";
+    private static final String HISTORY_ENDPOINT = "/stock-history";
+    private static final int SYNTHETIC_MATERIALS = 20;
+    private static final int SYNTHETIC_WEEKS = 52;
+
+    @Inject
+    StockHistory stockHistory;
+
+    @Inject
+    DataSource dataSource;
+
+    @BeforeEach
+    @AfterEach
+    public void removeSyntheticHistory() {
+        // Synthetic movements use negative raw material ids and lie in 2000, before any real snapshot
+        execute("delete from stock_movement where raw_material_id < 0");
+        execute("delete from stock_snapshot where taken_at < timestamptz '2001-01-01 00:00:00+00'");
+    }
+
+    @Test
+    @DisplayName("Should rebuild the stock of a raw material at any past instant")
+    public void testPointInTimeStock() {
+        Instant beforeCreate = Instant.now();
+        long id = rawMaterial("HISTORY-" + System.nanoTime(), 100);
+        Instant created = Instant.now();
+        move(id, "reserve", 30);
+        Instant reserved = Instant.now();
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("{\"code\": \"HISTORY-%d\", \"name\": \"History\", \"stockQuantity\": 500}", id))
+            .when()
+            .put(RAW_MATERIALS_ENDPOINT + "/{id}", id)
+            .then()
+            .statusCode(200);
+        Instant adjusted = Instant.now();
+
+        given().when().post(HISTORY_ENDPOINT + "/snapshots").then().statusCode(200).body("takenAt", notNullValue());
+
+        move(id, "consume", 10);
+        Instant consumed = Instant.now();
+        given().when().delete(RAW_MATERIALS_ENDPOINT + "/{id}", id).then().statusCode(204);
+        Instant deleted = Instant.now();
+
+        assertLevel(id, beforeCreate, 0, 0);
+        assertLevel(id, created, 100, 0);
+        assertLevel(id, reserved, 70, 30);
+        assertLevel(id, adjusted, 500, 30);
+        assertLevel(id, consumed, 500, 20);
+        assertLevel(id, deleted, 0, 0);
+
+        given()
+            .queryParam("at", adjusted.toString())
+            .when().get(HISTORY_ENDPOINT)
+            .then()
+            .statusCode(200)
+            .body("find { it.id == " + id + " }.stockQuantity", is(500))
+            .body("find { it.id == " + id + " }.reservedQuantity", is(30));
+        given()
+            .queryParam("at", deleted.toString())
+            .when().get(HISTORY_ENDPOINT)
+            .then()
+            .statusCode(200)
+            .body("find { it.id == " + id + " }", nullValue());
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid timestamp")
+    public void testInvalidTimestamp() {
+        given()
+            .queryParam("at", "yesterday")
+            .when().get(HISTORY_ENDPOINT + "/{id}", 1)
+            .then()
+            .statusCode(400)
+            .body("error", containsString("ISO-8601"));
+    }
+
+    @Test
+    @DisplayName("Should rebuild the same stock from a full replay and from a snapshot")
+    public void testYearReplay() {
+        // Week 0 brings 1000 units, every later week reserves 1 and consumes 2
+        execute("insert into stock_movement (raw_material_id, occurred_at, kind, stock_delta, reserved_delta) "
+            + "select -m, timestamptz '2000-01-01 00:00:00+00' + w * interval '7 days' + m * interval '1 second', 'ADJUST', "
+            + "case when w = 0 then 1000 else -3 end, case when w = 0 then 0 else 1 end "
+            + "from generate_series(0, " + (SYNTHETIC_WEEKS - 1) + ") w, generate_series(1, " + SYNTHETIC_MATERIALS + ") m "
+            + "order by w, m");
+        Instant midYear = Instant.parse("2000-07-01T00:00:00Z");
+        Instant yearEnd = Instant.parse("2000-12-31T23:59:59Z");
+
+        List<StockLevel> replayed = synthetic(stockHistory.levelsAt(yearEnd));
+        stockHistory.snapshot(midYear);
+        List<StockLevel> fromSnapshot = synthetic(stockHistory.levelsAt(yearEnd));
+
+        for (List<StockLevel> levels : List.of(replayed, fromSnapshot)) {
+            assertEquals(SYNTHETIC_MATERIALS, levels.size());
+            assertTrue(levels.stream().allMatch(level ->
+                level.getStockQuantity() == 1000 - 3 * (SYNTHETIC_WEEKS - 1) && level.getReservedQuantity() == SYNTHETIC_WEEKS - 1));
+        }
+        // 2000-07-01 is the start of week 26, so 26 weeks of movements are in for every material
+        StockLevel atSnapshot = stockHistory.levelAt(-1, midYear);
+        assertEquals(1000 - 3 * 25, atSnapshot.getStockQuantity());
+        assertEquals(25, atSnapshot.getReservedQuantity());
+        assertEquals(atSnapshot.getStockQuantity() - 3, stockHistory.levelAt(-1, midYear.plusSeconds(7 * 24 * 3600)).getStockQuantity());
+    }
+
+    // ========== Helper Methods ==========
+
+    private void move(long id, String movement, int quantity) {
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("{\"quantity\": %d}", quantity))
+            .when()
+            .post(RAW_MATERIALS_ENDPOINT + "/{id}/" + movement, id)
+            .then()
+            .statusCode(200);
+    }
+
+    private void assertLevel(long id, Instant at, int stockQuantity, int reservedQuantity) {
+        given()
+            .queryParam("at", at.toString())
+            .when().get(HISTORY_ENDPOINT + "/{id}", id)
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", is(stockQuantity))
+            .body("reservedQuantity", is(reservedQuantity));
+    }
+
+    private static List<StockLevel> synthetic(List<StockLevel> levels) {
+        return levels.stream().filter(level -> level.getId() < 0).collect(Collectors.toList());
+    }
+
+    private void execute(String sql) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.executeUpdate();
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.service;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import jakarta.inject.Inject;
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.resource.CatalogFixtures.*;
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for StockLedger
+ * Tests in-memory movements, write-behind to the database and replay of the journal after a crash
+ */
+@QuarkusTest
+@DisplayName("Stock Ledger Tests")
+public class StockLedgerTest {
+
+    private static final String RAW_MATERIALS_ENDPOINT = "/raw-materials";
+    private static final int STOCK = 100;
+    /** Long enough that the background flush never runs during a test. */
+    private static final Duration NO_FLUSH = Duration.ofHours(1);
+
+    @Inject
+    DataSource dataSource;
+
+    private Path journalDirectory;
+    private Long materialId;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        journalDirectory = Files.createTempDirectory("stock-ledger");
+        materialId = rawMaterial("LEDGER-" + System.nanoTime(), STOCK);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        given().when().delete(RAW_MATERIALS_ENDPOINT + "/{id}", materialId);
+        try (var files = Files.walk(journalDirectory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve movements from memory and write them back on flush")
+    public void testMovementsAreWrittenBehind() throws Exception {
+        StockLedger ledger = ledger();
+        try {
+            assertEquals(STOCK - 10, ledger.reserve(materialId, 10).orElseThrow().getStockQuantity());
+            assertEquals(4, ledger.consume(materialId, 6).orElseThrow().getReservedQuantity());
+            assertTrue(ledger.reserve(materialId, STOCK).isEmpty());
+            assertTrue(ledger.release(materialId, 5).isEmpty());
+            assertTrue(ledger.reserve(999999999L, 1).isEmpty());
+            assertStored(STOCK, 0);
+            assertEquals(STOCK - 10, ledger.unflushedStock().get(materialId));
+            assertEquals(STOCK - 10, ledger.stock(List.of(materialId, 999999999L)).get(materialId));
+
+            ledger.flush();
+            assertStored(STOCK - 10, 4);
+            assertEquals(STOCK - 10, ledger.level(materialId).orElseThrow().getStockQuantity());
+        } finally {
+            ledger.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should replay acknowledged movements after a crash, exactly once")
+    public void testCrashRecovery() throws Exception {
+        StockLedger crashed = ledger();
+        crashed.reserve(materialId, 30);
+        crashed.flush();
+        crashed.release(materialId, 10);
+        crashed.consume(materialId, 5);
+        // Abandoned without close: the last two movements are only in the journal
+        assertStored(STOCK - 30, 30);
+
+        StockLedger recovered = ledger();
+        try {
+            assertStored(STOCK - 20, 15);
+            assertEquals(15, recovered.level(materialId).orElseThrow().getReservedQuantity());
+        } finally {
+            recovered.close();
+        }
+
+        ledger().close();
+        assertStored(STOCK - 20, 15);
+    }
+
+    @Test
+    @DisplayName("Should flush before a direct write and reload after it")
+    public void testExclusiveWrite() throws Exception {
+        StockLedger ledger = ledger();
+        try {
+            ledger.reserve(materialId, 40);
+            ledger.exclusive(() -> {
+                assertStored(STOCK - 40, 40);
+                execute("update raw_material set stock_quantity = 500 where id = " + materialId);
+                return null;
+            });
+            assertEquals(500, ledger.level(materialId).orElseThrow().getStockQuantity());
+            assertEquals(460, ledger.reserve(materialId, 40).orElseThrow().getStockQuantity());
+        } finally {
+            ledger.close();
+        }
+        assertStored(460, 80);
+    }
+
+    @Test
+    @DisplayName("Should never oversell stock to concurrent writers")
+    public void testConcurrentReservationsDoNotOversell() throws Exception {
+        int writers = 64;
+        StockLedger ledger = ledger();
+        AtomicInteger accepted = new AtomicInteger();
+        ExecutorService threads = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int w = 0; w < writers; w++) {
+                futures.add(threads.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 5; i++) {
+                        if (ledger.reserve(materialId, 1).isPresent()) {
+                            accepted.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            threads.shutdownNow();
+            ledger.close();
+        }
+
+        assertEquals(STOCK, accepted.get());
+        assertStored(0, STOCK);
+    }
+
+    // ========== Helper Methods ==========
+
+    private StockLedger ledger() {
+        return new StockLedger(dataSource, journalDirectory, true, 8, NO_FLUSH, ids -> { });
+    }
+
+    private void assertStored(int stockQuantity, int reservedQuantity) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                 "select stock_quantity, reserved_quantity from raw_material where id = ?")) {
+            statement.setLong(1, materialId);
+            try (ResultSet result = statement.executeQuery()) {
+                assertTrue(result.next());
+                assertEquals(stockQuantity, result.getInt(1), "stock_quantity");
+                assertEquals(reservedQuantity, result.getInt(2), "reserved_quantity");
+            }
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private void execute(String sql) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.executeUpdate();
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of the benchmark jar.
+ *
+ * Runs JMH with its usual command line, writing results as JSON to
+ * {@code jmh-result.json} unless {@code -rf}/{@code -rff} say otherwise.
+ * {@code compare <baseline.json> <current.json> [threshold%]} compares two
+ * such files instead, see {@link ResultComparison}.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("compare")) {
+            ResultComparison.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        if (!jmhArgs.contains("-rf")) {
+            jmhArgs.add(0, "-rf");
+            jmhArgs.add(1, "json");
+        }
+        org.openjdk.jmh.Main.main(jmhArgs.toArray(new String[0]));
+    }
+}
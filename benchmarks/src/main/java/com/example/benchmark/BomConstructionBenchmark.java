@@ -0,0 +1,46 @@
+package com.example.benchmark;
+
+import com.example.service.BillOfMaterials;
+import com.example.service.OptimizationModel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the bill of materials graph from the rows of its query: grouping
+ * rows into {@link BillOfMaterials} items, then compiling them into the
+ * primitive arrays of {@link OptimizationModel}. This is the work done on
+ * every cache miss of the production suggestion, on top of the query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BomConstructionBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int products;
+
+    @Param({"2", "4", "16"})
+    int density;
+
+    private List<Object[]> rows;
+
+    @Setup
+    public void setUp() {
+        rows = SyntheticCatalog.generate(products, density, 42).rows;
+    }
+
+    @Benchmark
+    public BillOfMaterials groupRows() {
+        return BillOfMaterials.fromRows(rows);
+    }
+
+    @Benchmark
+    public OptimizationModel groupAndCompile() {
+        return OptimizationModel.of(BillOfMaterials.fromRows(rows));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.benchmark;
+
+import com.example.service.BomGraph;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multi-level bills of materials: sorting and cycle-checking the product
+ * graph, then exploding every finished good into raw materials with the
+ * sub-assemblies memoized. The graph has six levels of 20,000, 15,000,
+ * 8,000, 4,000, 2,000 and 1,000 products; the lowest level uses two to five
+ * of 2,000 raw materials, every other level two to four products of the
+ * level below.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BomExplosionBenchmark {
+
+    private static final int[] LEVELS = {20_000, 15_000, 8_000, 4_000, 2_000, 1_000};
+    private static final int MATERIALS = 2_000;
+
+    private BomGraph.Builder builder;
+    private long[] finished;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        builder = BomGraph.builder();
+        finished = new long[LEVELS[LEVELS.length - 1]];
+        long first = 0;
+        long previous = 0;
+        for (int level = 0; level < LEVELS.length; level++) {
+            for (long p = first; p < first + LEVELS[level]; p++) {
+                if (level == 0) {
+                    for (int r = 2 + random.nextInt(4); r > 0; r--) {
+                        builder.requirement(p, 1_000_000 + random.nextInt(MATERIALS), 1 + random.nextInt(9));
+                    }
+                    continue;
+                }
+                for (int c = 2 + random.nextInt(3); c > 0; c--) {
+                    builder.component(p, previous + random.nextInt(LEVELS[level - 1]), 1 + random.nextInt(4));
+                }
+                if (level == LEVELS.length - 1) {
+                    finished[(int) (p - first)] = p;
+                }
+            }
+            previous = first;
+            first += LEVELS[level];
+        }
+    }
+
+    @Benchmark
+    public BomGraph build() {
+        return builder.build();
+    }
+
+    @Benchmark
+    public long buildAndExplode() {
+        BomGraph graph = builder.build();
+        long lines = 0;
+        for (long product : finished) {
+            lines += graph.explode(product).size();
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.benchmark;
+
+import com.example.model.Product;
+import com.example.model.RawMaterial;
+import com.example.resource.JsonStreams;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing the product and raw material lists as JSON, as {@code GET /products}
+ * and {@code GET /raw-materials} do: entity lists through {@link ObjectMapper},
+ * and products through {@link JsonStreams} as the streamed endpoint does.
+ *
+ * Output goes to a discarding stream so only serialization is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogSerializationBenchmark {
+
+    @Param({"1000", "100000"})
+    int products;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ObjectWriter writer;
+    private List<Product> productList;
+    private List<RawMaterial> rawMaterialList;
+
+    @Setup
+    public void setUp() {
+        SyntheticCatalog catalog = SyntheticCatalog.generate(products, 4, 42);
+        productList = catalog.products;
+        rawMaterialList = catalog.rawMaterials;
+        writer = objectMapper.writer();
+    }
+
+    @Benchmark
+    public int productList() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), productList);
+        return productList.size();
+    }
+
+    @Benchmark
+    public int productListStreaming() throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(OutputStream.nullOutputStream())) {
+            generator.writeStartArray();
+            for (Product product : productList) {
+                JsonStreams.writeProduct(generator, product);
+            }
+            generator.writeEndArray();
+        }
+        return productList.size();
+    }
+
+    @Benchmark
+    public int rawMaterialList() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), rawMaterialList);
+        return rawMaterialList.size();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.benchmark;
+
+import com.example.service.MetricsConfiguration;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost the metrics add to one request, on a Prometheus registry configured
+ * like the backend's.
+ *
+ * {@code httpRequest*} look the timer up by name and tags and record into
+ * it, as the HTTP server binder does for every request, with and without the
+ * latency histogram. {@code suggestionPhase} records into a timer held in a
+ * field, as {@code SuggestionMetrics} does. {@code scrape} renders the whole
+ * registry, which Prometheus does once per scrape interval.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    private static final String[] URIS = {"/products", "/raw-materials", "/raw-materials/{id}",
+        "/products-raw-materials", "/products-raw-materials/{id}", "/production-suggestion"};
+
+    private PrometheusMeterRegistry withHistograms;
+    private PrometheusMeterRegistry withoutHistograms;
+    private Timer phase;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        withHistograms = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        withHistograms.config().meterFilter(new MetricsConfiguration().histograms());
+        withoutHistograms = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        phase = Timer.builder("production.suggestion.phase").tags("phase", "compute", "strategy", "greedy")
+            .register(withHistograms);
+        for (int i = 0; i < 1000; i++) {
+            httpRequest(withHistograms);
+            phase.record(i, TimeUnit.MICROSECONDS);
+        }
+    }
+
+    @Benchmark
+    public long baseline() {
+        return System.nanoTime() - System.nanoTime();
+    }
+
+    @Benchmark
+    public Timer httpRequestWithHistogram() {
+        return httpRequest(withHistograms);
+    }
+
+    @Benchmark
+    public Timer httpRequestWithoutHistogram() {
+        return httpRequest(withoutHistograms);
+    }
+
+    @Benchmark
+    public Timer suggestionPhase() {
+        long started = System.nanoTime();
+        phase.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return phase;
+    }
+
+    @Benchmark
+    public String scrape() {
+        return withHistograms.scrape();
+    }
+
+    private Timer httpRequest(PrometheusMeterRegistry registry) {
+        long started = System.nanoTime();
+        String uri = URIS[next++ % URIS.length];
+        Timer timer = Timer.builder("http.server.requests")
+            .tags(Tags.of("method", "GET", "outcome", "SUCCESS", "status", "200", "uri", uri))
+            .register(registry);
+        timer.record(System.nanoTime() - started + 2_000_000, TimeUnit.NANOSECONDS);
+        return timer;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.benchmark;
+
+import com.example.service.BillOfMaterials;
+import com.example.service.BranchAndBoundOptimizer;
+import com.example.service.GreedyOptimizer;
+import com.example.service.LpRelaxationOptimizer;
+import com.example.service.ProductionPlan;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The three suggestion strategies on one 10,000-product catalog: greedy,
+ * the LP relaxation and branch-and-bound, which stops at its one-second
+ * budget. The value each plan reaches is checked by
+ * {@code ProductionOptimizerTest}; this only times them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OptimizerBenchmark {
+
+    private BillOfMaterials bom;
+    private final GreedyOptimizer greedy = new GreedyOptimizer();
+    private final LpRelaxationOptimizer lp = new LpRelaxationOptimizer();
+    private final BranchAndBoundOptimizer branchAndBound = new BranchAndBoundOptimizer(Duration.ofSeconds(1));
+
+    @Setup
+    public void setUp() {
+        bom = SyntheticCatalog.generate(10_000, 4, 2024).billOfMaterials();
+    }
+
+    @Benchmark
+    public ProductionPlan greedy() {
+        return greedy.optimize(bom);
+    }
+
+    @Benchmark
+    public ProductionPlan lpRelaxation() {
+        return lp.optimize(bom);
+    }
+
+    @Benchmark
+    public ProductionPlan branchAndBound() {
+        return branchAndBound.optimize(bom);
+    }
+}
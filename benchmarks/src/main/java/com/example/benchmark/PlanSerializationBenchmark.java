@@ -0,0 +1,139 @@
+package com.example.benchmark;
+
+import com.example.model.Product;
+import com.example.resource.JsonStreams;
+import com.example.service.ProductionPlan;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Writing a production plan as JSON: the original map of entities handed to
+ * {@link ObjectMapper} versus {@link JsonStreams} on a raw generator.
+ *
+ * {@code *FirstByte} stop at the first byte that reaches the output stream,
+ * which is what the client waits for. Run with {@code -prof gc} to compare
+ * what each approach allocates per response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlanSerializationBenchmark {
+
+    @Param({"1000", "100000"})
+    int lines;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ProductionPlan plan;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<ProductionPlan.Line> planLines = new ArrayList<>(lines);
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            Product product = new Product();
+            product.setCode("P" + i);
+            product.setName("Product " + i);
+            product.setPrice(BigDecimal.valueOf(100 + random.nextInt(99_900), 2));
+            product.setQuantity(random.nextInt(100));
+            int quantity = 1 + random.nextInt(50);
+            planLines.add(new ProductionPlan.Line(product, quantity));
+            total = total.add(product.getPrice().multiply(BigDecimal.valueOf(quantity)));
+        }
+        plan = new ProductionPlan("greedy", planLines, total, false);
+    }
+
+    @Benchmark
+    public long entityMap() throws IOException {
+        CountingOutputStream output = new CountingOutputStream(false);
+        objectMapper.writeValue(output, toMap(plan));
+        return output.count;
+    }
+
+    @Benchmark
+    public long streaming() throws IOException {
+        CountingOutputStream output = new CountingOutputStream(false);
+        writeStreaming(output);
+        return output.count;
+    }
+
+    @Benchmark
+    public long entityMapFirstByte() throws IOException {
+        try {
+            objectMapper.writeValue(new CountingOutputStream(true), toMap(plan));
+        } catch (FirstByte e) {
+            return 1;
+        }
+        return 0;
+    }
+
+    @Benchmark
+    public long streamingFirstByte() throws IOException {
+        try {
+            writeStreaming(new CountingOutputStream(true));
+        } catch (FirstByte e) {
+            return 1;
+        }
+        return 0;
+    }
+
+    private Map<String, Object> toMap(ProductionPlan plan) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("products", plan.getLines().stream().map(line -> Map.of(
+                "product", line.getProduct(),
+                "quantity", line.getQuantity()
+        )).collect(Collectors.toList()));
+        result.put("totalValue", plan.getTotalValue());
+        result.put("strategy", plan.getStrategy());
+        result.put("optimal", plan.isOptimal());
+        return result;
+    }
+
+    private void writeStreaming(OutputStream output) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.writeStartObject();
+            JsonStreams.writePlanFields(generator, plan);
+            generator.writeEndObject();
+        }
+    }
+
+    private static final class FirstByte extends IOException {
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private final boolean stopAtFirstByte;
+        long count;
+
+        CountingOutputStream(boolean stopAtFirstByte) {
+            this.stopAtFirstByte = stopAtFirstByte;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (stopAtFirstByte) {
+                throw new FirstByte();
+            }
+            count += length;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files benchmark by benchmark.
+ *
+ * A benchmark regressed when its score got worse by more than the threshold
+ * (10% by default) and the error intervals of both runs do not overlap.
+ * Lower is better for every mode except throughput. Exits with status 1
+ * when anything regressed, so a release build can fail on it.
+ */
+public final class ResultComparison {
+
+    private static final double DEFAULT_THRESHOLD = 10;
+
+    private ResultComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: compare <baseline.json> <current.json> [threshold%]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+        Map<String, Score> baseline = read(new File(args[0]));
+        Map<String, Score> current = read(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-100s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-100s %14s %14.3f %9s%n", entry.getKey(), "-", now.score, "new");
+                continue;
+            }
+            double change = (now.score - before.score) / before.score * 100;
+            double worse = now.higherIsBetter ? -change : change;
+            boolean overlap = Math.abs(now.score - before.score) <= now.error + before.error;
+            boolean regressed = worse > threshold && !overlap;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-100s %14.3f %14.3f %+8.1f%%%s%n", entry.getKey(), before.score, now.score, change,
+                regressed ? "  REGRESSION" : "");
+        }
+        System.out.printf("%d of %d benchmarks regressed by more than %.1f%%%n", regressions, current.size(), threshold);
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Score> read(File file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            Map<String, String> params = new TreeMap<>();
+            result.path("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+            JsonNode metric = result.path("primaryMetric");
+            String key = result.path("benchmark").asText() + (params.isEmpty() ? "" : " " + params)
+                + " (" + metric.path("scoreUnit").asText() + ")";
+            double error = metric.path("scoreError").asDouble();
+            scores.put(key, new Score(metric.path("score").asDouble(), Double.isNaN(error) ? 0 : error,
+                result.path("mode").asText().equals("thrpt")));
+        }
+        return scores;
+    }
+
+    private static final class Score {
+        final double score;
+        final double error;
+        final boolean higherIsBetter;
+
+        Score(double score, double error, boolean higherIsBetter) {
+            this.score = score;
+            this.error = error;
+            this.higherIsBetter = higherIsBetter;
+        }
+    }
+}
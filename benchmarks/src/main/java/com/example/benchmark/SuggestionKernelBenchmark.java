@@ -0,0 +1,81 @@
+package com.example.benchmark;
+
+import com.example.model.Product;
+import com.example.service.BillOfMaterials;
+import com.example.service.GreedyOptimizer;
+import com.example.service.OptimizationModel;
+import com.example.service.ProductionPlan;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Greedy suggestion pass: the original boxed HashMap/BigDecimal loop versus
+ * the primitive-array kernel in {@link OptimizationModel}.
+ *
+ * Run with {@code -prof gc} to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuggestionKernelBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int products;
+
+    @Param({"4", "16"})
+    int density;
+
+    private BillOfMaterials bom;
+    private OptimizationModel model;
+    private final GreedyOptimizer greedy = new GreedyOptimizer();
+
+    @Setup
+    public void setUp() {
+        bom = SyntheticCatalog.generate(products, density, 42).billOfMaterials();
+        model = OptimizationModel.of(bom);
+    }
+
+    @Benchmark
+    public Object legacyMapLoop() {
+        List<BillOfMaterials.Item> items = new ArrayList<>(bom.getItems());
+        items.sort(Comparator.comparing((BillOfMaterials.Item item) -> item.getProduct().getPrice()).reversed());
+        Map<Long, Integer> rawMaterialStock = new HashMap<>(bom.getStock());
+        Map<Product, Integer> producible = new LinkedHashMap<>();
+        BigDecimal totalValue = BigDecimal.ZERO;
+        for (BillOfMaterials.Item item : items) {
+            int maxQty = Integer.MAX_VALUE;
+            for (BillOfMaterials.Requirement requirement : item.getRequirements()) {
+                int stock = rawMaterialStock.getOrDefault(requirement.getRawMaterialId(), 0);
+                int possible = stock / requirement.getRequiredQuantity();
+                if (possible < maxQty) {
+                    maxQty = possible;
+                }
+            }
+            if (maxQty > 0 && maxQty != Integer.MAX_VALUE) {
+                producible.put(item.getProduct(), maxQty);
+                totalValue = totalValue.add(item.getProduct().getPrice().multiply(BigDecimal.valueOf(maxQty)));
+                for (BillOfMaterials.Requirement requirement : item.getRequirements()) {
+                    int used = requirement.getRequiredQuantity() * maxQty;
+                    rawMaterialStock.put(requirement.getRawMaterialId(), rawMaterialStock.get(requirement.getRawMaterialId()) - used);
+                }
+            }
+        }
+        return totalValue;
+    }
+
+    @Benchmark
+    public ProductionPlan compiledKernel() {
+        return greedy.optimize(model);
+    }
+
+    @Benchmark
+    public OptimizationModel compile() {
+        return OptimizationModel.of(bom);
+    }
+}
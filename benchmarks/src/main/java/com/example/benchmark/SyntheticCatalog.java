@@ -0,0 +1,76 @@
+package com.example.benchmark;
+
+import com.example.model.Product;
+import com.example.model.RawMaterial;
+import com.example.service.BillOfMaterials;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Reproducible catalog for the benchmarks: products, raw materials and the
+ * bill of materials rows that link them, as the backend would load them.
+ *
+ * There is one raw material for every five products, at least 50. Density
+ * is the average number of raw materials per product; each product draws
+ * between 1 and {@code 2 * density - 1} distinct ones. The same size,
+ * density and seed always give the same catalog.
+ */
+final class SyntheticCatalog {
+
+    final List<Product> products;
+    final List<RawMaterial> rawMaterials;
+    /** Shaped as {@code [Product, rawMaterialId, stockQuantity, requiredQuantity]}, ordered by product. */
+    final List<Object[]> rows;
+
+    private SyntheticCatalog(List<Product> products, List<RawMaterial> rawMaterials, List<Object[]> rows) {
+        this.products = products;
+        this.rawMaterials = rawMaterials;
+        this.rows = rows;
+    }
+
+    static SyntheticCatalog generate(int products, int density, long seed) {
+        Random random = new Random(seed);
+        int materials = Math.max(50, products / 5);
+        int maxRequirements = Math.min(materials, 2 * density - 1);
+
+        List<RawMaterial> rawMaterials = new ArrayList<>(materials);
+        for (int m = 0; m < materials; m++) {
+            RawMaterial rawMaterial = new RawMaterial();
+            rawMaterial.setCode("RM" + m);
+            rawMaterial.setName("Raw material " + m);
+            rawMaterial.setStockQuantity(random.nextInt(10_000));
+            rawMaterial.setVersion(0L);
+            rawMaterials.add(rawMaterial);
+        }
+
+        List<Product> productList = new ArrayList<>(products);
+        List<Object[]> rows = new ArrayList<>(products * density);
+        for (int p = 0; p < products; p++) {
+            Product product = new Product();
+            product.setCode("P" + p);
+            product.setName("Product " + p);
+            product.setPrice(BigDecimal.valueOf(100 + random.nextInt(99_900), 2));
+            product.setQuantity(random.nextInt(100));
+            productList.add(product);
+
+            int requirements = 1 + random.nextInt(maxRequirements);
+            Set<Integer> used = new TreeSet<>();
+            while (used.size() < requirements) {
+                used.add(random.nextInt(materials));
+            }
+            for (int m : used) {
+                rows.add(new Object[]{product, (long) m, rawMaterials.get(m).getStockQuantity(), 1 + random.nextInt(9)});
+            }
+        }
+        return new SyntheticCatalog(productList, rawMaterials, rows);
+    }
+
+    BillOfMaterials billOfMaterials() {
+        return BillOfMaterials.fromRows(rows);
+    }
+}
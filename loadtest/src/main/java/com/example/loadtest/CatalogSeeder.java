@@ -0,0 +1,215 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Seeds a synthetic catalog through the bulk import endpoints and finds the
+ * ids the API gave it.
+ *
+ * Every code starts with the run prefix, so several catalogs can live in one
+ * database and a later run can reuse one with {@link #discover}. Each
+ * product requires between 1 and {@code 2 * density - 1} distinct raw
+ * materials, {@code density} on average. With more than one level the
+ * products are split into that many equal levels in code order, and every
+ * product above the first also uses two to four products of the level
+ * below as components. The same sizes and seed always give the same catalog.
+ */
+final class CatalogSeeder {
+
+    static final String NDJSON = "application/x-ndjson";
+    private static final int CHUNK_ROWS = 20_000;
+
+    private final ApiClient api;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    CatalogSeeder(ApiClient api) {
+        this.api = api;
+    }
+
+    Catalog seed(String prefix, int products, int rawMaterials, int density, int levels, long seed)
+        throws IOException, InterruptedException {
+        Random random = new Random(seed);
+        int maxRequirements = Math.max(1, Math.min(rawMaterials, 2 * density - 1));
+
+        Chunks chunks = new Chunks("raw-materials");
+        for (int m = 0; m < rawMaterials; m++) {
+            chunks.add(String.format("{\"code\":\"%sRM%d\",\"name\":\"Raw material %d\",\"stockQuantity\":%d}",
+                prefix, m, m, 10_000 + random.nextInt(90_000)));
+        }
+        chunks.flush();
+
+        chunks = new Chunks("products");
+        for (int p = 0; p < products; p++) {
+            chunks.add(String.format("{\"code\":\"%sP%d\",\"name\":\"Product %d\",\"price\":%d.%02d}",
+                prefix, p, p, 1 + random.nextInt(999), random.nextInt(100)));
+        }
+        chunks.flush();
+
+        chunks = new Chunks("products-raw-materials");
+        for (int p = 0; p < products; p++) {
+            int requirements = 1 + random.nextInt(maxRequirements);
+            Set<Integer> used = new TreeSet<>();
+            while (used.size() < requirements) {
+                used.add(random.nextInt(rawMaterials));
+            }
+            for (int m : used) {
+                chunks.add(String.format("{\"productCode\":\"%sP%d\",\"rawMaterialCode\":\"%sRM%d\",\"requiredQuantity\":%d}",
+                    prefix, p, prefix, m, 1 + random.nextInt(9)));
+            }
+        }
+        chunks.flush();
+
+        Catalog catalog = discover(prefix);
+        if (levels > 1) {
+            // There is no component import; each one is a request that refreshes the flattened requirements
+            for (int p = 0; p < products; p++) {
+                int level = (int) ((long) p * levels / products);
+                if (level == 0) {
+                    continue;
+                }
+                int below = firstOfLevel(level - 1, products, levels);
+                int size = firstOfLevel(level, products, levels) - below;
+                for (int c = 2 + random.nextInt(3); c > 0; c--) {
+                    api.postBody("/product-components", "application/json", String.format(
+                        "{\"product\": {\"id\": %d}, \"component\": {\"id\": %d}, \"requiredQuantity\": %d}",
+                        catalog.products[p], catalog.products[below + random.nextInt(size)], 1 + random.nextInt(4)));
+                }
+            }
+        }
+        return catalog;
+    }
+
+    /**
+     * Index of the first product of {@code level}: the smallest {@code p}
+     * with {@code p * levels / products == level}.
+     */
+    private static int firstOfLevel(int level, int products, int levels) {
+        return (int) (((long) level * products + levels - 1) / levels);
+    }
+
+    /**
+     * Ids of the catalog seeded under {@code prefix}.
+     *
+     * @throws IllegalStateException when nothing was seeded under it
+     */
+    Catalog discover(String prefix) throws IOException, InterruptedException {
+        long[] products = productIds(prefix);
+        long[] rawMaterials = ids("/raw-materials?fields=id,code", row -> row.path("code").asText().startsWith(prefix));
+        long[] associations = ids("/products-raw-materials?fields=id,product",
+            row -> row.path("product").path("code").asText().startsWith(prefix));
+        if (products.length == 0 || rawMaterials.length == 0 || associations.length == 0) {
+            throw new IllegalStateException("No catalog seeded under prefix " + prefix);
+        }
+        return new Catalog(prefix, products, rawMaterials, associations);
+    }
+
+    /**
+     * Product ids indexed by the number in their code, so {@code P7} is at 7
+     * and components always have a lower index than their assemblies.
+     */
+    private long[] productIds(String prefix) throws IOException, InterruptedException {
+        JsonNode rows = objectMapper.readTree(api.getBody("/products?fields=id,code"));
+        String start = prefix + "P";
+        long[] ids = new long[rows.size()];
+        int count = 0;
+        for (JsonNode row : rows) {
+            String code = row.path("code").asText();
+            if (code.startsWith(start)) {
+                int index = Integer.parseInt(code.substring(start.length()));
+                if (index >= ids.length) {
+                    ids = Arrays.copyOf(ids, index + 1);
+                }
+                ids[index] = row.path("id").asLong();
+                count = Math.max(count, index + 1);
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    private long[] ids(String path, Predicate<JsonNode> matches) throws IOException, InterruptedException {
+        JsonNode rows = objectMapper.readTree(api.getBody(path));
+        long[] ids = new long[rows.size()];
+        int count = 0;
+        for (JsonNode row : rows) {
+            if (matches.test(row)) {
+                ids[count++] = row.path("id").asLong();
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * NDJSON rows of one import kind, sent in requests of {@value #CHUNK_ROWS} rows.
+     */
+    private final class Chunks {
+        private final String kind;
+        private final StringBuilder body = new StringBuilder();
+        private int rows;
+
+        Chunks(String kind) {
+            this.kind = kind;
+        }
+
+        void add(String row) throws IOException, InterruptedException {
+            body.append(row).append('\n');
+            if (++rows == CHUNK_ROWS) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException, InterruptedException {
+            if (rows == 0) {
+                return;
+            }
+            JsonNode report = objectMapper.readTree(api.postBody("/import/" + kind, NDJSON, body.toString()));
+            if (report.path("failed").asLong() > 0) {
+                throw new IllegalStateException("Import of " + kind + " rejected rows: " + report.path("errors"));
+            }
+            body.setLength(0);
+            rows = 0;
+        }
+    }
+
+    /**
+     * Ids of a seeded catalog, for the workload to pick from.
+     */
+    static final class Catalog {
+        final String prefix;
+        /** Indexed by the number in the product code; components come before their assemblies. */
+        final long[] products;
+        final long[] rawMaterials;
+        final long[] associations;
+        /** Raw materials stock movements pick from. */
+        final long[] moved;
+
+        Catalog(String prefix, long[] products, long[] rawMaterials, long[] associations) {
+            this(prefix, products, rawMaterials, associations, rawMaterials);
+        }
+
+        private Catalog(String prefix, long[] products, long[] rawMaterials, long[] associations, long[] moved) {
+            this.prefix = prefix;
+            this.products = products;
+            this.rawMaterials = rawMaterials;
+            this.associations = associations;
+            this.moved = moved;
+        }
+
+        /**
+         * The same catalog with stock movements confined to its first
+         * {@code count} raw materials, so concurrent writers contend for the
+         * same rows.
+         */
+        Catalog withHotRawMaterials(int count) {
+            return new Catalog(prefix, products, rawMaterials, associations,
+                Arrays.copyOf(rawMaterials, Math.min(count, rawMaterials.length)));
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TCP proxy that holds back everything the client sends for a set time before
+ * passing it on, so a backend pointed at it sees a database that far away.
+ *
+ * Bytes are delayed, not throttled: each chunk leaves once its own delay has
+ * passed, whatever else is in flight on the connection. Replies go back
+ * undelayed, so the delay is the whole added round trip.
+ *
+ * A new delay typed on standard input applies from then on, so the backend
+ * can start and the load test find its catalog before the database slows
+ * down.
+ */
+public final class LatencyProxy {
+
+    private static final String USAGE = String.join("\n",
+        "usage: java -cp loadtest.jar com.example.loadtest.LatencyProxy [--option=value ...]",
+        "  --listen=15432           local port",
+        "  --target=localhost:5432  address to forward to",
+        "  --delay=20ms             added to every round trip; type a new one to change it");
+
+    private static final byte[] CLOSED = new byte[0];
+
+    private static volatile long delayNanos;
+
+    private LatencyProxy() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options;
+        String[] target;
+        int listen;
+        try {
+            options = LoadTest.options(args);
+            listen = Integer.parseInt(options.getOrDefault("listen", "15432"));
+            target = options.getOrDefault("target", "localhost:5432").split(":");
+            delayNanos = delay(options.getOrDefault("delay", "20ms")).toNanos();
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        InetSocketAddress address = new InetSocketAddress(target[0], Integer.parseInt(target[1]));
+        start("latency-proxy-input", LatencyProxy::readDelays);
+
+        try (ServerSocket server = new ServerSocket(listen)) {
+            System.out.printf("Forwarding :%d to %s with %d ms added%n", listen, address,
+                TimeUnit.NANOSECONDS.toMillis(delayNanos));
+            while (true) {
+                Socket client = server.accept();
+                Socket upstream = new Socket();
+                try {
+                    upstream.connect(address);
+                } catch (IOException e) {
+                    System.err.println("Could not reach " + address + ": " + e.getMessage());
+                    client.close();
+                    continue;
+                }
+                client.setTcpNoDelay(true);
+                upstream.setTcpNoDelay(true);
+                delayed(client, upstream);
+                start("latency-proxy-reply", () -> copy(upstream, client));
+            }
+        }
+    }
+
+    /**
+     * Reads from {@code from} on one thread and writes each chunk to
+     * {@code to} on another once the delay has passed since it was read.
+     */
+    private static void delayed(Socket from, Socket to) {
+        BlockingQueue<Chunk> queue = new LinkedBlockingQueue<>();
+        start("latency-proxy-read", () -> {
+            try (InputStream in = from.getInputStream()) {
+                byte[] buffer = new byte[16384];
+                int read;
+                while ((read = in.read(buffer)) >= 0) {
+                    queue.add(new Chunk(System.nanoTime() + delayNanos, Arrays.copyOf(buffer, read)));
+                }
+            } catch (IOException e) {
+                // the other side went away; the writer closes both
+            }
+            queue.add(new Chunk(System.nanoTime() + delayNanos, CLOSED));
+        });
+        start("latency-proxy-write", () -> {
+            try (OutputStream out = to.getOutputStream()) {
+                while (true) {
+                    Chunk chunk = queue.take();
+                    long wait = chunk.due - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                    if (chunk.bytes == CLOSED) {
+                        break;
+                    }
+                    out.write(chunk.bytes);
+                    out.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                // closed below
+            } finally {
+                closeQuietly(from);
+                closeQuietly(to);
+            }
+        });
+    }
+
+    private static void readDelays() {
+        BufferedReader input = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        try {
+            String line;
+            while ((line = input.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    delayNanos = delay(line.trim()).toNanos();
+                    System.out.printf("Delay now %d ms%n", TimeUnit.NANOSECONDS.toMillis(delayNanos));
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Not a delay: " + line);
+                }
+            }
+        } catch (IOException e) {
+            // no input, the delay stays
+        }
+    }
+
+    private static void copy(Socket from, Socket to) {
+        try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            // closed below
+        } finally {
+            closeQuietly(from);
+            closeQuietly(to);
+        }
+    }
+
+    /**
+     * Parses {@code 20}, {@code 20ms} or {@code 1s}; a bare number is milliseconds.
+     */
+    private static Duration delay(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (Character.isDigit(value.charAt(value.length() - 1))) {
+            return Duration.ofMillis(Long.parseLong(value));
+        }
+        return LoadTest.duration(value);
+    }
+
+    private static void start(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // already closed
+        }
+    }
+
+    private static final class Chunk {
+        final long due;
+        final byte[] bytes;
+
+        Chunk(long due, byte[] bytes) {
+            this.due = due;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and error counts per operation over the measured part of a run.
+ *
+ * All workers record into one instance. The histograms are concurrent, so a
+ * recording is a few atomic adds and memory stays flat however many workers
+ * run. Latencies are kept in microseconds with three significant digits and
+ * reported in milliseconds; operations never recorded are left out.
+ */
+final class LatencyReport {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+    LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    void record(Operation operation, long latencyNanos, boolean failed) {
+        latencies.get(operation).recordValue(Math.max(1, latencyNanos / 1000));
+        if (failed) {
+            errors.get(operation).increment();
+        }
+    }
+
+    long totalErrors() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    void print(PrintStream out, double seconds) {
+        out.printf("%-20s %10s %8s %10s %9s %9s %9s %9s%n",
+            "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<Operation, Histogram> entry : recorded()) {
+            print(out, entry.getKey().key(), entry.getValue(), errorsOf(entry.getKey()), seconds);
+        }
+        print(out, "total", total(), totalErrors(), seconds);
+    }
+
+    /**
+     * Writes {@code summary.json} and one percentile distribution per
+     * operation ({@code <operation>.hgrm}, in milliseconds) into {@code directory}.
+     */
+    void write(Path directory, Map<String, Object> run, double seconds) throws IOException {
+        Files.createDirectories(directory);
+        List<Map<String, Object>> operations = new ArrayList<>();
+        for (Map.Entry<Operation, Histogram> entry : recorded()) {
+            operations.add(summary(entry.getKey().key(), entry.getValue(), errorsOf(entry.getKey()), seconds));
+            writeDistribution(directory.resolve(entry.getKey().key() + ".hgrm"), entry.getValue());
+        }
+        writeDistribution(directory.resolve("total.hgrm"), total());
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("run", run);
+        summary.put("operations", operations);
+        summary.put("total", summary("total", total(), totalErrors(), seconds));
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+            .writeValue(directory.resolve("summary.json").toFile(), summary);
+    }
+
+    private Histogram total() {
+        Histogram total = new Histogram(3);
+        latencies.values().forEach(total::add);
+        return total;
+    }
+
+    private List<Map.Entry<Operation, Histogram>> recorded() {
+        List<Map.Entry<Operation, Histogram>> recorded = new ArrayList<>();
+        for (Map.Entry<Operation, Histogram> entry : latencies.entrySet()) {
+            if (entry.getValue().getTotalCount() > 0) {
+                recorded.add(entry);
+            }
+        }
+        return recorded;
+    }
+
+    private long errorsOf(Operation operation) {
+        return errors.get(operation).sum();
+    }
+
+    private static void print(PrintStream out, String name, Histogram histogram, long errors, double seconds) {
+        out.printf("%-20s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n", name, histogram.getTotalCount(), errors,
+            histogram.getTotalCount() / seconds, millis(histogram, 50), millis(histogram, 99), millis(histogram, 99.9),
+            histogram.getMaxValue() / MICROS_PER_MILLI);
+    }
+
+    private static Map<String, Object> summary(String name, Histogram histogram, long errors, double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("operation", name);
+        summary.put("requests", histogram.getTotalCount());
+        summary.put("errors", errors);
+        summary.put("throughput", histogram.getTotalCount() / seconds);
+        summary.put("p50Ms", millis(histogram, 50));
+        summary.put("p99Ms", millis(histogram, 99));
+        summary.put("p999Ms", millis(histogram, 99.9));
+        summary.put("maxMs", histogram.getMaxValue() / MICROS_PER_MILLI);
+        return summary;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+    }
+}
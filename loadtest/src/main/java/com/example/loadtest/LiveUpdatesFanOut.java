@@ -0,0 +1,240 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+
+/**
+ * Opens many {@code /live-updates} streams at once and measures how long a
+ * stock change takes to reach every one of them.
+ *
+ * All streams are read asynchronously by one {@link HttpClient}, so a
+ * thousand clients do not need a thousand threads. Each round reserves or
+ * releases one unit of a raw material and times, per stream, the arrival of
+ * the {@code changes} event with its new stock. Rounds are spaced further
+ * apart than {@code live.interval}, so each arrives as an event of its own.
+ * Stock ends where it started.
+ */
+public final class LiveUpdatesFanOut {
+
+    private static final String USAGE = String.join("\n",
+        "usage: java -cp loadtest.jar com.example.loadtest.LiveUpdatesFanOut [--option=value ...]",
+        "  --base-url=http://localhost:8082  API to test",
+        "  --clients=1000                    streams to open",
+        "  --rounds=20                       stock changes to time",
+        "  --pause=1s                        time between rounds",
+        "  --raw-material=<first one>        raw material whose stock moves",
+        "  --timeout=60s                     longest every stream may take to connect or receive a change",
+        "  --output=<dir>                    write live-updates.json there");
+
+    private static final String ONE_UNIT = "{\"quantity\": 1}";
+
+    private LiveUpdatesFanOut() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        try {
+            run(LoadTest.options(args));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException for an invalid option
+     */
+    private static void run(Map<String, String> options) throws Exception {
+        if (options.containsKey("help")) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        String baseUrl = options.getOrDefault("base-url", "http://localhost:8082");
+        int clients = Integer.parseInt(options.getOrDefault("clients", "1000"));
+        int rounds = Integer.parseInt(options.getOrDefault("rounds", "20"));
+        Duration pause = LoadTest.duration(options.getOrDefault("pause", "1s"));
+        Duration timeout = LoadTest.duration(options.getOrDefault("timeout", "60s"));
+
+        ApiClient api = new ApiClient(baseUrl);
+        long rawMaterial = options.containsKey("raw-material")
+            ? Long.parseLong(options.get("raw-material"))
+            : new ObjectMapper().readTree(api.getBody("/raw-materials?limit=1&fields=id")).path(0).path("id").asLong();
+        if (rawMaterial == 0) {
+            throw new IllegalArgumentException("No raw material to move; seed a catalog or pass --raw-material");
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(
+                (baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl) + "/live-updates"))
+            .header("Accept", "text/event-stream")
+            .build();
+        String change = "{\"id\":" + rawMaterial + ",\"stockQuantity\":";
+
+        System.out.printf("Opening %d streams%n", clients);
+        List<EventStream> streams = new ArrayList<>();
+        long started = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            EventStream stream = new EventStream(change);
+            client.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(stream));
+            streams.add(stream);
+        }
+        awaitAll(streams, stream -> stream.resynced ? 1 : 0, 1, timeout, "resync");
+        long connected = System.nanoTime() - started;
+        System.out.printf("Connected and resynced in %d ms%n", connected / 1_000_000);
+
+        Histogram delivery = new Histogram(3);
+        Histogram slowest = new Histogram(3);
+        try {
+            for (int round = 1; round <= rounds; round++) {
+                Thread.sleep(pause.toMillis());
+                long sent = System.nanoTime();
+                move(api, rawMaterial, round % 2 == 1 ? "reserve" : "release");
+                awaitAll(streams, stream -> stream.changes.get(), round, timeout, "round " + round);
+                long last = 0;
+                for (EventStream stream : streams) {
+                    long latency = Math.max(1, (stream.receivedAt - sent) / 1000);
+                    delivery.recordValue(latency);
+                    last = Math.max(last, latency);
+                }
+                slowest.recordValue(last);
+            }
+        } finally {
+            if (rounds % 2 == 1) {
+                move(api, rawMaterial, "release");
+            }
+            streams.forEach(EventStream::cancel);
+        }
+
+        System.out.printf("%d rounds to %d streams: per stream p50 %.2f ms, p99 %.2f ms, max %.2f ms;"
+                + " last stream of a round p50 %.2f ms, max %.2f ms%n",
+            rounds, clients, millis(delivery, 50), millis(delivery, 99), delivery.getMaxValue() / 1000.0,
+            millis(slowest, 50), slowest.getMaxValue() / 1000.0);
+
+        if (options.containsKey("output")) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("clients", clients);
+            result.put("rounds", rounds);
+            result.put("connectedMs", connected / 1_000_000);
+            result.put("deliveryP50Ms", millis(delivery, 50));
+            result.put("deliveryP99Ms", millis(delivery, 99));
+            result.put("deliveryMaxMs", delivery.getMaxValue() / 1000.0);
+            result.put("allDeliveredP50Ms", millis(slowest, 50));
+            result.put("allDeliveredMaxMs", slowest.getMaxValue() / 1000.0);
+            Path output = Path.of(options.get("output"));
+            Files.createDirectories(output);
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(output.resolve("live-updates.json").toFile(), result);
+            System.out.printf("Results written to %s%n", output.toAbsolutePath());
+        }
+    }
+
+    private static void move(ApiClient api, long rawMaterial, String movement) throws Exception {
+        int status = api.post("/raw-materials/" + rawMaterial + "/" + movement, "application/json", ONE_UNIT);
+        if (status / 100 != 2) {
+            throw new IllegalStateException(movement + " of raw material " + rawMaterial + " answered " + status);
+        }
+    }
+
+    /**
+     * Waits until every stream has counted at least {@code target}.
+     *
+     * @throws IllegalStateException when some have not within the timeout
+     */
+    private static void awaitAll(List<EventStream> streams, ToIntFunction<EventStream> count,
+                                 int target, Duration timeout, String what) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            int behind = 0;
+            for (EventStream stream : streams) {
+                if (count.applyAsInt(stream) < target) {
+                    behind++;
+                }
+            }
+            if (behind == 0) {
+                return;
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException(behind + " of " + streams.size() + " streams missed " + what);
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    /**
+     * Reads one stream line by line, noting the resync and every
+     * {@code changes} event that carries the stock of the raw material.
+     */
+    private static final class EventStream implements Flow.Subscriber<String> {
+        private final String change;
+        final AtomicInteger changes = new AtomicInteger();
+        volatile boolean resynced;
+        volatile long receivedAt;
+        private String event;
+        private volatile Flow.Subscription subscription;
+
+        EventStream(String change) {
+            this.change = change;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (line.isEmpty()) {
+                event = null;
+            } else if (line.startsWith("event:")) {
+                event = line.substring(6).trim();
+            } else if (line.startsWith("data:")) {
+                if ("resync".equals(event)) {
+                    resynced = true;
+                } else if ("changes".equals(event) && line.contains(change)) {
+                    receivedAt = System.nanoTime();
+                    changes.incrementAndGet();
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        void cancel() {
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.example.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Seeds a synthetic catalog into a running API and drives a weighted mix of
+ * requests against it, reporting throughput and latency percentiles.
+ *
+ * Without {@code --rate} every worker sends its next request as soon as the
+ * previous one answers (closed loop). With {@code --rate} requests are
+ * scheduled at fixed intervals and latency is measured from the scheduled
+ * start, so a stalled server shows up in the percentiles instead of simply
+ * slowing the load down.
+ *
+ * Every worker holds its own connection, so {@code --threads} is also the
+ * number of concurrent connections. The live thread count of the server is
+ * sampled throughout the measured part of the run.
+ */
+public final class LoadTest {
+
+    private static final String USAGE = String.join("\n",
+        "usage: java -jar loadtest.jar [--option=value ...]",
+        "  --base-url=http://localhost:8082  API to test",
+        "  --products=1000                   products to seed",
+        "  --raw-materials=<products / 5>    raw materials to seed, at least 50",
+        "  --density=4                       average raw materials per product",
+        "  --levels=1                        levels of sub-assemblies the products are split into",
+        "  --seed=42                         seed of the catalog and of the request sequence",
+        "  --prefix=<derived>                code prefix; an existing catalog under it is reused",
+        "  --threads=8                       concurrent workers",
+        "  --rate=0                          total requests per second, 0 for a closed loop",
+        "  --warmup=10s                      run time not measured",
+        "  --duration=60s                    measured run time",
+        "  --mix=list-products:20,...        operation weights; omitted operations are not run",
+        "  --hot-raw-materials=0             stock movements only touch this many raw materials, 0 for all",
+        "  --output=<dir>                    write summary.json and .hgrm distributions there",
+        "operations: list-products, list-raw-materials, get-raw-material, list-associations,",
+        "            get-association, suggestion, reserve-release, production-order, edit-bom");
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        try {
+            run(options(args));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException for an invalid option
+     */
+    private static void run(Map<String, String> options) throws Exception {
+        if (options.containsKey("help")) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        String baseUrl = options.getOrDefault("base-url", "http://localhost:8082");
+        int products = Integer.parseInt(options.getOrDefault("products", "1000"));
+        int rawMaterials = Integer.parseInt(options.getOrDefault("raw-materials", String.valueOf(Math.max(50, products / 5))));
+        int density = Integer.parseInt(options.getOrDefault("density", "4"));
+        int levels = Integer.parseInt(options.getOrDefault("levels", "1"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        String prefix = options.getOrDefault("prefix", String.format("LT-%d-%d-%d-%d-%s", products, rawMaterials, density,
+            seed, levels > 1 ? "L" + levels + "-" : ""));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "8"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "0"));
+        Duration warmup = duration(options.getOrDefault("warmup", "10s"));
+        Duration duration = duration(options.getOrDefault("duration", "60s"));
+        Mix mix = Mix.parse(options.get("mix"));
+        int hotRawMaterials = Integer.parseInt(options.getOrDefault("hot-raw-materials", "0"));
+
+        ApiClient api = new ApiClient(baseUrl);
+        CatalogSeeder seeder = new CatalogSeeder(api);
+        CatalogSeeder.Catalog catalog;
+        try {
+            catalog = seeder.discover(prefix);
+            System.out.printf("Reusing catalog %s%n", prefix);
+        } catch (IllegalStateException e) {
+            System.out.printf("Seeding %d products in %d levels, %d raw materials, density %d under %s%n",
+                products, levels, rawMaterials, density, prefix);
+            long started = System.nanoTime();
+            catalog = seeder.seed(prefix, products, rawMaterials, density, levels, seed);
+            System.out.printf("Seeded in %.1fs%n", (System.nanoTime() - started) / 1e9);
+        }
+        System.out.printf("Catalog: %d products, %d raw materials, %d associations%n",
+            catalog.products.length, catalog.rawMaterials.length, catalog.associations.length);
+        if (hotRawMaterials > 0) {
+            catalog = catalog.withHotRawMaterials(hotRawMaterials);
+            System.out.printf("Stock movements on %d raw materials%n", catalog.moved.length);
+        }
+
+        System.out.printf("Running %d workers for %ds after %ds of warm-up, %s%n", threads, duration.toSeconds(),
+            warmup.toSeconds(), rate > 0 ? rate + " requests/s" : "closed loop");
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        long interval = rate > 0 ? (long) (threads * 1e9 / rate) : 0;
+        LatencyReport report = new LatencyReport();
+        List<Worker> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Worker worker = new Worker(api, catalog, mix, report, new Random(seed + i), start + i * interval / threads,
+                interval, measureFrom, end);
+            worker.thread.start();
+            workers.add(worker);
+        }
+        ServerThreads serverThreads = new ServerThreads(api, measureFrom);
+        serverThreads.start();
+        for (Worker worker : workers) {
+            worker.thread.join();
+        }
+        serverThreads.stop();
+
+        double seconds = duration.toNanos() / 1e9;
+        report.print(System.out, seconds);
+        if (serverThreads.samples() > 0) {
+            System.out.printf("Server threads: %.0f on average, %d at most (%d samples)%n",
+                serverThreads.mean(), serverThreads.max(), serverThreads.samples());
+        }
+        if (options.containsKey("output")) {
+            Map<String, Object> run = new LinkedHashMap<>();
+            run.put("baseUrl", baseUrl);
+            run.put("products", catalog.products.length);
+            run.put("rawMaterials", catalog.rawMaterials.length);
+            run.put("associations", catalog.associations.length);
+            run.put("density", density);
+            run.put("levels", levels);
+            run.put("threads", threads);
+            run.put("rate", rate);
+            run.put("durationSeconds", seconds);
+            run.put("mix", mix.toString());
+            run.put("hotRawMaterials", catalog.moved.length);
+            if (serverThreads.samples() > 0) {
+                run.put("serverThreadsMean", Math.round(serverThreads.mean()));
+                run.put("serverThreadsMax", serverThreads.max());
+            }
+            Path output = Path.of(options.get("output"));
+            report.write(output, run, seconds);
+            System.out.printf("Results written to %s%n", output.toAbsolutePath());
+        }
+    }
+
+    static Map<String, String> options(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                options.put(arg.substring(2), "");
+            } else {
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Parses {@code 90}, {@code 90s}, {@code 5m} or {@code 1h}.
+     */
+    static Duration duration(String value) {
+        char unit = value.charAt(value.length() - 1);
+        if (Character.isDigit(unit)) {
+            return Duration.ofSeconds(Long.parseLong(value));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        switch (unit) {
+            case 's': return Duration.ofSeconds(amount);
+            case 'm': return Duration.ofMinutes(amount);
+            case 'h': return Duration.ofHours(amount);
+            default: throw new IllegalArgumentException("Unknown duration unit in " + value);
+        }
+    }
+
+    /**
+     * Operations with cumulative weights, picked at random in proportion to their weight.
+     */
+    static final class Mix {
+        private final Operation[] operations;
+        private final int[] cumulative;
+
+        private Mix(Operation[] operations, int[] cumulative) {
+            this.operations = operations;
+            this.cumulative = cumulative;
+        }
+
+        /**
+         * @param spec {@code operation:weight,...}, or {@code null} for the default weights
+         */
+        static Mix parse(String spec) {
+            Map<Operation, Integer> weights = new LinkedHashMap<>();
+            if (spec == null) {
+                for (Operation operation : Operation.values()) {
+                    weights.put(operation, operation.defaultWeight());
+                }
+            } else {
+                for (String part : spec.split(",")) {
+                    String[] pair = part.trim().split(":");
+                    weights.put(Operation.fromKey(pair[0]), pair.length > 1 ? Integer.parseInt(pair[1]) : 1);
+                }
+            }
+            Operation[] operations = new Operation[weights.size()];
+            int[] cumulative = new int[weights.size()];
+            int total = 0;
+            int i = 0;
+            for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+                total += entry.getValue();
+                operations[i] = entry.getKey();
+                cumulative[i++] = total;
+            }
+            if (total <= 0) {
+                throw new IllegalArgumentException("The mix needs at least one operation with a positive weight");
+            }
+            return new Mix(operations, cumulative);
+        }
+
+        Operation pick(Random random) {
+            int ticket = random.nextInt(cumulative[cumulative.length - 1]);
+            int i = 0;
+            while (cumulative[i] <= ticket) {
+                i++;
+            }
+            return operations[i];
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < operations.length; i++) {
+                text.append(i == 0 ? "" : ",").append(operations[i].key()).append(':')
+                    .append(cumulative[i] - (i == 0 ? 0 : cumulative[i - 1]));
+            }
+            return text.toString();
+        }
+    }
+
+    private static final class Worker implements Runnable {
+        final Thread thread;
+        private final LatencyReport report;
+        private final ApiClient api;
+        private final CatalogSeeder.Catalog catalog;
+        private final Mix mix;
+        private final Random random;
+        private final long interval;
+        private final long measureFrom;
+        private final long end;
+        private long next;
+
+        Worker(ApiClient api, CatalogSeeder.Catalog catalog, Mix mix, LatencyReport report, Random random, long first,
+               long interval, long measureFrom, long end) {
+            this.report = report;
+            this.api = api;
+            this.catalog = catalog;
+            this.mix = mix;
+            this.random = random;
+            this.next = first;
+            this.interval = interval;
+            this.measureFrom = measureFrom;
+            this.end = end;
+            this.thread = new Thread(this, "loadtest-worker");
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                long started;
+                if (interval > 0) {
+                    started = next;
+                    next += interval;
+                    long wait;
+                    while ((wait = started - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                } else {
+                    started = System.nanoTime();
+                }
+                if (started >= end) {
+                    return;
+                }
+                Operation operation = mix.pick(random);
+                boolean failed;
+                try {
+                    int status = operation.execute(api, catalog, random);
+                    failed = status / 100 != 2 && status != 304;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    failed = true;
+                }
+                if (started >= measureFrom) {
+                    report.record(operation, System.nanoTime() - started, failed);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * One kind of request in the workload mix, with its default weight.
+ *
+ * Reads pick a random id of the seeded catalog; list pages start after a
+ * random id, as a client paging from a bookmark would.
+ * {@link #RESERVE_RELEASE} reserves one unit and releases it again, so stock
+ * stays where it was; its latency covers both requests.
+ * {@link #PRODUCTION_ORDER} produces one unit each of two products and so
+ * uses stock up for good; it only runs when {@code --mix} names it.
+ * {@link #EDIT_BOM} adds a component to a product and removes it again,
+ * each refreshing the flattened requirements of the product and everything
+ * that contains it; it also only runs when named.
+ */
+enum Operation {
+    LIST_PRODUCTS("list-products", 20) {
+        @Override
+        int execute(ApiClient api, CatalogSeeder.Catalog catalog, Random random) throws IOException, InterruptedException {
+            return api.get("/products?limit=" + PAGE + "&after=" + pick(catalog.products, random));
+        }
+    },
+    LIST_RAW_MATERIALS("list-raw-materials", 10) {
+        @Override
+        int execute(ApiClient api, CatalogSeeder.Catalog catalog, Random random) throws IOException, InterruptedException {
+            return api.get("/raw-materials?limit=" + PAGE + "&after=" + pick(catalog.rawMaterials, random));
+        }
+    },
+    GET_RAW_MATERIAL("get-raw-material", 25) {
+        @Override
+        int execute(ApiClient api, CatalogSeeder.Catalog catalog, Random random) throws IOException, InterruptedException {
+            return api.get("/raw-materials/" + pick(catalog.rawMaterials, random));
+        }
+    },
+    LIST_ASSOCIATIONS("list-associations", 5) {
+        @Override
+        int execute(ApiClient api, CatalogSeeder.Catalog catalog, Random random) throws IOException, InterruptedException {
+            return api.get("/products-raw-materials?limit=" + PAGE + "&after=" + pick(catalog.associations, random));
+        }
+    },
+    GET_ASSOCIATION("get-association", 20) {
+        @Override
+        int execute(ApiClient api, CatalogSeeder.Catalog catalog, Random random) throws IOException, InterruptedException {
+            return api.get("/products-raw-materials/" + pick(catalog.associations, random));
+        }
+    },
+    SUGGESTION("suggestion", 15) {
+        @Override
+        int execute(ApiClient api, CatalogSeeder.Catalog catalog, Random random) throws IOException, InterruptedException {
+            return api.get("/production-suggestion");
+        }
+    },
+    RESERVE_RELEASE("reserve-release", 5) {
+        @Override
+        int execute(ApiClient api, CatalogSeeder.Catalog catalog, Random random) throws IOException, InterruptedException {
+            long id = pick(catalog.moved, random);
+            int reserved = api.post("/raw-materials/" + id + "/reserve", "application/json", ONE_UNIT);
+            if (reserved / 100 != 2) {
+                return reserved;
+            }
+            return api.post("/raw-materials/" + id + "/release", "application/json", ONE_UNIT);
+        }
+    },
+    PRODUCTION_ORDER("production-order", 0) {
+        @Override
+        int execute(ApiClient api, CatalogSeeder.Catalog catalog, Random random) throws IOException, InterruptedException {
+            return api.post("/production-orders", "application/json", String.format(
+                "{\"products\": [{\"product\": {\"id\": %d}, \"quantity\": 1}, {\"product\": {\"id\": %d}, \"quantity\": 1}]}",
+                pick(catalog.products, random), pick(catalog.products, random)));
+        }
+    },
+    EDIT_BOM("edit-bom", 0) {
+        @Override
+        int execute(ApiClient api, CatalogSeeder.Catalog catalog, Random random) throws IOException, InterruptedException {
+            // Components always have the lower index, so the edit never closes a cycle
+            int first = random.nextInt(catalog.products.length);
+            int second = random.nextInt(catalog.products.length - 1);
+            if (second >= first) {
+                second++;
+            }
+            String created = api.postBody("/product-components", "application/json", String.format(
+                "{\"product\": {\"id\": %d}, \"component\": {\"id\": %d}, \"requiredQuantity\": 1}",
+                catalog.products[Math.max(first, second)], catalog.products[Math.min(first, second)]));
+            return api.delete("/product-components/" + JSON.readTree(created).path("id").asLong());
+        }
+    };
+
+    private static final int PAGE = 100;
+    private static final String ONE_UNIT = "{\"quantity\": 1}";
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final String key;
+    private final int defaultWeight;
+
+    Operation(String key, int defaultWeight) {
+        this.key = key;
+        this.defaultWeight = defaultWeight;
+    }
+
+    String key() { return key; }
+    int defaultWeight() { return defaultWeight; }
+
+    /**
+     * Sends the request and returns the final HTTP status.
+     */
+    abstract int execute(ApiClient api, CatalogSeeder.Catalog catalog, Random random) throws IOException, InterruptedException;
+
+    /**
+     * @throws IllegalArgumentException for an unknown key
+     */
+    static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + key);
+    }
+
+    private static long pick(long[] ids, Random random) {
+        return ids[random.nextInt(ids.length)];
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.loadtest;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Samples the live thread count the backend publishes at {@code /q/metrics}
+ * once a second while the load runs, so blocking and reactive builds can be
+ * compared by the threads they need for the same concurrency.
+ *
+ * A backend without metrics simply reports no samples.
+ */
+final class ServerThreads implements Runnable {
+
+    private static final Pattern LIVE = Pattern.compile("(?m)^jvm_threads_live_threads(?:\\{[^}]*})? ([0-9.Ee+-]+)$");
+    private static final long INTERVAL_MILLIS = 1000;
+
+    private final ApiClient api;
+    private final long measureFrom;
+    private final Thread thread;
+    private volatile boolean stopped;
+    private int samples;
+    private long max;
+    private long sum;
+
+    ServerThreads(ApiClient api, long measureFrom) {
+        this.api = api;
+        this.measureFrom = measureFrom;
+        this.thread = new Thread(this, "loadtest-server-threads");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void stop() throws InterruptedException {
+        stopped = true;
+        thread.interrupt();
+        thread.join();
+    }
+
+    @Override
+    public void run() {
+        while (!stopped) {
+            try {
+                Thread.sleep(INTERVAL_MILLIS);
+                if (System.nanoTime() < measureFrom) {
+                    continue;
+                }
+                Matcher matcher = LIVE.matcher(api.getBody("/q/metrics"));
+                if (matcher.find()) {
+                    long live = (long) Double.parseDouble(matcher.group(1));
+                    synchronized (this) {
+                        samples++;
+                        sum += live;
+                        max = Math.max(max, live);
+                    }
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                // a scrape that times out under load is just a missing sample
+            }
+        }
+    }
+
+    synchronized int samples() {
+        return samples;
+    }
+
+    synchronized long max() {
+        return max;
+    }
+
+    synchronized double mean() {
+        return samples == 0 ? 0 : (double) sum / samples;
+    }
+}
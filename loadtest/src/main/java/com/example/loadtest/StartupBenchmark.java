@@ -0,0 +1,278 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Starts the backend over and over and measures how long it takes to answer
+ * its first request and how much memory it holds, for comparing the JVM and
+ * native builds.
+ *
+ * Startup is timed from launching the process to the first 200 from
+ * {@code --probe}, polled every few milliseconds, which covers connecting to
+ * the database and migrating it. Resident memory is read from
+ * {@code /proc/<pid>/status} right after that first answer and again after
+ * {@code --requests} more requests, so it needs Linux and a command that
+ * execs the server itself rather than a wrapper script.
+ */
+public final class StartupBenchmark {
+
+    private static final String USAGE = String.join("\n",
+        "usage: java -cp loadtest.jar com.example.loadtest.StartupBenchmark --command=\"...\" [--option=value ...]",
+        "  --command=<command line>              starts the backend; split on spaces",
+        "  --name=<first word of the command>    label of the results",
+        "  --base-url=http://localhost:8082      where the started backend listens",
+        "  --probe=/products?limit=1             first request that has to succeed",
+        "  --runs=10                             measured starts",
+        "  --warmup-runs=1                       starts not measured, e.g. the one that migrates the database",
+        "  --requests=200                        requests sent before the second memory reading",
+        "  --timeout=60s                         longest a start may take",
+        "  --output=<dir>                        write <name>.json there");
+
+    private static final Pattern STARTED = Pattern.compile("started in ([0-9.]+)s");
+    private static final String[] REQUESTS = {"/products?limit=100", "/raw-materials?limit=100",
+        "/products-raw-materials?limit=100", "/production-suggestion"};
+
+    private final List<String> command;
+    private final String baseUrl;
+    private final String probe;
+    private final int requests;
+    private final Duration timeout;
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(1))
+        .build();
+
+    private StartupBenchmark(List<String> command, String baseUrl, String probe, int requests, Duration timeout) {
+        this.command = command;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.probe = probe;
+        this.requests = requests;
+        this.timeout = timeout;
+    }
+
+    public static void main(String[] args) throws Exception {
+        try {
+            run(LoadTest.options(args));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException for an invalid option
+     */
+    private static void run(Map<String, String> options) throws Exception {
+        if (options.containsKey("help")) {
+            System.out.println(USAGE);
+            return;
+        }
+        String commandLine = options.get("command");
+        if (commandLine == null || commandLine.isBlank()) {
+            throw new IllegalArgumentException("--command is required");
+        }
+        List<String> command = Arrays.asList(commandLine.trim().split("\\s+"));
+        String name = options.getOrDefault("name", Path.of(command.get(0)).getFileName().toString());
+        int runs = Integer.parseInt(options.getOrDefault("runs", "10"));
+        int warmupRuns = Integer.parseInt(options.getOrDefault("warmup-runs", "1"));
+        StartupBenchmark benchmark = new StartupBenchmark(command,
+            options.getOrDefault("base-url", "http://localhost:8082"),
+            options.getOrDefault("probe", "/products?limit=1"),
+            Integer.parseInt(options.getOrDefault("requests", "200")),
+            LoadTest.duration(options.getOrDefault("timeout", "60s")));
+
+        System.out.printf("%s: %d warm-up and %d measured starts of %s%n", name, warmupRuns, runs, commandLine);
+        for (int i = 0; i < warmupRuns; i++) {
+            benchmark.start();
+        }
+        List<Start> starts = new ArrayList<>();
+        for (int i = 0; i < runs; i++) {
+            Start start = benchmark.start();
+            System.out.printf("  run %2d: first response %5d ms, reported %5d ms, RSS %4d MB, after %d requests %4d MB%n",
+                i + 1, start.firstResponseMillis, start.reportedMillis, start.rssKb / 1024, benchmark.requests,
+                start.rssAfterRequestsKb / 1024);
+            starts.add(start);
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("name", name);
+        summary.put("command", commandLine);
+        summary.put("runs", runs);
+        summary.put("requests", benchmark.requests);
+        summary.put("firstResponseMillis", stats(starts, start -> start.firstResponseMillis));
+        summary.put("reportedStartupMillis", stats(starts, start -> start.reportedMillis));
+        summary.put("rssKb", stats(starts, start -> start.rssKb));
+        summary.put("rssAfterRequestsKb", stats(starts, start -> start.rssAfterRequestsKb));
+        System.out.printf("%s: first response %d ms, RSS %d MB, after requests %d MB (medians)%n", name,
+            median(starts, start -> start.firstResponseMillis), median(starts, start -> start.rssKb) / 1024,
+            median(starts, start -> start.rssAfterRequestsKb) / 1024);
+
+        if (options.containsKey("output")) {
+            Path output = Path.of(options.get("output"));
+            Files.createDirectories(output);
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(output.resolve(name + ".json").toFile(), summary);
+            System.out.printf("Results written to %s%n", output.resolve(name + ".json").toAbsolutePath());
+        }
+    }
+
+    /**
+     * Starts the backend, waits for its first answer, measures it and stops it again.
+     */
+    private Start start() throws IOException, InterruptedException {
+        ensurePortFree();
+        long launched = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        Log log = new Log(process.getInputStream());
+        log.start();
+        try {
+            long deadline = launched + timeout.toNanos();
+            while (!answers(probe)) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("The backend exited with " + process.exitValue() + ":\n" + log.text());
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("The backend did not answer within " + timeout.toSeconds() + "s:\n"
+                        + log.text());
+                }
+                Thread.sleep(5);
+            }
+            Start start = new Start();
+            start.firstResponseMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - launched);
+            start.rssKb = rssKb(process.pid());
+            for (int i = 0; i < requests; i++) {
+                answers(REQUESTS[i % REQUESTS.length]);
+            }
+            start.rssAfterRequestsKb = rssKb(process.pid());
+            start.reportedMillis = log.reportedMillis();
+            return start;
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+            log.join();
+        }
+    }
+
+    private boolean answers(String path) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).GET().build();
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Fails when something already listens where the backend will, since
+     * its answers would be timed instead.
+     */
+    private void ensurePortFree() throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + probe)).GET().build();
+        try {
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (ConnectException e) {
+            return;
+        } catch (IOException e) {
+            // answered with something, so the port is taken
+        }
+        throw new IllegalStateException("Something already answers at " + baseUrl);
+    }
+
+    private static long rssKb(long pid) throws IOException {
+        for (String line : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("[^0-9]", ""));
+            }
+        }
+        throw new IllegalStateException("No VmRSS for process " + pid);
+    }
+
+    private static Map<String, Long> stats(List<Start> starts, ToLongFunction<Start> value) {
+        long[] values = starts.stream().mapToLong(value).sorted().toArray();
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("min", values[0]);
+        stats.put("median", values[values.length / 2]);
+        stats.put("max", values[values.length - 1]);
+        return stats;
+    }
+
+    private static long median(List<Start> starts, ToLongFunction<Start> value) {
+        return stats(starts, value).get("median");
+    }
+
+    private static final class Start {
+        long firstResponseMillis;
+        long reportedMillis;
+        long rssKb;
+        long rssAfterRequestsKb;
+    }
+
+    /**
+     * Drains the output of the backend, keeping it for error messages and
+     * for the startup time Quarkus reports itself.
+     */
+    private static final class Log extends Thread {
+        private final InputStream in;
+        private final StringBuilder text = new StringBuilder();
+
+        Log(InputStream in) {
+            super("startup-benchmark-log");
+            this.in = in;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            byte[] buffer = new byte[8192];
+            int read;
+            try {
+                while ((read = in.read(buffer)) >= 0) {
+                    synchronized (text) {
+                        text.append(new String(buffer, 0, read, StandardCharsets.UTF_8));
+                    }
+                }
+            } catch (IOException e) {
+                // the process is gone
+            }
+        }
+
+        String text() {
+            synchronized (text) {
+                return text.toString();
+            }
+        }
+
+        /**
+         * Startup time from the "started in" line, or -1 before it was logged.
+         */
+        long reportedMillis() {
+            Matcher matcher = STARTED.matcher(text());
+            return matcher.find() ? Math.round(Double.parseDouble(matcher.group(1)) * 1000) : -1;
+        }
+    }
+}